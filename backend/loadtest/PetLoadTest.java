@@ -0,0 +1,179 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 宠物接口压测客户端（单文件程序，直接用 java PetLoadTest.java 运行，不参与后端构建）
+ *
+ * 先创建 players 个玩家并打开 streams 个状态推送连接（模拟空闲的在线页面），
+ * 再由 clients 个并发客户端各自循环发请求 seconds 秒：
+ * 60% 获取宠物信息、20% 执行动作、10% 获取统计、10% 获取商店。
+ * 输出吞吐、延迟分位数、错误数，以及服务端压测期间的存活线程数和峰值线程数
+ * （峰值由压测期间定时采样存活线程数得到，需要后端打开 app.engine.endpoints.enabled）。
+ *
+ * 用法：java PetLoadTest.java baseUrl clients seconds players streams label
+ */
+public class PetLoadTest {
+
+    private static final String[] ACTIONS = {"FEED", "PLAY", "PET", "TALK", "CLEAN"};
+    private static final long SAMPLE_INTERVAL_MILLIS = 200;
+    private static final Pattern NUMBER_FIELD = Pattern.compile("\"(liveThreads|peakThreads)\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int players = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int streams = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        String label = args.length > 5 ? args[5] : "";
+
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+        for (int i = 0; i < players; i++) {
+            send(http, post(base + "/api/pet/create",
+                "{\"playerId\":\"load-" + i + "\",\"petName\":\"Load" + i + "\",\"petType\":\"CAT\"}")).join();
+        }
+        for (int i = 0; i < streams; i++) {
+            // 推送连接一直保持到进程退出
+            http.sendAsync(get(base + "/api/pet/load-" + (i % players) + "/stream"), HttpResponse.BodyHandlers.discarding());
+        }
+        Thread.sleep(1000);
+        String before = send(http, get(base + "/api/engine/runtime")).join().body();
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        Recorder[] recorders = new Recorder[clients];
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[clients + 1];
+        AtomicLong peakThreads = new AtomicLong();
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            recorders[c] = new Recorder();
+            loops[c] = loop(http, base, players, deadline, recorders[c], errors);
+        }
+        loops[clients] = sampleThreads(http, base, deadline, peakThreads);
+        CompletableFuture.allOf(loops).join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        String after = send(http, get(base + "/api/engine/runtime")).join().body();
+
+        long[] latencies = Arrays.stream(recorders).flatMapToLong(Recorder::values).sorted().toArray();
+        System.out.printf("%-10s clients=%d streams=%d requests=%d throughput=%.0f/s p50=%.2fms p99=%.2fms p999=%.2fms errors=%d "
+                + "threads(before)=%s threads(live/peak during run)=%s/%s%n",
+            label, clients, streams, latencies.length, latencies.length / elapsed,
+            percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999), errors.get(),
+            field(before, "liveThreads"), field(after, "liveThreads"), peakThreads.get() > 0 ? peakThreads.get() : "?");
+        System.exit(0);
+    }
+
+    /**
+     * 一个客户端的闭环：上一个请求完成后立即发下一个，直到截止时间
+     */
+    private static CompletableFuture<Void> loop(HttpClient http, String base, int players, long deadline,
+                                                Recorder recorder, AtomicLong errors) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String player = base + "/api/pet/load-" + random.nextInt(players);
+        int pick = random.nextInt(10);
+        HttpRequest request;
+        if (pick < 6) {
+            request = get(player);
+        } else if (pick < 8) {
+            request = post(player + "/action", "{\"action\":\"" + ACTIONS[random.nextInt(ACTIONS.length)] + "\"}");
+        } else if (pick < 9) {
+            request = get(player + "/stats");
+        } else {
+            request = get(base + "/api/pet/shop");
+        }
+        long sent = System.nanoTime();
+        return send(http, request).handle((response, e) -> {
+            recorder.add(System.nanoTime() - sent);
+            if (e != null || response.statusCode() >= 500) {
+                errors.incrementAndGet();
+            }
+            return null;
+        }).thenCompose(ignored -> loop(http, base, players, deadline, recorder, errors));
+    }
+
+    /**
+     * 压测期间定时读取服务端的存活线程数，记录最大值
+     */
+    private static CompletableFuture<Void> sampleThreads(HttpClient http, String base, long deadline, AtomicLong peak) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return send(http, get(base + "/api/engine/runtime")).handle((response, e) -> {
+            if (e == null) {
+                String live = field(response.body(), "liveThreads");
+                if (!live.equals("?")) {
+                    peak.accumulateAndGet(Long.parseLong(live), Math::max);
+                }
+            }
+            return null;
+        }).thenComposeAsync(ignored -> sampleThreads(http, base, deadline, peak),
+            CompletableFuture.delayedExecutor(SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    private static CompletableFuture<HttpResponse<String>> send(HttpClient http, HttpRequest request) {
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+
+    private static String field(String json, String name) {
+        Matcher matcher = NUMBER_FIELD.matcher(json);
+        while (matcher.find()) {
+            if (matcher.group(1).equals(name)) {
+                return matcher.group(2);
+            }
+        }
+        return "?";
+    }
+
+    /**
+     * 单个客户端的延迟记录（纳秒），闭环内顺序写入，不需要同步
+     */
+    private static final class Recorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        java.util.stream.LongStream values() {
+            return Arrays.stream(values, 0, size);
+        }
+    }
+}
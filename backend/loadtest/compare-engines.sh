@@ -0,0 +1,48 @@
+#!/bin/bash
+# 在同一台机器上依次以不同的执行引擎启动后端，用相同的负载压测，对比吞吐和 p99 延迟：
+# 全局锁、分段锁，以及分片数从 1 翻倍到 CPU 核数的分片事件循环
+# 可用环境变量调整：PORT CLIENTS DURATION PLAYERS STREAMS ENGINES（如 "global striped sharded:1 sharded:4"）
+set -e
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-18090}
+CLIENTS=${CLIENTS:-64}
+DURATION=${DURATION:-30}
+PLAYERS=${PLAYERS:-1000}
+STREAMS=${STREAMS:-0}
+
+if [ -z "$ENGINES" ]; then
+    ENGINES="global striped"
+    CORES=$(nproc)
+    for ((SHARDS = 1; SHARDS < CORES; SHARDS *= 2)); do
+        ENGINES="$ENGINES sharded:$SHARDS"
+    done
+    ENGINES="$ENGINES sharded:$CORES"
+fi
+
+if [ -z "$SKIP_BUILD" ]; then
+    mvn -B -q compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+fi
+CLASSPATH="target/classes:$(cat target/classpath.txt)"
+MAIN=com.example.aiinterviewassistant.AiInterviewAssistantApplication
+
+echo "cores=$(nproc)"
+for ENGINE in $ENGINES; do
+    MODE=${ENGINE%%:*}
+    SHARDS=0
+    if [ "$MODE" != "$ENGINE" ]; then
+        SHARDS=${ENGINE#*:}
+    fi
+    DATA=$(mktemp -d)
+    java -cp "$CLASSPATH" "$MAIN" --server.port="$PORT" --app.engine.mode="$MODE" --app.engine.shards="$SHARDS" \
+        --app.persistence.dir="$DATA" --app.engine.endpoints.enabled=true > "target/loadtest-$MODE-$SHARDS.log" 2>&1 &
+    PID=$!
+    for i in $(seq 1 120); do
+        curl -s -o /dev/null "http://localhost:$PORT/api/pet/types" && break
+        sleep 0.5
+    done
+    java loadtest/PetLoadTest.java "http://localhost:$PORT" "$CLIENTS" "$DURATION" "$PLAYERS" "$STREAMS" "$ENGINE"
+    kill "$PID"
+    wait "$PID" 2>/dev/null || true
+    rm -rf "$DATA"
+done
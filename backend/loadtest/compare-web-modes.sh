@@ -0,0 +1,33 @@
+#!/bin/bash
+# 在同一台机器上依次以 servlet 和 reactive 模式启动后端，用相同的负载压测，对比吞吐、p99 延迟和线程数
+# 可用环境变量调整：PORT CLIENTS DURATION PLAYERS STREAMS PET_ENGINE_MODE
+set -e
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-18090}
+CLIENTS=${CLIENTS:-64}
+DURATION=${DURATION:-30}
+PLAYERS=${PLAYERS:-1000}
+STREAMS=${STREAMS:-1000}
+ENGINE=${PET_ENGINE_MODE:-sharded}
+
+if [ -z "$SKIP_BUILD" ]; then
+    mvn -B -q compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+fi
+CLASSPATH="target/classes:$(cat target/classpath.txt)"
+MAIN=com.example.aiinterviewassistant.AiInterviewAssistantApplication
+
+for MODE in servlet reactive; do
+    DATA=$(mktemp -d)
+    java -cp "$CLASSPATH" "$MAIN" --server.port="$PORT" --spring.main.web-application-type="$MODE" \
+        --app.engine.mode="$ENGINE" --app.persistence.dir="$DATA" --app.engine.endpoints.enabled=true > "target/loadtest-$MODE.log" 2>&1 &
+    PID=$!
+    for i in $(seq 1 120); do
+        curl -s -o /dev/null "http://localhost:$PORT/api/pet/types" && break
+        sleep 0.5
+    done
+    java loadtest/PetLoadTest.java "http://localhost:$PORT" "$CLIENTS" "$DURATION" "$PLAYERS" "$STREAMS" "$MODE"
+    kill "$PID"
+    wait "$PID" 2>/dev/null || true
+    rm -rf "$DATA"
+done
@@ -0,0 +1,44 @@
+package com.example.aiinterviewassistant.config;
+
+import com.example.aiinterviewassistant.service.GlobalLockExecutor;
+import com.example.aiinterviewassistant.service.PlayerCommandExecutor;
+import com.example.aiinterviewassistant.service.ShardedEventLoopExecutor;
+import com.example.aiinterviewassistant.service.StripedLockExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 玩家命令执行引擎配置
+ * app.engine.mode 选择执行方式：
+ * striped（默认，分段锁）、sharded（分片单写者事件循环，适合最高负载部署）、global（全局锁，用于对比测试）
+ */
+@Configuration
+public class EngineConfig {
+
+    @Value("${app.engine.mode:striped}")
+    private String mode;
+
+    @Value("${app.engine.stripes:1024}")
+    private int stripes;
+
+    @Value("${app.engine.shards:0}")
+    private int shards;
+
+    @Value("${app.engine.ringCapacity:8192}")
+    private int ringCapacity;
+
+    @Value("${app.engine.batchSize:256}")
+    private int batchSize;
+
+    @Bean
+    public PlayerCommandExecutor playerCommandExecutor() {
+        return switch (mode.toLowerCase()) {
+            case "global" -> new GlobalLockExecutor();
+            case "striped" -> new StripedLockExecutor(stripes);
+            case "sharded" -> new ShardedEventLoopExecutor(
+                shards > 0 ? shards : Runtime.getRuntime().availableProcessors(), ringCapacity, batchSize);
+            default -> throw new IllegalArgumentException("未知的执行引擎模式：" + mode);
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.aiinterviewassistant.config;
+
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JSON 序列化配置
+ * 容器中的 Module 会注册到 Spring 的 ObjectMapper 上，两种 Web 模式、预渲染目录和响应缓存都使用它；
+ * 预写日志有自己的 ObjectMapper，不受影响。app.json.fastSerializers=false 时退回默认的 Bean 序列化。
+ */
+@Configuration
+public class JsonConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.json.fastSerializers", havingValue = "true", matchIfMissing = true)
+    public Module petJsonModule() {
+        return new PetJsonModule();
+    }
+}
@@ -0,0 +1,475 @@
+package com.example.aiinterviewassistant.config;
+
+import com.example.aiinterviewassistant.model.Achievement;
+import com.example.aiinterviewassistant.model.GameItem;
+import com.example.aiinterviewassistant.model.MiniGame;
+import com.example.aiinterviewassistant.model.Mood;
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.model.PetStats;
+import com.example.aiinterviewassistant.model.PetType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 宠物模型的手写序列化器
+ * 默认的 Bean 序列化器每次都调用全部 getter，其中派生值（状态描述、推荐动作、情绪状态、稀有度文字）
+ * 每次都要重新计算、拼接字符串、分配数组，数值 getter 还各自读取一次时钟。这里每只宠物只读一次时钟，
+ * 派生值按模型里的下标查预先编码好的 UTF-8 文字；字段名和目录中的固定文字（名称、表情、描述）也只编码一次，
+ * 时间直接写成 ISO 格式的字符，不经过格式化器。
+ * 输出与默认序列化逐字节相同：字段顺序相同，表情等补充平面字符同样转义成代理对。
+ * 只写字符串和数字，不写原始 JSON，换成其他格式的生成器同样可用。
+ */
+public class PetJsonModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    // 目录文字的编码缓存，只缓存模型中的固定文字（玩家起的名字等不进缓存），超过上限后不再加入
+    private static final int MAX_CACHED_TEXTS = 4096;
+    private static final Map<String, SerializedString> TEXTS = new ConcurrentHashMap<>();
+    // 缓存中表示"不预编码"的标记
+    private static final SerializedString RAW = new SerializedString("");
+
+    // 字段名
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString STATS = new SerializedString("stats");
+    private static final SerializedString COLOR = new SerializedString("color");
+    private static final SerializedString BIRTH_DATE = new SerializedString("birthDate");
+    private static final SerializedString LAST_INTERACTION = new SerializedString("lastInteraction");
+    private static final SerializedString MOOD = new SerializedString("mood");
+    private static final SerializedString AGE_IN_DAYS = new SerializedString("ageInDays");
+    private static final SerializedString ASLEEP = new SerializedString("asleep");
+    private static final SerializedString STATUS_DESCRIPTION = new SerializedString("statusDescription");
+    private static final SerializedString RECOMMENDED_ACTIONS = new SerializedString("recommendedActions");
+    private static final SerializedString EXPERIENCE = new SerializedString("experience");
+    private static final SerializedString LAST_UPDATE = new SerializedString("lastUpdate");
+    private static final SerializedString LEVEL = new SerializedString("level");
+    private static final SerializedString ENERGY = new SerializedString("energy");
+    private static final SerializedString HUNGER = new SerializedString("hunger");
+    private static final SerializedString CLEANLINESS = new SerializedString("cleanliness");
+    private static final SerializedString HAPPINESS = new SerializedString("happiness");
+    private static final SerializedString HEALTH = new SerializedString("health");
+    private static final SerializedString MOOD_STATUS = new SerializedString("moodStatus");
+    private static final SerializedString DISPLAY_NAME = new SerializedString("displayName");
+    private static final SerializedString EMOJI = new SerializedString("emoji");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString DIFFICULTY = new SerializedString("difficulty");
+    private static final SerializedString MAX_REWARD = new SerializedString("maxReward");
+    private static final SerializedString COST = new SerializedString("cost");
+    private static final SerializedString RARITY = new SerializedString("rarity");
+    private static final SerializedString EFFECT = new SerializedString("effect");
+    private static final SerializedString STAT_NAMES = new SerializedString("statNames");
+    private static final SerializedString VALUES = new SerializedString("values");
+    private static final SerializedString UNLOCKED = new SerializedString("unlocked");
+    private static final SerializedString RARITY_DISPLAY = new SerializedString("rarityDisplay");
+    private static final SerializedString RARITY_COLOR = new SerializedString("rarityColor");
+    private static final SerializedString TARGET_VALUE = new SerializedString("targetValue");
+    private static final SerializedString CURRENT_PROGRESS = new SerializedString("currentProgress");
+    private static final SerializedString UNLOCKED_DATE = new SerializedString("unlockedDate");
+    private static final SerializedString REWARD = new SerializedString("reward");
+    private static final SerializedString COINS = new SerializedString("coins");
+    private static final SerializedString SPECIAL_ITEM = new SerializedString("specialItem");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString PROGRESS_PERCENTAGE = new SerializedString("progressPercentage");
+    private static final SerializedString PROGRESS_DESCRIPTION = new SerializedString("progressDescription");
+
+    // 派生值，下标与模型中的表一致
+    private static final SerializedString[] MOOD_STATUSES = encodeAll(PetStats.MOOD_STATUSES);
+    private static final SerializedString[] RARITY_DISPLAYS = encodeAll(GameItem.RARITY_DISPLAYS);
+    private static final SerializedString[] RARITY_COLORS = encodeAll(GameItem.RARITY_COLORS);
+    private static final SerializedString[][] RECOMMENDATIONS = Pet.RECOMMENDED_ACTIONS.stream()
+        .map(PetJsonModule::encodeAll)
+        .toArray(SerializedString[][]::new);
+    private static final SerializedString[] MOODS = new SerializedString[Mood.values().length];
+    private static final SerializedString[] ITEM_TYPES = new SerializedString[GameItem.ItemType.values().length];
+    private static final SerializedString[] ACHIEVEMENT_TYPES =
+        new SerializedString[Achievement.AchievementType.values().length];
+
+    static {
+        for (Mood mood : Mood.values()) {
+            MOODS[mood.ordinal()] = new SerializedString(mood.getKey());
+        }
+        for (GameItem.ItemType type : GameItem.ItemType.values()) {
+            ITEM_TYPES[type.ordinal()] = new SerializedString(type.name());
+        }
+        for (Achievement.AchievementType type : Achievement.AchievementType.values()) {
+            ACHIEVEMENT_TYPES[type.ordinal()] = new SerializedString(type.name());
+        }
+    }
+
+    public PetJsonModule() {
+        super("PetJsonModule");
+        addSerializer(Pet.class, new PetSerializer());
+        addSerializer(PetStats.class, new PetStatsSerializer());
+        addSerializer(PetType.class, new PetTypeSerializer());
+        addSerializer(MiniGame.GameType.class, new GameTypeSerializer());
+        addSerializer(GameItem.class, new GameItemSerializer());
+        addSerializer(Achievement.class, new AchievementSerializer());
+    }
+
+    static final class PetSerializer extends StdSerializer<Pet> {
+        private static final long serialVersionUID = 1L;
+
+        PetSerializer() {
+            super(Pet.class);
+        }
+
+        @Override
+        public void serialize(Pet pet, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            long now = System.currentTimeMillis();
+            PetStats stats = pet.getStats();
+            gen.writeStartObject(pet);
+            gen.writeFieldName(ID);
+            gen.writeString(pet.getId());
+            gen.writeFieldName(NAME);
+            gen.writeString(pet.getName());
+            gen.writeFieldName(TYPE);
+            if (pet.getType() != null) {
+                writePetType(pet.getType(), gen);
+            } else {
+                gen.writeNull();
+            }
+            gen.writeFieldName(STATS);
+            writeStats(stats, now, gen, provider);
+            gen.writeFieldName(COLOR);
+            gen.writeString(pet.getColor());
+            gen.writeFieldName(BIRTH_DATE);
+            writeDateTime(pet.getBirthDate(), gen, provider);
+            gen.writeFieldName(LAST_INTERACTION);
+            writeDateTime(pet.getLastInteraction(), gen, provider);
+            gen.writeFieldName(MOOD);
+            Mood mood = pet.getMood(now);
+            if (mood != null) {
+                gen.writeString(MOODS[mood.ordinal()]);
+            } else {
+                gen.writeNull();
+            }
+            gen.writeFieldName(ASLEEP);
+            gen.writeBoolean(stats.isSleepingAt(now));
+            gen.writeFieldName(AGE_IN_DAYS);
+            gen.writeNumber(pet.ageInDaysAt(now));
+            gen.writeFieldName(STATUS_DESCRIPTION);
+            gen.writeString(pet.getName() + Pet.STATUS_SUFFIXES.get(pet.statusAt(now)));
+            gen.writeFieldName(RECOMMENDED_ACTIONS);
+            SerializedString[] actions = RECOMMENDATIONS[pet.recommendationsAt(now)];
+            gen.writeStartArray(actions, actions.length);
+            for (SerializedString action : actions) {
+                gen.writeString(action);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    static final class PetStatsSerializer extends StdSerializer<PetStats> {
+        private static final long serialVersionUID = 1L;
+
+        PetStatsSerializer() {
+            super(PetStats.class);
+        }
+
+        @Override
+        public void serialize(PetStats stats, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeStats(stats, System.currentTimeMillis(), gen, provider);
+        }
+    }
+
+    static final class PetTypeSerializer extends StdSerializer<PetType> {
+        private static final long serialVersionUID = 1L;
+
+        PetTypeSerializer() {
+            super(PetType.class);
+        }
+
+        @Override
+        public void serialize(PetType type, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writePetType(type, gen);
+        }
+    }
+
+    static final class GameTypeSerializer extends StdSerializer<MiniGame.GameType> {
+        private static final long serialVersionUID = 1L;
+
+        GameTypeSerializer() {
+            super(MiniGame.GameType.class);
+        }
+
+        @Override
+        public void serialize(MiniGame.GameType type, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(type);
+            gen.writeFieldName(DISPLAY_NAME);
+            writeText(type.getDisplayName(), gen);
+            gen.writeFieldName(EMOJI);
+            writeText(type.getEmoji(), gen);
+            gen.writeFieldName(DESCRIPTION);
+            writeText(type.getDescription(), gen);
+            gen.writeFieldName(DIFFICULTY);
+            gen.writeNumber(type.getDifficulty());
+            gen.writeFieldName(MAX_REWARD);
+            gen.writeNumber(type.getMaxReward());
+            gen.writeFieldName(NAME);
+            writeText(type.name(), gen);
+            gen.writeEndObject();
+        }
+    }
+
+    static final class GameItemSerializer extends StdSerializer<GameItem> {
+        private static final long serialVersionUID = 1L;
+
+        GameItemSerializer() {
+            super(GameItem.class);
+        }
+
+        @Override
+        public void serialize(GameItem item, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(item);
+            gen.writeFieldName(ID);
+            writeText(item.getId(), gen);
+            gen.writeFieldName(NAME);
+            writeText(item.getName(), gen);
+            gen.writeFieldName(EMOJI);
+            writeText(item.getEmoji(), gen);
+            gen.writeFieldName(DESCRIPTION);
+            writeText(item.getDescription(), gen);
+            gen.writeFieldName(TYPE);
+            if (item.getType() != null) {
+                gen.writeString(ITEM_TYPES[item.getType().ordinal()]);
+            } else {
+                gen.writeNull();
+            }
+            gen.writeFieldName(COST);
+            gen.writeNumber(item.getCost());
+            gen.writeFieldName(RARITY);
+            gen.writeNumber(item.getRarity());
+            gen.writeFieldName(EFFECT);
+            writeEffect(item.getEffect(), gen);
+            gen.writeFieldName(UNLOCKED);
+            gen.writeBoolean(item.isUnlocked());
+            gen.writeFieldName(RARITY_DISPLAY);
+            gen.writeString(RARITY_DISPLAYS[item.rarityIndex()]);
+            gen.writeFieldName(RARITY_COLOR);
+            gen.writeString(RARITY_COLORS[item.rarityIndex()]);
+            gen.writeEndObject();
+        }
+    }
+
+    static final class AchievementSerializer extends StdSerializer<Achievement> {
+        private static final long serialVersionUID = 1L;
+
+        AchievementSerializer() {
+            super(Achievement.class);
+        }
+
+        @Override
+        public void serialize(Achievement achievement, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            int progress = achievement.getCurrentProgress();
+            int target = achievement.getTargetValue();
+            gen.writeStartObject(achievement);
+            gen.writeFieldName(ID);
+            writeText(achievement.getId(), gen);
+            gen.writeFieldName(NAME);
+            writeText(achievement.getName(), gen);
+            gen.writeFieldName(DESCRIPTION);
+            writeText(achievement.getDescription(), gen);
+            gen.writeFieldName(EMOJI);
+            writeText(achievement.getEmoji(), gen);
+            gen.writeFieldName(TYPE);
+            if (achievement.getType() != null) {
+                gen.writeString(ACHIEVEMENT_TYPES[achievement.getType().ordinal()]);
+            } else {
+                gen.writeNull();
+            }
+            gen.writeFieldName(TARGET_VALUE);
+            gen.writeNumber(target);
+            gen.writeFieldName(CURRENT_PROGRESS);
+            gen.writeNumber(progress);
+            gen.writeFieldName(UNLOCKED);
+            gen.writeBoolean(achievement.isUnlocked());
+            gen.writeFieldName(UNLOCKED_DATE);
+            if (achievement.getUnlockedDate() != null) {
+                writeDateTime(achievement.getUnlockedDate(), gen, provider);
+            } else {
+                gen.writeNull();
+            }
+            gen.writeFieldName(REWARD);
+            writeReward(achievement.getReward(), gen);
+            gen.writeFieldName(PROGRESS_PERCENTAGE);
+            gen.writeNumber(achievement.getProgressPercentage());
+            gen.writeFieldName(PROGRESS_DESCRIPTION);
+            gen.writeString(achievement.getProgressDescription());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * 数值全部投影到同一时刻 now，情绪状态也由这组数值得出
+     */
+    private static void writeStats(PetStats stats, long now, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeStartObject(stats);
+        gen.writeFieldName(HUNGER);
+        gen.writeNumber(stats.hungerAt(now));
+        gen.writeFieldName(CLEANLINESS);
+        gen.writeNumber(stats.cleanlinessAt(now));
+        gen.writeFieldName(HAPPINESS);
+        gen.writeNumber(stats.happinessAt(now));
+        gen.writeFieldName(ENERGY);
+        gen.writeNumber(stats.energyAt(now));
+        gen.writeFieldName(HEALTH);
+        gen.writeNumber(stats.healthAt(now));
+        gen.writeFieldName(EXPERIENCE);
+        gen.writeNumber(stats.getExperience());
+        gen.writeFieldName(LEVEL);
+        gen.writeNumber(stats.getLevel());
+        gen.writeFieldName(LAST_UPDATE);
+        writeDateTime(stats.getLastUpdate(), gen, provider);
+        gen.writeFieldName(MOOD_STATUS);
+        gen.writeString(MOOD_STATUSES[stats.moodStatusAt(now)]);
+        gen.writeEndObject();
+    }
+
+    private static void writePetType(PetType type, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(type);
+        gen.writeFieldName(DISPLAY_NAME);
+        writeText(type.getDisplayName(), gen);
+        gen.writeFieldName(EMOJI);
+        writeText(type.getEmoji(), gen);
+        gen.writeFieldName(DESCRIPTION);
+        writeText(type.getDescription(), gen);
+        gen.writeFieldName(NAME);
+        writeText(type.name(), gen);
+        gen.writeEndObject();
+    }
+
+    private static void writeEffect(PetAction.StatEffect effect, JsonGenerator gen) throws IOException {
+        if (effect == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(effect);
+        gen.writeFieldName(STAT_NAMES);
+        gen.writeStartArray(effect.getStatNames(), effect.getStatNames().length);
+        for (String statName : effect.getStatNames()) {
+            writeText(statName, gen);
+        }
+        gen.writeEndArray();
+        gen.writeFieldName(VALUES);
+        gen.writeArray(effect.getValues(), 0, effect.getValues().length);
+        gen.writeEndObject();
+    }
+
+    private static void writeReward(Achievement.Reward reward, JsonGenerator gen) throws IOException {
+        if (reward == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(reward);
+        gen.writeFieldName(COINS);
+        gen.writeNumber(reward.getCoins());
+        gen.writeFieldName(EXPERIENCE);
+        gen.writeNumber(reward.getExperience());
+        gen.writeFieldName(SPECIAL_ITEM);
+        writeText(reward.getSpecialItem(), gen);
+        gen.writeFieldName(TITLE);
+        writeText(reward.getTitle(), gen);
+        gen.writeEndObject();
+    }
+
+    /**
+     * 按 ISO_LOCAL_DATE_TIME 直接写出（与 JavaTimeModule 默认输出相同：秒总是写出，纳秒去掉末尾的 0），
+     * 省去格式化器的解析状态和中间字符串；时间戳模式和四位数以外的年份仍交给默认序列化器
+     */
+    private static void writeDateTime(LocalDateTime value, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        if (value == null || value.getYear() < 0 || value.getYear() > 9999
+                || provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(value, gen);
+            return;
+        }
+        char[] buf = new char[29];
+        digits(buf, 0, value.getYear(), 4);
+        buf[4] = '-';
+        digits(buf, 5, value.getMonthValue(), 2);
+        buf[7] = '-';
+        digits(buf, 8, value.getDayOfMonth(), 2);
+        buf[10] = 'T';
+        digits(buf, 11, value.getHour(), 2);
+        buf[13] = ':';
+        digits(buf, 14, value.getMinute(), 2);
+        buf[16] = ':';
+        digits(buf, 17, value.getSecond(), 2);
+        int length = 19;
+        int nano = value.getNano();
+        if (nano > 0) {
+            buf[19] = '.';
+            digits(buf, 20, nano, 9);
+            length = 29;
+            while (buf[length - 1] == '0') {
+                length--;
+            }
+        }
+        gen.writeString(buf, 0, length);
+    }
+
+    private static void digits(char[] buf, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static void writeText(String value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        SerializedString encoded = text(value);
+        if (encoded != RAW) {
+            gen.writeString(encoded);
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    /**
+     * 目录文字的预编码形式，缓存满了之后直接包装（仍然只在这一次写出时编码）。
+     * 含补充平面字符（表情）的文字返回 RAW，由生成器按 String 写出：UTF-8 生成器写 String 时把代理对各自转义成六个字符，
+     * 预编码的 SerializedString 却写成四字节 UTF-8，字节与默认序列化不同
+     */
+    private static SerializedString text(String value) {
+        SerializedString cached = TEXTS.get(value);
+        if (cached != null) {
+            return cached;
+        }
+        SerializedString encoded = hasSurrogates(value) ? RAW : new SerializedString(value);
+        if (TEXTS.size() < MAX_CACHED_TEXTS) {
+            TEXTS.putIfAbsent(value, encoded);
+        }
+        return encoded;
+    }
+
+    private static boolean hasSurrogates(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isSurrogate(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SerializedString[] encodeAll(List<String> values) {
+        return values.stream().map(SerializedString::new).toArray(SerializedString[]::new);
+    }
+}
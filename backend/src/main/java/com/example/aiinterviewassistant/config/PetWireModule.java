@@ -0,0 +1,284 @@
+package com.example.aiinterviewassistant.config;
+
+import com.example.aiinterviewassistant.model.Achievement;
+import com.example.aiinterviewassistant.model.GameItem;
+import com.example.aiinterviewassistant.model.MiniGame;
+import com.example.aiinterviewassistant.model.Mood;
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.model.PetStats;
+import com.example.aiinterviewassistant.model.PetType;
+import com.example.aiinterviewassistant.service.PetService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * 二进制格式（CBOR、Smile）的宠物模型序列化器
+ * 对象的字段名与 JSON 相同，但枚举和目录里的固定文字都换成小整数编号：宠物类型、心情、动作、小游戏类型和状态
+ * 用枚举的声明顺序，物品和成就用目录下标，情绪状态和状态描述用模型表中的下标。
+ * 状态描述改为 status 字段，只写编号，客户端在前面拼上名字；物品只写编号，成就只写编号和玩家自己的进度，
+ * 时间写成 epoch 毫秒。
+ * 编号与文字的对照表见 {@link #codeTables()}；编号一经发布不再改变，新的枚举值和目录条目只能追加在末尾。
+ */
+public class PetWireModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString STATS = new SerializedString("stats");
+    private static final SerializedString COLOR = new SerializedString("color");
+    private static final SerializedString BIRTH_DATE = new SerializedString("birthDate");
+    private static final SerializedString LAST_INTERACTION = new SerializedString("lastInteraction");
+    private static final SerializedString MOOD = new SerializedString("mood");
+    private static final SerializedString AGE_IN_DAYS = new SerializedString("ageInDays");
+    private static final SerializedString ASLEEP = new SerializedString("asleep");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString RECOMMENDED_ACTIONS = new SerializedString("recommendedActions");
+    private static final SerializedString EXPERIENCE = new SerializedString("experience");
+    private static final SerializedString LAST_UPDATE = new SerializedString("lastUpdate");
+    private static final SerializedString LEVEL = new SerializedString("level");
+    private static final SerializedString ENERGY = new SerializedString("energy");
+    private static final SerializedString HUNGER = new SerializedString("hunger");
+    private static final SerializedString CLEANLINESS = new SerializedString("cleanliness");
+    private static final SerializedString HAPPINESS = new SerializedString("happiness");
+    private static final SerializedString HEALTH = new SerializedString("health");
+    private static final SerializedString MOOD_STATUS = new SerializedString("moodStatus");
+    private static final SerializedString CURRENT_PROGRESS = new SerializedString("currentProgress");
+    private static final SerializedString UNLOCKED = new SerializedString("unlocked");
+    private static final SerializedString UNLOCKED_DATE = new SerializedString("unlockedDate");
+
+    // 推荐动作表中的动作名称换成动作编号，下标与 Pet.RECOMMENDED_ACTIONS 一致
+    private static final int[][] RECOMMENDATIONS = Pet.RECOMMENDED_ACTIONS.stream()
+        .map(actions -> actions.stream().mapToInt(PetWireModule::actionCode).toArray())
+        .toArray(int[][]::new);
+    private static final Map<String, Integer> ACHIEVEMENT_CODES = new HashMap<>();
+
+    static {
+        List<Achievement> catalog = Achievement.catalog();
+        for (int i = 0; i < catalog.size(); i++) {
+            ACHIEVEMENT_CODES.put(catalog.get(i).getId(), i);
+        }
+    }
+
+    public PetWireModule() {
+        super("PetWireModule");
+        addSerializer(Pet.class, new PetSerializer());
+        addSerializer(PetStats.class, new PetStatsSerializer());
+        addSerializer(Achievement.class, new AchievementSerializer());
+        addSerializer(GameItem.class, new CodeSerializer<>(GameItem.class, item -> GameItem.indexOf(item.getId())));
+        addSerializer(PetService.ActionInfo.class,
+            new CodeSerializer<>(PetService.ActionInfo.class, info -> PetAction.valueOf(info.getName()).ordinal()));
+        addSerializer(PetType.class, new CodeSerializer<>(PetType.class, Enum::ordinal));
+        addSerializer(Mood.class, new CodeSerializer<>(Mood.class, Enum::ordinal));
+        addSerializer(PetAction.class, new CodeSerializer<>(PetAction.class, Enum::ordinal));
+        addSerializer(MiniGame.GameType.class, new CodeSerializer<>(MiniGame.GameType.class, Enum::ordinal));
+        addSerializer(MiniGame.GameState.class, new CodeSerializer<>(MiniGame.GameState.class, Enum::ordinal));
+        addSerializer(LocalDateTime.class, new EpochMillisSerializer());
+    }
+
+    /**
+     * 编号对照表：表名到按编号排列的标识（枚举名、目录 id）或文字，客户端据此把编号换回 JSON 中的取值，
+     * 显示用的名称、表情和描述仍从目录接口按标识获取
+     */
+    public static Map<String, List<String>> codeTables() {
+        Map<String, List<String>> tables = new LinkedHashMap<>();
+        tables.put("petTypes", names(PetType.values()));
+        tables.put("moods", Arrays.stream(Mood.values()).map(Mood::getKey).toList());
+        tables.put("actions", names(PetAction.values()));
+        tables.put("gameTypes", names(MiniGame.GameType.values()));
+        tables.put("gameStates", names(MiniGame.GameState.values()));
+        tables.put("items", GameItem.catalog().stream().map(GameItem::getId).toList());
+        tables.put("achievements", Achievement.catalog().stream().map(Achievement::getId).toList());
+        tables.put("moodStatuses", PetStats.MOOD_STATUSES);
+        tables.put("statuses", Pet.STATUS_SUFFIXES);
+        return tables;
+    }
+
+    static final class PetSerializer extends StdSerializer<Pet> {
+        private static final long serialVersionUID = 1L;
+
+        PetSerializer() {
+            super(Pet.class);
+        }
+
+        @Override
+        public void serialize(Pet pet, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            long now = System.currentTimeMillis();
+            PetStats stats = pet.getStats();
+            gen.writeStartObject(pet);
+            gen.writeFieldName(NAME);
+            gen.writeString(pet.getName());
+            gen.writeFieldName(TYPE);
+            writeCode(pet.getType() != null ? pet.getType().ordinal() : -1, gen);
+            gen.writeFieldName(STATS);
+            writeStats(stats, now, gen);
+            gen.writeFieldName(COLOR);
+            gen.writeString(pet.getColor());
+            gen.writeFieldName(BIRTH_DATE);
+            gen.writeNumber(pet.getBirthDateMillis());
+            gen.writeFieldName(LAST_INTERACTION);
+            gen.writeNumber(pet.getLastInteractionMillis());
+            gen.writeFieldName(MOOD);
+            Mood mood = pet.getMood(now);
+            writeCode(mood != null ? mood.ordinal() : -1, gen);
+            gen.writeFieldName(ID);
+            gen.writeString(pet.getId());
+            gen.writeFieldName(AGE_IN_DAYS);
+            gen.writeNumber(pet.ageInDaysAt(now));
+            gen.writeFieldName(ASLEEP);
+            gen.writeBoolean(stats.isSleepingAt(now));
+            gen.writeFieldName(STATUS);
+            gen.writeNumber(pet.statusAt(now));
+            gen.writeFieldName(RECOMMENDED_ACTIONS);
+            int[] actions = RECOMMENDATIONS[pet.recommendationsAt(now)];
+            gen.writeArray(actions, 0, actions.length);
+            gen.writeEndObject();
+        }
+    }
+
+    static final class PetStatsSerializer extends StdSerializer<PetStats> {
+        private static final long serialVersionUID = 1L;
+
+        PetStatsSerializer() {
+            super(PetStats.class);
+        }
+
+        @Override
+        public void serialize(PetStats stats, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeStats(stats, System.currentTimeMillis(), gen);
+        }
+    }
+
+    /**
+     * 玩家的成就：目录编号加上玩家自己的进度，名称、目标和奖励从成就目录按编号获取
+     */
+    static final class AchievementSerializer extends StdSerializer<Achievement> {
+        private static final long serialVersionUID = 1L;
+
+        AchievementSerializer() {
+            super(Achievement.class);
+        }
+
+        @Override
+        public void serialize(Achievement achievement, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(achievement);
+            gen.writeFieldName(ID);
+            writeCode(ACHIEVEMENT_CODES.getOrDefault(achievement.getId(), -1), gen);
+            gen.writeFieldName(CURRENT_PROGRESS);
+            gen.writeNumber(achievement.getCurrentProgress());
+            gen.writeFieldName(UNLOCKED);
+            gen.writeBoolean(achievement.isUnlocked());
+            gen.writeFieldName(UNLOCKED_DATE);
+            if (achievement.getUnlockedDate() != null) {
+                gen.writeNumber(toEpochMillis(achievement.getUnlockedDate()));
+            } else {
+                gen.writeNull();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * 整个值写成一个编号
+     */
+    static final class CodeSerializer<T> extends StdSerializer<T> {
+        private static final long serialVersionUID = 1L;
+
+        private final ToIntFunction<T> code;
+
+        CodeSerializer(Class<T> type, ToIntFunction<T> code) {
+            super(type);
+            this.code = code;
+        }
+
+        @Override
+        public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeCode(code.applyAsInt(value), gen);
+        }
+    }
+
+    /**
+     * 其余的时间（小游戏开始、结束时间等）同样写成 epoch 毫秒，时区与模型内部的换算一致
+     */
+    static final class EpochMillisSerializer extends StdSerializer<LocalDateTime> {
+        private static final long serialVersionUID = 1L;
+
+        EpochMillisSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(toEpochMillis(value));
+        }
+    }
+
+    /**
+     * 数值全部投影到同一时刻 now，情绪状态也由这组数值得出
+     */
+    private static void writeStats(PetStats stats, long now, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(stats);
+        gen.writeFieldName(EXPERIENCE);
+        gen.writeNumber(stats.getExperience());
+        gen.writeFieldName(LAST_UPDATE);
+        gen.writeNumber(stats.getLastUpdateMillis());
+        gen.writeFieldName(LEVEL);
+        gen.writeNumber(stats.getLevel());
+        gen.writeFieldName(ENERGY);
+        gen.writeNumber(stats.energyAt(now));
+        gen.writeFieldName(HUNGER);
+        gen.writeNumber(stats.hungerAt(now));
+        gen.writeFieldName(CLEANLINESS);
+        gen.writeNumber(stats.cleanlinessAt(now));
+        gen.writeFieldName(HAPPINESS);
+        gen.writeNumber(stats.happinessAt(now));
+        gen.writeFieldName(HEALTH);
+        gen.writeNumber(stats.healthAt(now));
+        gen.writeFieldName(MOOD_STATUS);
+        gen.writeNumber(stats.moodStatusAt(now));
+        gen.writeEndObject();
+    }
+
+    /**
+     * 不在对照表中的值（目录之外的物品、缺失的枚举）写成 null
+     */
+    private static void writeCode(int code, JsonGenerator gen) throws IOException {
+        if (code >= 0) {
+            gen.writeNumber(code);
+        } else {
+            gen.writeNull();
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static int actionCode(String displayName) {
+        for (PetAction action : PetAction.values()) {
+            if (action.getDisplayName().equals(displayName)) {
+                return action.ordinal();
+            }
+        }
+        throw new IllegalStateException("推荐动作不在动作表中: " + displayName);
+    }
+
+    private static List<String> names(Enum<?>[] values) {
+        return Arrays.stream(values).map(Enum::name).toList();
+    }
+}
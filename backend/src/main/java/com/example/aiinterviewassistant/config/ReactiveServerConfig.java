@@ -0,0 +1,21 @@
+package com.example.aiinterviewassistant.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 响应式模式的服务器配置
+ * Tomcat 和 Netty 同时在类路径上时，Spring Boot 默认让响应式应用也跑在 Tomcat 上；
+ * 这里显式使用 Netty，少量事件循环线程处理所有连接，空闲连接不占线程。
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
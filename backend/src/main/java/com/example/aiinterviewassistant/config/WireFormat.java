@@ -0,0 +1,75 @@
+package com.example.aiinterviewassistant.config;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * 宠物接口支持的响应格式，按请求的 Accept 头选择
+ * JSON 是默认格式；CBOR 和 Smile 用 {@link PetWireModule} 写出，枚举和目录文字都是编号。
+ * 同一资源的不同格式是不同的表示，实体标签带上格式后缀，缓存的响应体也按格式分开。
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON, null),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor"),
+    SMILE(new MediaType("application", "x-jackson-smile"), "smile");
+
+    private final MediaType mediaType;
+    private final String suffix;
+
+    WireFormat(MediaType mediaType, String suffix) {
+        this.mediaType = mediaType;
+        this.suffix = suffix;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * 这种格式下的实体标签，JSON 保持原样
+     */
+    public String etag(String tag) {
+        return tag != null && suffix != null ? tag + "-" + suffix : tag;
+    }
+
+    /**
+     * 响应缓存中的键，JSON 直接用玩家ID
+     */
+    public String cacheKey(String playerId) {
+        return suffix != null ? playerId + "#" + suffix : playerId;
+    }
+
+    /**
+     * 按 Accept 选择格式：质量值高的优先，质量值相同时明确写出的类型优先于通配符；
+     * 没有 Accept、无法解析或都不接受时返回 JSON（由框架决定是否返回 406）
+     */
+    public static WireFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        WireFormat best = JSON;
+        double bestScore = 0;
+        for (WireFormat format : values()) {
+            for (MediaType type : accepted) {
+                if (!type.includes(format.mediaType)) {
+                    continue;
+                }
+                double score = type.getQualityValue() * 4
+                    + (type.isWildcardType() ? 0 : type.isWildcardSubtype() ? 1 : 2);
+                if (score > bestScore) {
+                    best = format;
+                    bestScore = score;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.aiinterviewassistant.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * 二进制响应格式（CBOR、Smile）的编解码器注册
+ * 两种 Web 模式都使用 {@link WireMappers} 中的 mapper：Servlet 模式注册消息转换器，由框架按 Accept 协商；
+ * 响应式模式只注册解码器（读取 CBOR、Smile 请求体），响应由处理器按协商结果用同一组 mapper 写成字节。
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(WireMappers mappers) {
+        return new MappingJackson2CborHttpMessageConverter(mappers.get(WireFormat.CBOR));
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(WireMappers mappers) {
+        return new MappingJackson2SmileHttpMessageConverter(mappers.get(WireFormat.SMILE));
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public CodecCustomizer wireFormatCodecs(WireMappers mappers) {
+        // 只传 mapper 的构造方法声明的是 JSON 的媒体类型，会抢先解码 JSON 请求体，这里明确指定
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileDecoder(
+                new Jackson2SmileDecoder(mappers.get(WireFormat.SMILE), WireFormat.SMILE.getMediaType()));
+            configurer.customCodecs().register(
+                new Jackson2CborDecoder(mappers.get(WireFormat.CBOR), WireFormat.CBOR.getMediaType()));
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.aiinterviewassistant.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 各响应格式的 ObjectMapper
+ * JSON 用 Spring 配置的 ObjectMapper；CBOR 和 Smile 各自构建，注册 {@link PetWireModule}，
+ * 读取请求体时与 JSON 一样忽略未知字段。二进制 mapper 不作为 ObjectMapper 类型的 bean 暴露，
+ * 以免替换掉 Spring Boot 自动配置的 JSON mapper。
+ */
+@Component
+public class WireMappers {
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+    private final ObjectMapper smile;
+
+    public WireMappers(ObjectMapper json) {
+        this.json = json;
+        this.cbor = Jackson2ObjectMapperBuilder.cbor().modulesToInstall(new PetWireModule()).build();
+        this.smile = Jackson2ObjectMapperBuilder.smile().modulesToInstall(new PetWireModule()).build();
+    }
+
+    public ObjectMapper get(WireFormat format) {
+        return switch (format) {
+            case JSON -> json;
+            case CBOR -> cbor;
+            case SMILE -> smile;
+        };
+    }
+
+    public byte[] write(WireFormat format, Object value) {
+        try {
+            return get(format).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化响应失败", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.aiinterviewassistant.controller;
+
+import com.example.aiinterviewassistant.service.CareAlert;
+import com.example.aiinterviewassistant.service.CareAlertScheduler;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * 照顾提醒接口
+ */
+@RestController
+@RequestMapping("/api/alerts")
+public class CareAlertController {
+
+    private final CareAlertScheduler careAlerts;
+
+    public CareAlertController(CareAlertScheduler careAlerts) {
+        this.careAlerts = careAlerts;
+    }
+
+    /**
+     * 订阅某个玩家的照顾提醒（Server-Sent Events），必须指定 playerId，不提供全体玩家的提醒流
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CareAlert>> stream(@RequestParam String playerId) {
+        return careAlerts.alerts(playerId)
+            .map(alert -> ServerSentEvent.builder(alert)
+                .event("care-alert")
+                .id(alert.getPlayerId() + "-" + alert.getFiredAt())
+                .build());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.aiinterviewassistant.controller;
+
+import com.example.aiinterviewassistant.service.PlayerCommandExecutor;
+import com.example.aiinterviewassistant.service.ResponseCache;
+import com.example.aiinterviewassistant.service.ShardMetrics;
+import com.example.aiinterviewassistant.service.StatePushHub;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 执行引擎监控接口
+ * 只读的运维指标，不对外开放：默认不注册，app.engine.endpoints.enabled=true 时才启用（压测脚本会打开）
+ */
+@RestController
+@ConditionalOnProperty(name = "app.engine.endpoints.enabled", havingValue = "true")
+@RequestMapping(path = "/api/engine", produces = MediaType.APPLICATION_JSON_VALUE)
+public class EngineController {
+
+    private final PlayerCommandExecutor executor;
+    private final ResponseCache responseCache;
+    private final StatePushHub push;
+
+    @Value("${spring.main.web-application-type:servlet}")
+    private String webMode;
+
+    public EngineController(PlayerCommandExecutor executor, ResponseCache responseCache, StatePushHub push) {
+        this.executor = executor;
+        this.responseCache = responseCache;
+        this.push = push;
+    }
+
+    /**
+     * 获取各分片的队列深度、吞吐和背压指标
+     */
+    @GetMapping("/shards")
+    public ResponseEntity<PetController.ApiResponse<List<ShardMetrics>>> getShardMetrics() {
+        return ResponseEntity.ok(PetController.ApiResponse.success("获取分片指标成功", executor.shardMetrics()));
+    }
+
+    /**
+     * 获取响应缓存的条目数、命中率和淘汰次数
+     */
+    @GetMapping("/response-cache")
+    public ResponseEntity<PetController.ApiResponse<ResponseCache.Stats>> getResponseCacheStats() {
+        return ResponseEntity.ok(PetController.ApiResponse.success("获取缓存指标成功", responseCache.stats()));
+    }
+
+    /**
+     * 获取状态推送的频道数（有订阅者的玩家）和订阅数（打开的连接）
+     */
+    @GetMapping("/push")
+    public ResponseEntity<PetController.ApiResponse<Map<String, Integer>>> getPushStats() {
+        return ResponseEntity.ok(PetController.ApiResponse.success("获取推送指标成功",
+            Map.of("channels", push.channelCount(), "subscribers", push.subscriberCount())));
+    }
+
+    /**
+     * 获取 Web 模式和 JVM 线程数
+     */
+    @GetMapping("/runtime")
+    public ResponseEntity<PetController.ApiResponse<Map<String, Object>>> getRuntime() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Map<String, Object> runtime = new LinkedHashMap<>();
+        runtime.put("webMode", webMode);
+        runtime.put("liveThreads", threads.getThreadCount());
+        runtime.put("peakThreads", threads.getPeakThreadCount());
+        runtime.put("daemonThreads", threads.getDaemonThreadCount());
+        return ResponseEntity.ok(PetController.ApiResponse.success("获取运行时指标成功", runtime));
+    }
+}
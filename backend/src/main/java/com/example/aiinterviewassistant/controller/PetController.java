@@ -1,76 +1,114 @@
 package com.example.aiinterviewassistant.controller;
 
+import com.example.aiinterviewassistant.config.WireFormat;
 import com.example.aiinterviewassistant.model.*;
+import com.example.aiinterviewassistant.service.AchievementBook;
 import com.example.aiinterviewassistant.service.PetService;
+import com.example.aiinterviewassistant.service.PlayerAggregate;
+import com.example.aiinterviewassistant.service.StatePushHub;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 宠物游戏控制器
  * 提供宠物养成游戏的所有API接口
+ * 运行在 Servlet（Tomcat）模式下；响应式模式由 {@link PetRouter} 提供同样的接口，响应构建共用 {@link PetViews}
+ * 除 JSON 外也按 Accept 返回 CBOR 或 Smile（见 {@link WireFormat}），目录类接口总是返回 JSON
  */
 @RestController
-@RequestMapping(path = "/api/pet", produces = MediaType.APPLICATION_JSON_VALUE)
-@CrossOrigin(origins = "*") // 允许跨域请求
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping(path = "/api/pet", produces = {
+    MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile"})
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG) // 允许跨域请求
 public class PetController {
 
     private final PetService petService;
+    private final PrerenderedCatalogs catalogs;
+    private final PetViews views;
 
-    public PetController(PetService petService) {
+    public PetController(PetService petService, PrerenderedCatalogs catalogs, PetViews views) {
         this.petService = petService;
+        this.catalogs = catalogs;
+        this.views = views;
     }
 
     /**
      * 创建新宠物
      */
     @PostMapping("/create")
-    public ResponseEntity<ApiResponse<Pet>> createPet(@RequestBody CreatePetRequest request) {
+    public CompletableFuture<ResponseEntity<ApiResponse<Pet>>> createPet(@RequestBody CreatePetRequest request) {
+        CompletableFuture<Pet> created;
         try {
-            Pet pet = petService.createPet(request.getPlayerId(), request.getPetName(), request.getPetType());
-            return ResponseEntity.ok(ApiResponse.success("宠物创建成功！", pet));
+            created = petService.createPet(request.getPlayerId(), request.getPetName(), request.getPetType());
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("创建宠物失败：" + e.getMessage()));
+            created = CompletableFuture.failedFuture(e);
         }
+        return created.handle((pet, e) -> e == null
+            ? ResponseEntity.ok(ApiResponse.success("宠物创建成功！", pet))
+            : ResponseEntity.badRequest().body(ApiResponse.error("创建宠物失败：" + rootCause(e).getMessage())));
     }
 
     /**
      * 获取宠物信息
+     * 响应体在玩家的串行上下文中构建并序列化，按状态版本号缓存字节，状态没变时直接返回缓存
      */
     @GetMapping("/{playerId}")
-    public ResponseEntity<ApiResponse<PetInfo>> getPetInfo(@PathVariable String playerId) {
-        Pet pet = petService.getPet(playerId);
-        
-        // 如果玩家没有宠物，返回404让前端显示创建界面
-        if (pet == null) {
-            return ResponseEntity.notFound().build();
-        }
-
-        PetInfo petInfo = new PetInfo(
-            pet,
-            petService.getCoins(playerId),
-            petService.getAvailableActionInfo(playerId),
-            petService.getPlayerItems(playerId)
-        );
+    public CompletableFuture<ResponseEntity<byte[]>> getPetInfo(
+            @PathVariable String playerId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        WireFormat format = WireFormat.negotiate(accept);
+        return conditionalRead(playerId, ifNoneMatch, format, views::petInfoTag,
+            player -> views.petInfoBody(player, format));
+    }
 
-        return ResponseEntity.ok(ApiResponse.success("获取宠物信息成功", petInfo));
+    /**
+     * 客户端启动时一次获取所需的全部数据
+     * data 中每个字段都是对应接口的完整响应（宠物类型、宠物信息、商店、小游戏类型、成就列表、活跃游戏会话），
+     * 玩家相关的部分在一次串行读取中生成，保证彼此一致；目录部分直接写出预先渲染的共享字节。
+     * 玩家没有宠物时 petInfo 为 null，客户端据此进入创建界面。
+     */
+    @GetMapping("/{playerId}/bootstrap")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> bootstrap(@PathVariable String playerId) {
+        return petService.readPlayer(playerId, views::bootstrapFragments).thenApply(fragments -> ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> {
+                for (byte[] fragment : fragments) {
+                    out.write(fragment);
+                }
+            }));
     }
 
     /**
      * 执行宠物动作（支持字符串动作名称）
+     * view=delta 时 data 只返回变化的字段、金币和新的状态版本号，字段与状态推送一致，否则返回完整的宠物
      */
     @PostMapping("/{playerId}/action")
-    public ResponseEntity<ApiResponse<Pet>> executeAction(
+    public CompletableFuture<ResponseEntity<ApiResponse<?>>> executeAction(
             @PathVariable String playerId,
+            @RequestParam(required = false) String view,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             @RequestBody Map<String, Object> request) {
         
         // 获取动作名称
         Object actionObj = request.get("action");
         if (actionObj == null) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("动作不能为空"));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(ApiResponse.error("动作不能为空")));
         }
         
         // 转换为PetAction枚举
@@ -79,101 +117,131 @@ public class PetController {
             String actionName = actionObj.toString().toUpperCase();
             action = PetAction.valueOf(actionName);
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("无效的动作: " + actionObj));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(ApiResponse.error("无效的动作: " + actionObj)));
         }
         
-        PetService.ActionResult result = petService.executeAction(playerId, action);
-        
-        if (result.isSuccess()) {
-            return ResponseEntity.ok(ApiResponse.success(result.getMessage(), result.getPet()));
-        } else {
-            return ResponseEntity.badRequest().body(ApiResponse.error(result.getMessage()));
-        }
+        return petService.executeAction(playerId, action, PetViews.isDelta(view))
+            .thenApply(result -> PetViews.negotiated(PetViews.toActionResponse(result), WireFormat.negotiate(accept)));
     }
 
     /**
-     * 使用物品
+     * 使用物品，view=delta 时返回增量响应（同执行动作）
      */
     @PostMapping("/{playerId}/use-item")
-    public ResponseEntity<ApiResponse<Pet>> useItem(
+    public CompletableFuture<ResponseEntity<ApiResponse<?>>> useItem(
             @PathVariable String playerId,
+            @RequestParam(required = false) String view,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             @RequestBody UseItemRequest request) {
         
-        PetService.ActionResult result = petService.useItem(playerId, request.getItemId());
-        
-        if (result.isSuccess()) {
-            return ResponseEntity.ok(ApiResponse.success(result.getMessage(), result.getPet()));
-        } else {
-            return ResponseEntity.badRequest().body(ApiResponse.error(result.getMessage()));
-        }
+        return petService.useItem(playerId, request.getItemId(), PetViews.isDelta(view))
+            .thenApply(result -> PetViews.negotiated(PetViews.toActionResponse(result), WireFormat.negotiate(accept)));
     }
 
     /**
      * 购买物品
      */
     @PostMapping("/{playerId}/buy-item")
-    public ResponseEntity<ApiResponse<String>> buyItem(
+    public CompletableFuture<ResponseEntity<ApiResponse<String>>> buyItem(
             @PathVariable String playerId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             @RequestBody BuyItemRequest request) {
         
-        PetService.ActionResult result = petService.buyItem(playerId, request.getItemId());
-        
-        if (result.isSuccess()) {
-            return ResponseEntity.ok(ApiResponse.success(result.getMessage()));
-        } else {
-            return ResponseEntity.badRequest().body(ApiResponse.error(result.getMessage()));
+        return petService.buyItem(playerId, request.getItemId())
+            .thenApply(result -> PetViews.negotiated(PetViews.toMessageResponse(result), WireFormat.negotiate(accept)));
+    }
+
+    /**
+     * 批量执行命令（动作、使用物品、购买物品），按顺序在一次串行执行中完成
+     * 返回每条命令的结果和执行后的宠物信息，响应带最终状态的实体标签
+     */
+    @PostMapping("/{playerId}/batch")
+    public CompletableFuture<ResponseEntity<ApiResponse<BatchResponse>>> executeBatch(
+            @PathVariable String playerId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestBody BatchRequest request) {
+
+        String error = views.batchError(request);
+        if (error != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(ApiResponse.error(error)));
+        }
+        return petService.executeBatch(playerId, PetViews.toCommands(request), views::batchState)
+            .thenApply(result -> PetViews.negotiated(PetViews.toBatchResponse(result), WireFormat.negotiate(accept)));
+    }
+
+    /**
+     * 同步客户端离线期间记录的动作，按序号去重，按发生时刻重放，返回每条操作的结果和同步后的宠物信息
+     * 重复上传同一批操作是安全的：已应用的序号直接标记为 duplicate
+     */
+    @PostMapping("/{playerId}/sync")
+    public CompletableFuture<ResponseEntity<ApiResponse<SyncResponse>>> syncActions(
+            @PathVariable String playerId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestBody SyncRequest request) {
+
+        String error = views.syncError(request);
+        if (error != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(ApiResponse.error(error)));
         }
+        return petService.syncActions(playerId, PetViews.toSyncEntries(request), request.getClientTime(), views::batchState)
+            .thenApply(result -> PetViews.negotiated(PetViews.toSyncResponse(request, result), WireFormat.negotiate(accept)));
     }
 
     /**
      * 获取商店物品
      */
     @GetMapping("/shop")
-    public ResponseEntity<ApiResponse<List<GameItem>>> getShopItems() {
-        List<GameItem> items = petService.getShopItems();
-        return ResponseEntity.ok(ApiResponse.success("获取商店物品成功", items));
+    public ResponseEntity<byte[]> getShopItems(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return PetViews.serve(catalogs.shop(), PetViews.SHOP_CACHE, ifNoneMatch, acceptEncoding);
     }
 
     /**
      * 获取宠物类型列表
      */
     @GetMapping("/types")
-    public ResponseEntity<ApiResponse<PetType[]>> getPetTypes() {
-        return ResponseEntity.ok(ApiResponse.success("获取宠物类型成功", PetType.values()));
+    public ResponseEntity<byte[]> getPetTypes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return PetViews.serve(catalogs.petTypes(), PetViews.TYPES_CACHE, ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * 获取 CBOR、Smile 响应中编号与标识的对照表（JSON，发版时才变化）
+     */
+    @GetMapping("/codes")
+    public ResponseEntity<byte[]> getCodeTables(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return PetViews.serve(catalogs.codeTables(), PetViews.TYPES_CACHE, ifNoneMatch, acceptEncoding);
     }
     
     /**
      * 删除宠物（重新开始游戏）
      */
     @DeleteMapping("/{playerId}")
-    public ResponseEntity<ApiResponse<String>> deletePet(@PathVariable String playerId) {
-        boolean deleted = petService.deletePet(playerId);
-        if (deleted) {
-            return ResponseEntity.ok(ApiResponse.success("宠物已删除，可以重新开始游戏"));
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public CompletableFuture<ResponseEntity<ApiResponse<String>>> deletePet(@PathVariable String playerId) {
+        return petService.deletePet(playerId).thenApply(deleted -> {
+            views.evictCached(playerId);
+            if (deleted) {
+                return ResponseEntity.ok(ApiResponse.success("宠物已删除，可以重新开始游戏"));
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        });
     }
 
     /**
      * 获取玩家统计信息
      */
     @GetMapping("/{playerId}/stats")
-    public ResponseEntity<ApiResponse<PlayerStats>> getPlayerStats(@PathVariable String playerId) {
-        Pet pet = petService.getPet(playerId);
-        if (pet == null) {
-            return ResponseEntity.notFound().build();
-        }
-
-        PlayerStats stats = new PlayerStats(
-            pet.getAgeInDays(),
-            pet.getStats().getLevel(),
-            pet.getStats().getExperience(),
-            petService.getCoins(playerId),
-            petService.getPlayerItems(playerId).size()
-        );
-
-        return ResponseEntity.ok(ApiResponse.success("获取玩家统计成功", stats));
+    public CompletableFuture<ResponseEntity<ApiResponse<PlayerStats>>> getPlayerStats(
+            @PathVariable String playerId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return conditionalRead(playerId, ifNoneMatch, WireFormat.negotiate(accept), PlayerAggregate::statsTag,
+            views::playerStats);
     }
 
     // ================= 小游戏API =================
@@ -182,61 +250,66 @@ public class PetController {
      * 开始小游戏
      */
     @PostMapping("/{playerId}/minigame/start")
-    public ResponseEntity<ApiResponse<MiniGame.GameSession>> startMiniGame(
+    public CompletableFuture<ResponseEntity<ApiResponse<MiniGame.GameSession>>> startMiniGame(
             @PathVariable String playerId,
             @RequestBody StartGameRequest request) {
         
         // 确保玩家有宠物才能开始游戏
-        Pet pet = petService.getPet(playerId);
-        if (pet == null) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("请先创建宠物"));
-        }
-        
-        MiniGame.GameResult result = petService.startMiniGame(playerId, request.getGameType());
-        
-        if (result.isSuccess()) {
-            return ResponseEntity.ok(ApiResponse.success(result.getMessage(), result.getSession()));
-        } else {
-            return ResponseEntity.badRequest().body(ApiResponse.error(result.getMessage()));
-        }
+        return petService.getPet(playerId).thenCompose(pet -> {
+            if (pet == null) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(ApiResponse.<MiniGame.GameSession>error("请先创建宠物")));
+            }
+            return petService.startMiniGame(playerId, request.getGameType()).thenApply(PetViews::toSessionResponse);
+        });
     }
 
     /**
      * 处理游戏输入
      */
     @PostMapping("/minigame/{sessionId}/input")
-    public ResponseEntity<ApiResponse<MiniGame.GameSession>> processGameInput(
+    public CompletableFuture<ResponseEntity<ApiResponse<MiniGame.GameSession>>> processGameInput(
             @PathVariable String sessionId,
             @RequestBody Map<String, Object> input) {
         
-        MiniGame.GameResult result = petService.processGameInput(sessionId, input);
-        
-        if (result.isSuccess()) {
-            return ResponseEntity.ok(ApiResponse.success(result.getMessage(), result.getSession()));
-        } else {
-            return ResponseEntity.badRequest().body(ApiResponse.error(result.getMessage()));
-        }
+        return petService.processGameInput(sessionId, input).thenApply(PetViews::toSessionResponse);
     }
 
     /**
      * 获取活跃游戏会话
      */
     @GetMapping("/{playerId}/minigame/active")
-    public ResponseEntity<ApiResponse<MiniGame.GameSession>> getActiveGameSession(@PathVariable String playerId) {
-        MiniGame.GameSession session = petService.getActiveGameSession(playerId);
-        if (session != null) {
-            return ResponseEntity.ok(ApiResponse.success("获取活跃游戏会话成功", session));
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public CompletableFuture<ResponseEntity<ApiResponse<MiniGame.GameSession>>> getActiveGameSession(@PathVariable String playerId) {
+        return petService.getActiveGameSession(playerId).thenApply(session -> {
+            if (session != null) {
+                return ResponseEntity.ok(ApiResponse.success("获取活跃游戏会话成功", session));
+            } else {
+                return ResponseEntity.notFound().build();
+            }
+        });
     }
 
     /**
      * 获取可用的小游戏类型
      */
     @GetMapping("/minigame/types")
-    public ResponseEntity<ApiResponse<MiniGame.GameType[]>> getGameTypes() {
-        return ResponseEntity.ok(ApiResponse.success("获取游戏类型成功", MiniGame.GameType.values()));
+    public ResponseEntity<byte[]> getGameTypes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return PetViews.serve(catalogs.gameTypes(), PetViews.TYPES_CACHE, ifNoneMatch, acceptEncoding);
+    }
+
+    // ================= 状态推送 =================
+
+    /**
+     * 订阅宠物状态变化（Server-Sent Events）
+     * 第一条是包含全部字段的当前状态，之后只推送变化的字段；同一玩家打开的多个页面各自订阅、共享同一个频道
+     */
+    @GetMapping(path = "/{playerId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<StatePushHub.Delta>>> streamState(@PathVariable String playerId) {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            .header("X-Accel-Buffering", "no") // nginx 不缓冲事件流
+            .body(views.stateEvents(petService.watch(playerId)));
     }
 
     // ================= 成就API =================
@@ -245,18 +318,65 @@ public class PetController {
      * 获取玩家成就列表
      */
     @GetMapping("/{playerId}/achievements")
-    public ResponseEntity<ApiResponse<List<Achievement>>> getPlayerAchievements(@PathVariable String playerId) {
-        List<Achievement> achievements = petService.getPlayerAchievements(playerId);
-        return ResponseEntity.ok(ApiResponse.success("获取成就列表成功", achievements));
+    public CompletableFuture<ResponseEntity<ApiResponse<List<Achievement>>>> getPlayerAchievements(
+            @PathVariable String playerId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return conditionalRead(playerId, ifNoneMatch, WireFormat.negotiate(accept), PlayerAggregate::stateTag,
+            player -> ApiResponse.success("获取成就列表成功", petService.achievementsOf(player)));
+    }
+
+    /**
+     * 获取成就目录（所有玩家相同，可长期缓存），配合 /{playerId}/achievements/progress 使用
+     * 目录下标即二进制格式中的成就编号，总是返回 JSON
+     */
+    @GetMapping("/achievements/catalog")
+    public ResponseEntity<ApiResponse<List<Achievement>>> getAchievementCatalog() {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ApiResponse.success("获取成就目录成功", Achievement.catalog()));
+    }
+
+    /**
+     * 获取玩家成就进度的紧凑表示：数组下标与成就目录一致
+     */
+    @GetMapping("/{playerId}/achievements/progress")
+    public CompletableFuture<ResponseEntity<ApiResponse<AchievementProgress>>> getAchievementProgress(@PathVariable String playerId) {
+        return petService.readPlayer(playerId, player -> player == null ? null
+                : AchievementProgress.of(player.getAchievementBook()))
+            .thenApply(progress -> {
+                if (progress == null) {
+                    return ResponseEntity.notFound().build();
+                }
+                return ResponseEntity.ok(ApiResponse.success("获取成就进度成功", progress));
+            });
     }
 
     /**
      * 获取玩家详细统计
      */
     @GetMapping("/{playerId}/detailed-stats")
-    public ResponseEntity<ApiResponse<Map<String, Integer>>> getDetailedPlayerStats(@PathVariable String playerId) {
-        Map<String, Integer> stats = petService.getPlayerStats(playerId);
-        return ResponseEntity.ok(ApiResponse.success("获取详细统计成功", stats));
+    public CompletableFuture<ResponseEntity<ApiResponse<Map<String, Integer>>>> getDetailedPlayerStats(
+            @PathVariable String playerId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return conditionalRead(playerId, ifNoneMatch, WireFormat.negotiate(accept), PlayerAggregate::stateTag,
+            player -> ApiResponse.success("获取详细统计成功", petService.statsOf(player)));
+    }
+
+    /**
+     * 条件读取：标签匹配时返回 304，不构建响应体，见 {@link PetViews#conditional}
+     */
+    private <T> CompletableFuture<ResponseEntity<T>> conditionalRead(String playerId, String ifNoneMatch, WireFormat format,
+                                                                     Function<PlayerAggregate, String> tagger,
+                                                                     Function<PlayerAggregate, T> reader) {
+        return petService.readPlayer(playerId, views.conditional(ifNoneMatch, format, tagger, reader))
+            .thenApply(tagged -> PetViews.negotiated(PetViews.toResponse(tagged), format));
+    }
+
+    static Throwable rootCause(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 
     // DTO类定义
@@ -300,6 +420,55 @@ public class PetController {
         public void setItemId(String itemId) { this.itemId = itemId; }
     }
 
+    public static class BatchRequest {
+        private List<BatchCommand> commands;
+
+        public List<BatchCommand> getCommands() { return commands; }
+        public void setCommands(List<BatchCommand> commands) { this.commands = commands; }
+    }
+
+    /**
+     * 批量中的一条命令：type 为 action、use-item 或 buy-item，与单条接口的路径一致
+     */
+    public static class BatchCommand {
+        private String type;
+        private String action;
+        private String itemId;
+
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+        public String getAction() { return action; }
+        public void setAction(String action) { this.action = action; }
+        public String getItemId() { return itemId; }
+        public void setItemId(String itemId) { this.itemId = itemId; }
+    }
+
+    /**
+     * 离线同步请求：clientTime 为上传时客户端的时钟（epoch 毫秒），用于换算各操作的发生时刻
+     */
+    public static class SyncRequest {
+        private long clientTime;
+        private List<SyncEntryRequest> entries;
+
+        public long getClientTime() { return clientTime; }
+        public void setClientTime(long clientTime) { this.clientTime = clientTime; }
+        public List<SyncEntryRequest> getEntries() { return entries; }
+        public void setEntries(List<SyncEntryRequest> entries) { this.entries = entries; }
+    }
+
+    public static class SyncEntryRequest {
+        private long seq;
+        private String action;
+        private long at;
+
+        public long getSeq() { return seq; }
+        public void setSeq(long seq) { this.seq = seq; }
+        public String getAction() { return action; }
+        public void setAction(String action) { this.action = action; }
+        public long getAt() { return at; }
+        public void setAt(long at) { this.at = at; }
+    }
+
     public static class StartGameRequest {
         private MiniGame.GameType gameType;
 
@@ -311,19 +480,114 @@ public class PetController {
         private Pet pet;
         private int coins;
         private List<PetService.ActionInfo> availableActions;
-        private List<GameItem> inventory;
+        private List<PetService.InventoryEntry> inventory;
+        private List<Achievement> newAchievements; // 上次响应之后解锁的成就
 
-        public PetInfo(Pet pet, int coins, List<PetService.ActionInfo> availableActions, List<GameItem> inventory) {
+        public PetInfo(Pet pet, int coins, List<PetService.ActionInfo> availableActions, List<PetService.InventoryEntry> inventory,
+                       List<Achievement> newAchievements) {
             this.pet = pet;
             this.coins = coins;
             this.availableActions = availableActions;
             this.inventory = inventory;
+            this.newAchievements = newAchievements;
         }
 
         public Pet getPet() { return pet; }
         public int getCoins() { return coins; }
         public List<PetService.ActionInfo> getAvailableActions() { return availableActions; }
-        public List<GameItem> getInventory() { return inventory; }
+        public List<PetService.InventoryEntry> getInventory() { return inventory; }
+        public List<Achievement> getNewAchievements() { return newAchievements; }
+    }
+
+    public static class BatchOutcome {
+        private boolean success;
+        private String message;
+
+        public BatchOutcome(boolean success, String message) {
+            this.success = success;
+            this.message = message;
+        }
+
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * 一条离线操作的同步结果，status 为 applied、rejected 或 duplicate
+     */
+    public static class SyncOutcome {
+        private long seq;
+        private String status;
+        private String message;
+
+        public SyncOutcome(long seq, String status, String message) {
+            this.seq = seq;
+            this.status = status;
+            this.message = message;
+        }
+
+        public long getSeq() { return seq; }
+        public String getStatus() { return status; }
+        public String getMessage() { return message; }
+    }
+
+    public static class SyncResponse {
+        private long lastAppliedSeq;
+        private List<SyncOutcome> results;
+        private PetInfo state;
+
+        public SyncResponse(long lastAppliedSeq, List<SyncOutcome> results, PetInfo state) {
+            this.lastAppliedSeq = lastAppliedSeq;
+            this.results = results;
+            this.state = state;
+        }
+
+        public long getLastAppliedSeq() { return lastAppliedSeq; }
+        public List<SyncOutcome> getResults() { return results; }
+        public PetInfo getState() { return state; }
+    }
+
+    public static class BatchResponse {
+        private List<BatchOutcome> results;
+        private PetInfo state;
+
+        public BatchResponse(List<BatchOutcome> results, PetInfo state) {
+            this.results = results;
+            this.state = state;
+        }
+
+        public List<BatchOutcome> getResults() { return results; }
+        public PetInfo getState() { return state; }
+    }
+
+    /**
+     * 成就进度的紧凑表示，数组下标与成就目录一致，未解锁的 unlockedAt 为 0
+     */
+    public static class AchievementProgress {
+        private int[] progress;
+        private long unlockedMask;
+        private long[] unlockedAt;
+
+        public AchievementProgress(int[] progress, long unlockedMask, long[] unlockedAt) {
+            this.progress = progress;
+            this.unlockedMask = unlockedMask;
+            this.unlockedAt = unlockedAt;
+        }
+
+        static AchievementProgress of(AchievementBook book) {
+            int size = book.size();
+            int[] progress = new int[size];
+            long[] unlockedAt = new long[size];
+            for (int i = 0; i < size; i++) {
+                progress[i] = book.progressOf(i);
+                unlockedAt[i] = book.unlockedAtOf(i);
+            }
+            return new AchievementProgress(progress, book.getUnlockedMask(), unlockedAt);
+        }
+
+        public int[] getProgress() { return progress; }
+        public long getUnlockedMask() { return unlockedMask; }
+        public long[] getUnlockedAt() { return unlockedAt; }
     }
 
     public static class PlayerStats {
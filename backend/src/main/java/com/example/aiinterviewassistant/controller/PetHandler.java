@@ -0,0 +1,280 @@
+package com.example.aiinterviewassistant.controller;
+
+import com.example.aiinterviewassistant.config.WireFormat;
+import com.example.aiinterviewassistant.model.Achievement;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.service.PetService;
+import com.example.aiinterviewassistant.service.PlayerAggregate;
+import com.example.aiinterviewassistant.service.ReactivePetService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 宠物接口的非阻塞处理器，与 {@link PetController} 的接口和响应完全一致
+ * 所有玩家命令经 {@link ReactivePetService} 提交，事件循环线程不等待锁和日志；响应构建共用 {@link PetViews}。
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PetHandler {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {};
+
+    private final ReactivePetService pets;
+    private final PetService petService;
+    private final PrerenderedCatalogs catalogs;
+    private final PetViews views;
+
+    public PetHandler(ReactivePetService pets, PetService petService, PrerenderedCatalogs catalogs, PetViews views) {
+        this.pets = pets;
+        this.petService = petService;
+        this.catalogs = catalogs;
+        this.views = views;
+    }
+
+    public Mono<ServerResponse> createPet(ServerRequest request) {
+        return request.bodyToMono(PetController.CreatePetRequest.class)
+            .flatMap(body -> pets.createPet(body.getPlayerId(), body.getPetName(), body.getPetType()))
+            .map(pet -> ResponseEntity.ok(PetController.ApiResponse.success("宠物创建成功！", pet)))
+            .onErrorResume(e -> Mono.just(ResponseEntity.badRequest().body(
+                PetController.ApiResponse.error("创建宠物失败：" + PetController.rootCause(e).getMessage()))))
+            .flatMap(entity -> render(request, entity));
+    }
+
+    public Mono<ServerResponse> getPetInfo(ServerRequest request) {
+        WireFormat format = format(request);
+        return conditionalRead(request, views::petInfoTag, player -> views.petInfoBody(player, format));
+    }
+
+    /**
+     * 启动数据：片段直接包装成数据缓冲区写出，目录部分不拷贝
+     */
+    public Mono<ServerResponse> bootstrap(ServerRequest request) {
+        return pets.readPlayer(playerId(request), views::bootstrapFragments)
+            .flatMap(fragments -> ServerResponse.ok()
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromDataBuffers(
+                    Flux.fromIterable(fragments).map(DefaultDataBufferFactory.sharedInstance::wrap))));
+    }
+
+    public Mono<ServerResponse> executeAction(ServerRequest request) {
+        return request.bodyToMono(JSON_OBJECT).flatMap(body -> {
+            // 获取动作名称
+            Object actionObj = body.get("action");
+            if (actionObj == null) {
+                return render(request, ResponseEntity.badRequest().body(PetController.ApiResponse.error("动作不能为空")));
+            }
+            PetAction action;
+            try {
+                action = PetAction.valueOf(actionObj.toString().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return render(request, ResponseEntity.badRequest().body(PetController.ApiResponse.error("无效的动作: " + actionObj)));
+            }
+            return pets.executeAction(playerId(request), action, delta(request))
+                .map(PetViews::toActionResponse)
+                .flatMap(entity -> render(request, entity));
+        });
+    }
+
+    public Mono<ServerResponse> useItem(ServerRequest request) {
+        return request.bodyToMono(PetController.UseItemRequest.class)
+            .flatMap(body -> pets.useItem(playerId(request), body.getItemId(), delta(request)))
+            .map(PetViews::toActionResponse)
+            .flatMap(entity -> render(request, entity));
+    }
+
+    public Mono<ServerResponse> buyItem(ServerRequest request) {
+        return request.bodyToMono(PetController.BuyItemRequest.class)
+            .flatMap(body -> pets.buyItem(playerId(request), body.getItemId()))
+            .map(PetViews::toMessageResponse)
+            .flatMap(entity -> render(request, entity));
+    }
+
+    public Mono<ServerResponse> executeBatch(ServerRequest request) {
+        return request.bodyToMono(PetController.BatchRequest.class).flatMap(body -> {
+            String error = views.batchError(body);
+            if (error != null) {
+                return render(request, ResponseEntity.badRequest().body(PetController.ApiResponse.error(error)));
+            }
+            return pets.executeBatch(playerId(request), PetViews.toCommands(body), views::batchState)
+                .map(PetViews::toBatchResponse)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .flatMap(entity -> render(request, entity));
+        });
+    }
+
+    public Mono<ServerResponse> syncActions(ServerRequest request) {
+        return request.bodyToMono(PetController.SyncRequest.class).flatMap(body -> {
+            String error = views.syncError(body);
+            if (error != null) {
+                return render(request, ResponseEntity.badRequest().body(PetController.ApiResponse.error(error)));
+            }
+            return pets.syncActions(playerId(request), PetViews.toSyncEntries(body), body.getClientTime(), views::batchState)
+                .map(result -> PetViews.toSyncResponse(body, result))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .flatMap(entity -> render(request, entity));
+        });
+    }
+
+    public Mono<ServerResponse> getShopItems(ServerRequest request) {
+        return serve(request, catalogs.shop(), PetViews.SHOP_CACHE);
+    }
+
+    public Mono<ServerResponse> getPetTypes(ServerRequest request) {
+        return serve(request, catalogs.petTypes(), PetViews.TYPES_CACHE);
+    }
+
+    public Mono<ServerResponse> getGameTypes(ServerRequest request) {
+        return serve(request, catalogs.gameTypes(), PetViews.TYPES_CACHE);
+    }
+
+    public Mono<ServerResponse> getCodeTables(ServerRequest request) {
+        return serve(request, catalogs.codeTables(), PetViews.TYPES_CACHE);
+    }
+
+    public Mono<ServerResponse> deletePet(ServerRequest request) {
+        String playerId = playerId(request);
+        return pets.deletePet(playerId).flatMap(deleted -> {
+            views.evictCached(playerId);
+            if (deleted) {
+                return render(request, ResponseEntity.ok(PetController.ApiResponse.success("宠物已删除，可以重新开始游戏")));
+            }
+            return ServerResponse.notFound().build();
+        });
+    }
+
+    public Mono<ServerResponse> getPlayerStats(ServerRequest request) {
+        return conditionalRead(request, PlayerAggregate::statsTag, views::playerStats);
+    }
+
+    // ================= 小游戏 =================
+
+    public Mono<ServerResponse> startMiniGame(ServerRequest request) {
+        String playerId = playerId(request);
+        // 确保玩家有宠物才能开始游戏
+        return request.bodyToMono(PetController.StartGameRequest.class).flatMap(body -> pets.getPet(playerId)
+            .flatMap(pet -> pets.startMiniGame(playerId, body.getGameType()).map(PetViews::toSessionResponse))
+            .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.badRequest()
+                .body(PetController.ApiResponse.error("请先创建宠物"))))
+            .flatMap(entity -> render(request, entity)));
+    }
+
+    public Mono<ServerResponse> processGameInput(ServerRequest request) {
+        return request.bodyToMono(JSON_OBJECT)
+            .flatMap(input -> pets.processGameInput(request.pathVariable("sessionId"), input))
+            .map(PetViews::toSessionResponse)
+            .flatMap(entity -> render(request, entity));
+    }
+
+    public Mono<ServerResponse> getActiveGameSession(ServerRequest request) {
+        return pets.getActiveGameSession(playerId(request))
+            .flatMap(session -> render(request, ResponseEntity.ok(PetController.ApiResponse.success("获取活跃游戏会话成功", session))))
+            .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    // ================= 状态推送 =================
+
+    public Mono<ServerResponse> streamState(ServerRequest request) {
+        return ServerResponse.ok()
+            .cacheControl(CacheControl.noStore())
+            .header("X-Accel-Buffering", "no") // nginx 不缓冲事件流
+            .contentType(MediaType.TEXT_EVENT_STREAM)
+            .body(BodyInserters.fromServerSentEvents(views.stateEvents(pets.watch(playerId(request)))));
+    }
+
+    // ================= 成就 =================
+
+    public Mono<ServerResponse> getPlayerAchievements(ServerRequest request) {
+        return conditionalRead(request, PlayerAggregate::stateTag,
+            player -> PetController.ApiResponse.success("获取成就列表成功", petService.achievementsOf(player)));
+    }
+
+    public Mono<ServerResponse> getAchievementCatalog(ServerRequest request) {
+        return write(ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(PetController.ApiResponse.success("获取成就目录成功", Achievement.catalog())));
+    }
+
+    public Mono<ServerResponse> getAchievementProgress(ServerRequest request) {
+        return pets.readPlayer(playerId(request), player -> player == null ? null
+                : PetController.AchievementProgress.of(player.getAchievementBook()))
+            .flatMap(progress -> render(request, ResponseEntity.ok(PetController.ApiResponse.success("获取成就进度成功", progress))))
+            .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> getDetailedPlayerStats(ServerRequest request) {
+        return conditionalRead(request, PlayerAggregate::stateTag,
+            player -> PetController.ApiResponse.success("获取详细统计成功", petService.statsOf(player)));
+    }
+
+    private <T> Mono<ServerResponse> conditionalRead(ServerRequest request, Function<PlayerAggregate, String> tagger,
+                                                     Function<PlayerAggregate, T> reader) {
+        String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        return pets.readPlayer(playerId(request), views.conditional(ifNoneMatch, format(request), tagger, reader))
+            .map(PetViews::toResponse)
+            .flatMap(entity -> render(request, entity));
+    }
+
+    private static Mono<ServerResponse> serve(ServerRequest request, PrerenderedCatalogs.Rendered rendered,
+                                              CacheControl cacheControl) {
+        HttpHeaders headers = request.headers().asHttpHeaders();
+        return write(PetViews.serve(rendered, cacheControl,
+            headers.getFirst(HttpHeaders.IF_NONE_MATCH), headers.getFirst(HttpHeaders.ACCEPT_ENCODING)));
+    }
+
+    /**
+     * 把共用的 ResponseEntity 按请求协商的格式转成函数式响应（字节数组原样写出），见 {@link PetViews#negotiated}
+     * 函数式路由不会按 Accept 选择编码器；二进制格式在这里直接写成字节，
+     * Spring 的 CBOR 编码器不支持响应式写出（只实现了 encodeValue）
+     */
+    private Mono<ServerResponse> render(ServerRequest request, ResponseEntity<?> entity) {
+        WireFormat format = format(request);
+        ResponseEntity<?> negotiated = PetViews.negotiated(entity, format);
+        if (format == WireFormat.JSON || negotiated.getBody() == null) {
+            return write(negotiated);
+        }
+        return write(new ResponseEntity<>(views.encode(negotiated.getBody(), format),
+            negotiated.getHeaders(), negotiated.getStatusCode()));
+    }
+
+    /**
+     * 状态码、响应头和响应体原样复制，目录类响应已经指定了 JSON
+     */
+    private static Mono<ServerResponse> write(ResponseEntity<?> entity) {
+        ServerResponse.BodyBuilder response = ServerResponse.status(entity.getStatusCode())
+            .headers(headers -> headers.addAll(entity.getHeaders()));
+        Object body = entity.getBody();
+        if (body == null) {
+            return response.build();
+        }
+        return response.bodyValue(body);
+    }
+
+    private static WireFormat format(ServerRequest request) {
+        return WireFormat.negotiate(String.join(",", request.headers().header(HttpHeaders.ACCEPT)));
+    }
+
+    private static String playerId(ServerRequest request) {
+        return request.pathVariable("playerId");
+    }
+
+    private static boolean delta(ServerRequest request) {
+        return PetViews.isDelta(request.queryParam("view").orElse(null));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.aiinterviewassistant.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * 响应式模式（spring.main.web-application-type=reactive）下的宠物接口路由，路径与 {@link PetController} 相同
+ * 固定路径排在 /{playerId} 之前，避免被当成玩家ID匹配
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PetRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> petRoutes(PetHandler handler) {
+        return RouterFunctions.route()
+            .path("/api/pet", api -> api
+                .GET("/types", handler::getPetTypes)
+                .GET("/shop", handler::getShopItems)
+                .GET("/minigame/types", handler::getGameTypes)
+                .GET("/achievements/catalog", handler::getAchievementCatalog)
+                .GET("/codes", handler::getCodeTables)
+                .POST("/create", handler::createPet)
+                .POST("/minigame/{sessionId}/input", handler::processGameInput)
+                .GET("/{playerId}", handler::getPetInfo)
+                .DELETE("/{playerId}", handler::deletePet)
+                .GET("/{playerId}/bootstrap", handler::bootstrap)
+                .POST("/{playerId}/action", handler::executeAction)
+                .POST("/{playerId}/use-item", handler::useItem)
+                .POST("/{playerId}/buy-item", handler::buyItem)
+                .POST("/{playerId}/batch", handler::executeBatch)
+                .POST("/{playerId}/sync", handler::syncActions)
+                .GET("/{playerId}/stats", handler::getPlayerStats)
+                .GET("/{playerId}/detailed-stats", handler::getDetailedPlayerStats)
+                .GET("/{playerId}/achievements", handler::getPlayerAchievements)
+                .GET("/{playerId}/achievements/progress", handler::getAchievementProgress)
+                .POST("/{playerId}/minigame/start", handler::startMiniGame)
+                .GET("/{playerId}/minigame/active", handler::getActiveGameSession)
+                .GET("/{playerId}/stream", handler::streamState))
+            .build();
+    }
+}
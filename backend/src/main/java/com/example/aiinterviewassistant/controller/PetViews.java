@@ -0,0 +1,474 @@
+package com.example.aiinterviewassistant.controller;
+
+import com.example.aiinterviewassistant.config.WireFormat;
+import com.example.aiinterviewassistant.config.WireMappers;
+import com.example.aiinterviewassistant.model.MiniGame;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.service.PetService;
+import com.example.aiinterviewassistant.service.PlayerAggregate;
+import com.example.aiinterviewassistant.service.ResponseCache;
+import com.example.aiinterviewassistant.service.StatePushHub;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 宠物接口的响应构建
+ * 阻塞式控制器 {@link PetController} 和非阻塞路由 {@link PetHandler} 共用这里的逻辑，两种模式返回的响应完全一致：
+ * 读接口在玩家的串行上下文中算实体标签、构建响应体，目录接口返回预先渲染的字节，变更接口把结果转成统一格式。
+ * 玩家相关的响应按 Accept 选择 JSON、CBOR 或 Smile（{@link WireFormat}），目录类响应是编号的对照表，总是 JSON。
+ */
+@Component
+public class PetViews {
+
+    // 目录类响应的缓存时间：商店会随物品解锁变化，宠物类型和小游戏类型只在发版时变化
+    static final CacheControl SHOP_CACHE = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
+    static final CacheControl TYPES_CACHE = CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic();
+
+    // 启动数据响应的固定部分
+    private static final byte[] BOOTSTRAP_OPEN = utf8("{\"success\":true,\"message\":\"初始化成功\",\"data\":{\"petTypes\":");
+    private static final byte[] PET_INFO_FIELD = utf8(",\"petInfo\":");
+    private static final byte[] PET_INFO_ETAG_FIELD = utf8(",\"petInfoEtag\":");
+    private static final byte[] SHOP_FIELD = utf8(",\"shop\":");
+    private static final byte[] GAME_TYPES_FIELD = utf8(",\"gameTypes\":");
+    private static final byte[] ACHIEVEMENTS_FIELD = utf8(",\"achievements\":");
+    private static final byte[] ACTIVE_SESSION_FIELD = utf8(",\"activeSession\":");
+    private static final byte[] BOOTSTRAP_CLOSE = utf8("}}");
+    private static final byte[] NULL_JSON = utf8("null");
+
+    private final PetService petService;
+    private final ResponseCache responseCache;
+    private final PrerenderedCatalogs catalogs;
+    private final StatePushHub statePush;
+    private final WireMappers mappers;
+    private final int maxBatchCommands;
+    private final int maxSyncEntries;
+
+    public PetViews(PetService petService, ResponseCache responseCache, PrerenderedCatalogs catalogs,
+                    StatePushHub statePush, WireMappers mappers,
+                    @Value("${app.batch.maxCommands:100}") int maxBatchCommands,
+                    @Value("${app.sync.maxEntries:500}") int maxSyncEntries) {
+        this.petService = petService;
+        this.responseCache = responseCache;
+        this.catalogs = catalogs;
+        this.statePush = statePush;
+        this.mappers = mappers;
+        this.maxBatchCommands = maxBatchCommands;
+        this.maxSyncEntries = maxSyncEntries;
+    }
+
+    // ================= 读接口 =================
+
+    /**
+     * 宠物信息的实体标签，有待通知的成就时响应只发一次，不带实体标签
+     */
+    public String petInfoTag(PlayerAggregate player) {
+        return player.getAchievementBook().hasUnannounced() ? null : player.infoTag(System.currentTimeMillis());
+    }
+
+    /**
+     * 宠物信息响应体，在玩家的串行上下文中构建并按 format 序列化，按状态版本号缓存字节，状态没变时直接返回缓存
+     */
+    public byte[] petInfoBody(PlayerAggregate player, WireFormat format) {
+        if (player == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        boolean oneShot = player.getAchievementBook().hasUnannounced();
+        String cacheKey = format.cacheKey(player.getPlayerId());
+        if (!oneShot) {
+            byte[] cached = responseCache.get(cacheKey, player.getVersion(), now);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long version = player.getVersion();
+        PetController.PetInfo petInfo = new PetController.PetInfo(
+            player.getPet(),
+            player.getCoins(),
+            petService.getAvailableActionInfo(player),
+            petService.getPlayerItems(player),
+            petService.takeUnlockedAchievements(player)
+        );
+        byte[] body = mappers.write(format, PetController.ApiResponse.success("获取宠物信息成功", petInfo));
+        if (!oneShot) {
+            responseCache.put(cacheKey, version, player.getPet().viewChangesAt(now), body);
+        }
+        return body;
+    }
+
+    /**
+     * 删除玩家后清除各个格式的缓存响应
+     */
+    public void evictCached(String playerId) {
+        for (WireFormat format : WireFormat.values()) {
+            responseCache.evict(format.cacheKey(playerId));
+        }
+    }
+
+    public PetController.ApiResponse<PetController.PlayerStats> playerStats(PlayerAggregate player) {
+        if (player == null) {
+            return null;
+        }
+        return PetController.ApiResponse.success("获取玩家统计成功", new PetController.PlayerStats(
+            player.getPet().getAgeInDays(),
+            player.getPet().getStats().getLevel(),
+            player.getPet().getStats().getExperience(),
+            player.getCoins(),
+            player.getInventorySize()
+        ));
+    }
+
+    /**
+     * 启动数据响应的各个片段，按顺序写出即为完整的 JSON，必须在玩家的串行上下文中调用
+     * data 中每个字段都是对应接口的完整响应，目录部分直接引用预先渲染的共享字节，不做拷贝
+     */
+    public List<byte[]> bootstrapFragments(PlayerAggregate player) {
+        String tag = player != null ? petInfoTag(player) : null;
+        MiniGame.GameSession session = player != null ? player.getActiveSession() : null;
+        return List.of(
+            BOOTSTRAP_OPEN, catalogs.petTypes().getJson(),
+            PET_INFO_FIELD, player != null ? petInfoBody(player, WireFormat.JSON) : NULL_JSON,
+            PET_INFO_ETAG_FIELD, toJson(tag != null ? "\"" + tag + "\"" : null),
+            SHOP_FIELD, catalogs.shop().getJson(),
+            GAME_TYPES_FIELD, catalogs.gameTypes().getJson(),
+            ACHIEVEMENTS_FIELD, toJson(PetController.ApiResponse.success("获取成就列表成功", petService.achievementsOf(player))),
+            ACTIVE_SESSION_FIELD, session != null
+                ? toJson(PetController.ApiResponse.success("获取活跃游戏会话成功", session)) : NULL_JSON,
+            BOOTSTRAP_CLOSE
+        );
+    }
+
+    /**
+     * 条件读取：在玩家的串行上下文中先由 tagger 算出实体标签，与 If-None-Match 匹配时不构建响应体；
+     * 否则由 reader 构建响应体（reader 返回 null 表示 404）。玩家不存在或 tagger 返回 null 时不带实体标签。
+     * 返回的函数交给 {@link PetService#readPlayer} 执行，结果再由 {@link #toResponse} 转成响应，
+     * 响应中的实体标签由 {@link #negotiated} 加上格式后缀，这里按加上后缀的标签匹配。
+     */
+    public <T> Function<PlayerAggregate, Tagged<T>> conditional(String ifNoneMatch, WireFormat format,
+                                                                Function<PlayerAggregate, String> tagger,
+                                                                Function<PlayerAggregate, T> reader) {
+        return player -> {
+            String tag = player != null ? tagger.apply(player) : null;
+            if (tag != null && matches(ifNoneMatch, format.etag(tag))) {
+                return new Tagged<T>(tag, null, true);
+            }
+            return new Tagged<>(tag, reader.apply(player), false);
+        };
+    }
+
+    public static <T> ResponseEntity<T> toResponse(Tagged<T> tagged) {
+        if (tagged.notModified) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tagged.tag).<T>build();
+        }
+        if (tagged.body == null) {
+            return ResponseEntity.notFound().<T>build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (tagged.tag != null) {
+            response.eTag(tagged.tag);
+        }
+        return response.body(tagged.body);
+    }
+
+    /**
+     * 按协商的格式补全响应头：有响应体时指定响应类型；带实体标签的响应加上格式后缀，并声明随 Accept 变化
+     */
+    public static <T> ResponseEntity<T> negotiated(ResponseEntity<T> entity, WireFormat format) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(entity.getHeaders());
+        String tag = headers.getETag();
+        if (tag != null) {
+            headers.setETag("\"" + format.etag(tag.substring(1, tag.length() - 1)) + "\"");
+            List<String> vary = new ArrayList<>(headers.getVary());
+            vary.add(HttpHeaders.ACCEPT);
+            headers.setVary(vary);
+        }
+        if (entity.getBody() != null) {
+            headers.setContentType(format.getMediaType());
+        }
+        return new ResponseEntity<>(entity.getBody(), headers, entity.getStatusCode());
+    }
+
+    /**
+     * 返回预先渲染的目录响应，客户端接受 gzip 时直接返回压缩好的字节
+     * 两种编码是不同的表示，实体标签也不同
+     */
+    public static ResponseEntity<byte[]> serve(PrerenderedCatalogs.Rendered rendered, CacheControl cacheControl,
+                                               String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String tag = gzip ? rendered.getEtag() + "-gz" : rendered.getEtag();
+        if (matches(ifNoneMatch, tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).cacheControl(cacheControl).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(tag)
+            .cacheControl(cacheControl)
+            .contentType(MediaType.APPLICATION_JSON)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(rendered.getGzip());
+        }
+        return response.body(rendered.getJson());
+    }
+
+    /**
+     * If-None-Match 是否包含 tag（按 RFC 9110 的弱比较，忽略 W/ 前缀）
+     */
+    static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String quoted = "\"" + tag + "\"";
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(quoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 状态推送的事件流：状态变化事件，加上所有连接共享的心跳注释
+     */
+    public Flux<ServerSentEvent<StatePushHub.Delta>> stateEvents(Flux<StatePushHub.Delta> deltas) {
+        Flux<ServerSentEvent<StatePushHub.Delta>> events = deltas
+            .map(delta -> ServerSentEvent.builder(delta)
+                .event("state")
+                .id(Long.toString(delta.getVersion()))
+                .build());
+        Flux<ServerSentEvent<StatePushHub.Delta>> heartbeats = statePush.heartbeats()
+            .map(tick -> ServerSentEvent.<StatePushHub.Delta>builder().comment("ping").build());
+        return events.mergeWith(heartbeats);
+    }
+
+    // ================= 变更接口 =================
+
+    /**
+     * view=delta 时变更接口返回增量响应
+     */
+    public static boolean isDelta(String view) {
+        return "delta".equalsIgnoreCase(view);
+    }
+
+    /**
+     * 动作和使用物品的响应：增量模式下 data 只有变化的字段、金币和新的状态版本号，否则是完整的宠物
+     */
+    public static ResponseEntity<PetController.ApiResponse<?>> toActionResponse(PetService.ActionResult result) {
+        if (!result.isSuccess()) {
+            return ResponseEntity.badRequest().body(PetController.ApiResponse.error(result.getMessage()));
+        }
+        Object data = result.getDelta() != null ? result.getDelta() : result.getPet();
+        return withEtag(ResponseEntity.ok(), result).body(PetController.ApiResponse.success(result.getMessage(), data));
+    }
+
+    public static ResponseEntity<PetController.ApiResponse<String>> toMessageResponse(PetService.ActionResult result) {
+        if (result.isSuccess()) {
+            return withEtag(ResponseEntity.ok(), result).body(PetController.ApiResponse.<String>success(result.getMessage()));
+        } else {
+            return ResponseEntity.badRequest().body(PetController.ApiResponse.<String>error(result.getMessage()));
+        }
+    }
+
+    /**
+     * 批量请求的整体校验，返回错误信息；单条命令的错误不在这里拒绝，而是记为该条命令失败
+     */
+    public String batchError(PetController.BatchRequest request) {
+        if (request == null || request.getCommands() == null || request.getCommands().isEmpty()) {
+            return "命令列表不能为空";
+        }
+        if (request.getCommands().size() > maxBatchCommands) {
+            return "单次最多执行 " + maxBatchCommands + " 条命令";
+        }
+        return null;
+    }
+
+    public static List<PetService.Command> toCommands(PetController.BatchRequest request) {
+        List<PetService.Command> commands = new ArrayList<>(request.getCommands().size());
+        for (PetController.BatchCommand command : request.getCommands()) {
+            commands.add(toCommand(command));
+        }
+        return commands;
+    }
+
+    private static PetService.Command toCommand(PetController.BatchCommand command) {
+        if (command == null || command.getType() == null) {
+            return PetService.Command.invalid("命令类型不能为空");
+        }
+        switch (command.getType().toLowerCase()) {
+            case "action":
+                if (command.getAction() == null) {
+                    return PetService.Command.invalid("动作不能为空");
+                }
+                try {
+                    return PetService.Command.action(PetAction.valueOf(command.getAction().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    return PetService.Command.invalid("无效的动作: " + command.getAction());
+                }
+            case "use-item":
+                return PetService.Command.useItem(command.getItemId());
+            case "buy-item":
+                return PetService.Command.buyItem(command.getItemId());
+            default:
+                return PetService.Command.invalid("无效的命令类型: " + command.getType());
+        }
+    }
+
+    /**
+     * 批量执行和离线同步后的最终状态，必须在玩家的串行上下文中调用
+     */
+    public PetController.PetInfo batchState(PlayerAggregate player) {
+        return new PetController.PetInfo(
+            player.getPet(),
+            player.getCoins(),
+            petService.getAvailableActionInfo(player),
+            petService.getPlayerItems(player),
+            petService.takeUnlockedAchievements(player)
+        );
+    }
+
+    public static ResponseEntity<PetController.ApiResponse<PetController.BatchResponse>> toBatchResponse(
+            PetService.BatchResult<PetController.PetInfo> batch) {
+        if (batch == null) {
+            return ResponseEntity.notFound().build();
+        }
+        List<PetController.BatchOutcome> outcomes = new ArrayList<>(batch.getResults().size());
+        int succeeded = 0;
+        for (PetService.ActionResult result : batch.getResults()) {
+            outcomes.add(new PetController.BatchOutcome(result.isSuccess(), result.getMessage()));
+            if (result.isSuccess()) {
+                succeeded++;
+            }
+        }
+        return ResponseEntity.ok().eTag(batch.getEtag()).body(PetController.ApiResponse.success(
+            "批量执行完成：成功 " + succeeded + "/" + outcomes.size(),
+            new PetController.BatchResponse(outcomes, batch.getState())));
+    }
+
+    /**
+     * 离线同步请求的整体校验：序号从 1 开始，0 和负数无法与已应用序号比较，整批拒绝
+     */
+    public String syncError(PetController.SyncRequest request) {
+        if (request == null || request.getEntries() == null || request.getEntries().isEmpty()) {
+            return "操作列表不能为空";
+        }
+        if (request.getEntries().size() > maxSyncEntries) {
+            return "单次最多同步 " + maxSyncEntries + " 条操作";
+        }
+        for (PetController.SyncEntryRequest entry : request.getEntries()) {
+            if (entry == null || entry.getSeq() <= 0) {
+                return "操作序号必须为正数";
+            }
+        }
+        return null;
+    }
+
+    public static List<PetService.SyncEntry> toSyncEntries(PetController.SyncRequest request) {
+        List<PetService.SyncEntry> entries = new ArrayList<>(request.getEntries().size());
+        for (PetController.SyncEntryRequest entry : request.getEntries()) {
+            PetAction action = null;
+            String error = null;
+            if (entry.getAction() == null) {
+                error = "动作不能为空";
+            } else {
+                try {
+                    action = PetAction.valueOf(entry.getAction().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    error = "无效的动作: " + entry.getAction();
+                }
+            }
+            entries.add(new PetService.SyncEntry(entry.getSeq(), entry.getAt(), action, error));
+        }
+        return entries;
+    }
+
+    /**
+     * 按请求中的顺序列出每条操作的结果；本次没有新应用的序号是重复上传
+     */
+    public static ResponseEntity<PetController.ApiResponse<PetController.SyncResponse>> toSyncResponse(
+            PetController.SyncRequest request, PetService.SyncResult<PetController.PetInfo> sync) {
+        if (sync == null) {
+            return ResponseEntity.notFound().build();
+        }
+        List<PetController.SyncOutcome> outcomes = new ArrayList<>(request.getEntries().size());
+        Set<Long> reported = new HashSet<>();
+        int applied = 0;
+        for (PetController.SyncEntryRequest entry : request.getEntries()) {
+            PetService.ActionResult result = sync.getResults().get(entry.getSeq());
+            if (result == null || !reported.add(entry.getSeq())) {
+                outcomes.add(new PetController.SyncOutcome(entry.getSeq(), "duplicate", "已同步过的操作"));
+            } else if (result.isSuccess()) {
+                outcomes.add(new PetController.SyncOutcome(entry.getSeq(), "applied", result.getMessage()));
+                applied++;
+            } else {
+                outcomes.add(new PetController.SyncOutcome(entry.getSeq(), "rejected", result.getMessage()));
+            }
+        }
+        return ResponseEntity.ok().eTag(sync.getEtag()).body(PetController.ApiResponse.success(
+            "同步完成：应用 " + applied + "/" + outcomes.size(),
+            new PetController.SyncResponse(sync.getLastAppliedSeq(), outcomes, sync.getState())));
+    }
+
+    /**
+     * 变更接口带上变更后宠物信息的实体标签，与客户端手里的一致时不需要再获取
+     */
+    private static ResponseEntity.BodyBuilder withEtag(ResponseEntity.BodyBuilder response, PetService.ActionResult result) {
+        return result.getEtag() != null ? response.eTag(result.getEtag()) : response;
+    }
+
+    public static ResponseEntity<PetController.ApiResponse<MiniGame.GameSession>> toSessionResponse(MiniGame.GameResult result) {
+        if (result.isSuccess()) {
+            return ResponseEntity.ok(PetController.ApiResponse.success(result.getMessage(), result.getSession()));
+        } else {
+            return ResponseEntity.badRequest().body(PetController.ApiResponse.error(result.getMessage()));
+        }
+    }
+
+    public byte[] toJson(Object value) {
+        return mappers.write(WireFormat.JSON, value);
+    }
+
+    /**
+     * 响应体按格式写成字节，已经是字节的（缓存的宠物信息）原样返回
+     */
+    public byte[] encode(Object value, WireFormat format) {
+        return value instanceof byte[] bytes ? bytes : mappers.write(format, value);
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 条件读取的结果：实体标签、响应体（null 表示 404），以及是否未修改
+     */
+    public static final class Tagged<T> {
+        private final String tag;
+        private final T body;
+        private final boolean notModified;
+
+        private Tagged(String tag, T body, boolean notModified) {
+            this.tag = tag;
+            this.body = body;
+            this.notModified = notModified;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.aiinterviewassistant.controller;
+
+import com.example.aiinterviewassistant.config.PetWireModule;
+import com.example.aiinterviewassistant.model.MiniGame;
+import com.example.aiinterviewassistant.model.PetType;
+import com.example.aiinterviewassistant.service.PetService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预先渲染的目录响应
+ * 商店、宠物类型、小游戏类型和二进制格式的编号对照表对所有玩家都一样，预先序列化成完整的响应体并压缩好 gzip 版本，
+ * 请求时直接返回字节。宠物类型、小游戏类型和编号对照表只在发版时变化，启动时渲染一次；
+ * 商店内容取决于哪些物品已解锁，解锁状态变化时重新渲染一份不可变快照，原子地替换旧快照。
+ */
+@Component
+public class PrerenderedCatalogs {
+
+    private final PetService petService;
+    private final ObjectMapper objectMapper;
+
+    private final Rendered petTypes;
+    private final Rendered gameTypes;
+    private final Rendered codeTables;
+    private final AtomicReference<Rendered> shop = new AtomicReference<>();
+
+    public PrerenderedCatalogs(PetService petService, ObjectMapper objectMapper) {
+        this.petService = petService;
+        this.objectMapper = objectMapper;
+        this.petTypes = render(PetController.ApiResponse.success("获取宠物类型成功", PetType.values()), 0);
+        this.gameTypes = render(PetController.ApiResponse.success("获取游戏类型成功", MiniGame.GameType.values()), 0);
+        this.codeTables = render(PetController.ApiResponse.success("获取编号对照表成功", PetWireModule.codeTables()), 0);
+    }
+
+    public Rendered petTypes() {
+        return petTypes;
+    }
+
+    public Rendered gameTypes() {
+        return gameTypes;
+    }
+
+    public Rendered codeTables() {
+        return codeTables;
+    }
+
+    /**
+     * 当前的商店快照，物品解锁状态与快照不一致时重新渲染
+     */
+    public Rendered shop() {
+        long unlocked = petService.getShopUnlockedMask();
+        Rendered current = shop.get();
+        if (current != null && current.key == unlocked) {
+            return current;
+        }
+        Rendered next = render(PetController.ApiResponse.success("获取商店物品成功", petService.getShopItems()), unlocked);
+        // 并发渲染时谁先替换都一样，内容由同一个解锁状态决定
+        shop.compareAndSet(current, next);
+        return next;
+    }
+
+    private Rendered render(Object response, long key) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            return new Rendered(key, json, gzip(json), digest(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("渲染目录失败", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String digest(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 一份渲染好的响应：原始 JSON、gzip 压缩版本和内容摘要（用作实体标签），创建后不再修改
+     */
+    public static final class Rendered {
+        private final long key;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+
+        private Rendered(long key, byte[] json, byte[] gzip, String etag) {
+            this.key = key;
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+        public String getEtag() { return etag; }
+    }
+}
@@ -139,6 +139,28 @@ public class Achievement {
         return currentProgress + "/" + targetValue;
     }
 
+    // 所有玩家共享的成就目录，只读，不要修改其中的对象
+    private static final List<Achievement> CATALOG = List.copyOf(getDefaultAchievements());
+
+    /**
+     * 共享的成就目录，下标即成就编号
+     */
+    public static List<Achievement> catalog() {
+        return CATALOG;
+    }
+
+    /**
+     * 以目录中的成就为模板，生成带玩家进度的副本
+     */
+    public static Achievement withProgress(Achievement template, int progress, boolean unlocked, LocalDateTime unlockedDate) {
+        Achievement view = new Achievement(template.id, template.name, template.description, template.emoji,
+            template.type, template.targetValue, template.reward);
+        view.currentProgress = progress;
+        view.unlocked = unlocked;
+        view.unlockedDate = unlockedDate;
+        return view;
+    }
+
     /**
      * 预定义成就列表
      */
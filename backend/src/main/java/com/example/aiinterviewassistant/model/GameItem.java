@@ -1,5 +1,9 @@
 package com.example.aiinterviewassistant.model;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 游戏物品类
  * 表示游戏中的各种物品，如食物、玩具、装饰品等
@@ -52,32 +56,31 @@ public class GameItem {
         public String getDescription() { return description; }
     }
 
+    // 稀有度的显示文字和颜色，下标为稀有度（1-5），0 表示未知
+    public static final List<String> RARITY_DISPLAYS = List.of(
+        "未知", "普通 ⭐", "常见 ⭐⭐", "稀有 ⭐⭐⭐", "史诗 ⭐⭐⭐⭐", "传说 ⭐⭐⭐⭐⭐");
+    public static final List<String> RARITY_COLORS = List.of(
+        "#000000", "#808080", "#FFFFFF", "#00FF00", "#800080", "#FF8000"); // 黑、灰、白、绿、紫、橙
+
     /**
      * 获取稀有度显示
      */
     public String getRarityDisplay() {
-        return switch (rarity) {
-            case 1 -> "普通 ⭐";
-            case 2 -> "常见 ⭐⭐";
-            case 3 -> "稀有 ⭐⭐⭐";
-            case 4 -> "史诗 ⭐⭐⭐⭐";
-            case 5 -> "传说 ⭐⭐⭐⭐⭐";
-            default -> "未知";
-        };
+        return RARITY_DISPLAYS.get(rarityIndex());
     }
 
     /**
      * 获取稀有度颜色
      */
     public String getRarityColor() {
-        return switch (rarity) {
-            case 1 -> "#808080"; // 灰色
-            case 2 -> "#FFFFFF"; // 白色
-            case 3 -> "#00FF00"; // 绿色
-            case 4 -> "#800080"; // 紫色
-            case 5 -> "#FF8000"; // 橙色
-            default -> "#000000";
-        };
+        return RARITY_COLORS.get(rarityIndex());
+    }
+
+    /**
+     * 稀有度在显示表中的下标，超出范围的按未知处理
+     */
+    public int rarityIndex() {
+        return rarity >= 1 && rarity <= 5 ? rarity : 0;
     }
 
     /**
@@ -118,6 +121,45 @@ public class GameItem {
         };
     }
 
+    // 物品目录：预定义物品按固定顺序编号，玩家背包用这个编号作为计数数组的下标
+    private static final GameItem[] CATALOG = getDefaultItems();
+    private static final Map<String, Integer> CATALOG_INDEX = new HashMap<>();
+
+    static {
+        for (int i = 0; i < CATALOG.length; i++) {
+            CATALOG_INDEX.put(CATALOG[i].getId(), i);
+        }
+    }
+
+    /**
+     * 目录中的物品数量
+     */
+    public static int catalogSize() {
+        return CATALOG.length;
+    }
+
+    /**
+     * 物品在目录中的编号，未知物品返回 -1
+     */
+    public static int indexOf(String itemId) {
+        Integer index = itemId != null ? CATALOG_INDEX.get(itemId) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * 目录中的全部物品（共享实例）
+     */
+    public static List<GameItem> catalog() {
+        return List.of(CATALOG);
+    }
+
+    /**
+     * 按编号获取目录中的物品
+     */
+    public static GameItem byIndex(int index) {
+        return CATALOG[index];
+    }
+
     // 预定义的游戏物品
     public static GameItem[] getDefaultItems() {
         return new GameItem[]{
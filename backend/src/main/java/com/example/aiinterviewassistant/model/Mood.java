@@ -0,0 +1,54 @@
+package com.example.aiinterviewassistant.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 宠物心情
+ * 前五个按序号对应由数值决定的心情等级（从差到好），CURIOUS 是新生宠物的初始心情。
+ * 序列化为小写名称，与原先的字符串格式一致。
+ */
+public enum Mood {
+    SICK("sick"),
+    SAD("sad"),
+    OKAY("okay"),
+    HAPPY("happy"),
+    EXCITED("excited"),
+    CURIOUS("curious");
+
+    // 由数值决定的心情等级数
+    public static final int LEVELS = 5;
+
+    private static final Mood[] VALUES = values();
+
+    private final String key;
+
+    Mood(String key) {
+        this.key = key;
+    }
+
+    /**
+     * 心情等级（0 到 LEVELS - 1）对应的心情
+     */
+    public static Mood ofLevel(int level) {
+        return VALUES[level];
+    }
+
+    public static Mood of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * 按名称查找，未知名称视为初始心情
+     */
+    public static Mood fromKey(String key) {
+        for (Mood mood : VALUES) {
+            if (mood.key.equals(key)) {
+                return mood;
+            }
+        }
+        return CURIOUS;
+    }
+
+    @JsonValue
+    public String getKey() { return key; }
+}
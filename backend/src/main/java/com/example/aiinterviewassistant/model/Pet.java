@@ -1,30 +1,56 @@
 package com.example.aiinterviewassistant.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * 宠物实体类
  * 表示用户的虚拟宠物
+ *
+ * 为了让大量常驻玩家占用更少的堆内存，内部采用紧凑表示：UUID 存成两个 long，
+ * 时间存成 epoch 毫秒，心情是枚举；对外的 getter 仍返回原来的字符串和 LocalDateTime，JSON 格式不变。
+ * 字段顺序固定为紧凑化之前的顺序：默认按字段声明排序，改成只有 getter 的属性会被挪到后面。
  */
+@JsonPropertyOrder({"id", "name", "type", "stats", "color", "birthDate", "lastInteraction", "mood",
+    "asleep", "ageInDays", "statusDescription", "recommendedActions"})
 public class Pet {
-    private String id;
+    // 超过这么多小时没有互动就需要关注
+    public static final int ATTENTION_HOURS = 12;
+
+    // 状态描述中名字之后的部分：睡觉、饥饿、肮脏、不舒服，之后按 PetStats.MOOD_STATUSES 的顺序
+    public static final List<String> STATUS_SUFFIXES = List.of(
+        " 正在睡觉 😴", " 非常饿 😢", " 很脏，需要清洁 🛁", " 看起来不太舒服 😰",
+        " 非常开心 😄", " 开心 😊", " 一般 😐", " 不开心 😔", " 很难过 😢");
+
+    // 推荐动作，下标是 recommendationsAt 返回的位掩码
+    public static final List<List<String>> RECOMMENDED_ACTIONS = recommendationTable();
+
+    private long idMostBits;
+    private long idLeastBits;
     private String name;
     private PetType type;
     private PetStats stats;
     private String color; // 宠物颜色/皮肤
-    private LocalDateTime birthDate;
-    private LocalDateTime lastInteraction;
-    private boolean isAsleep;
-    private String mood; // 当前心情状态
+    private long birthDate;
+    private long lastInteraction;
+    private Mood mood; // 最后一次结算时的心情，离开满一小时后由数值决定
 
     // 构造函数
     public Pet() {
-        this.id = UUID.randomUUID().toString();
+        UUID id = UUID.randomUUID();
+        this.idMostBits = id.getMostSignificantBits();
+        this.idLeastBits = id.getLeastSignificantBits();
         this.stats = new PetStats();
-        this.birthDate = LocalDateTime.now();
-        this.lastInteraction = LocalDateTime.now();
-        this.isAsleep = false;
+        long now = System.currentTimeMillis();
+        this.birthDate = now;
+        this.lastInteraction = now;
         this.color = "default";
     }
 
@@ -32,14 +58,35 @@ public class Pet {
         this();
         this.name = name;
         this.type = type;
-        this.mood = "curious"; // 新生宠物都很好奇
+        this.mood = Mood.CURIOUS; // 新生宠物都很好奇
     }
 
     /**
      * 计算宠物年龄（天数）
      */
     public long getAgeInDays() {
-        return java.time.Duration.between(birthDate, LocalDateTime.now()).toDays();
+        return ageInDaysAt(System.currentTimeMillis());
+    }
+
+    public long ageInDaysAt(long now) {
+        return (now - birthDate) / (24 * StatDecay.MILLIS_PER_HOUR);
+    }
+
+    /**
+     * 宠物的对外视图（数值、心情、年龄、是否需要关注）下一次可能变化的时刻，
+     * 期间没有写入的话，在此之前生成的视图都相同
+     */
+    public long viewChangesAt(long now) {
+        long day = 24 * StatDecay.MILLIS_PER_HOUR;
+        long next = stats.nextChangeAt(now);
+        long moodDriftAt = stats.getDecayOrigin() + StatDecay.MILLIS_PER_HOUR;
+        if (moodDriftAt > now) {
+            next = Math.min(next, moodDriftAt);
+        }
+        if (lonelySince() > now) {
+            next = Math.min(next, lonelySince());
+        }
+        return Math.min(next, birthDate + ((now - birthDate) / day + 1) * day);
     }
 
     /**
@@ -47,64 +94,103 @@ public class Pet {
      */
     public boolean needsAttention() {
         return stats.needsUrgentCare() || 
-               java.time.Duration.between(lastInteraction, LocalDateTime.now()).toHours() > 12;
+               (System.currentTimeMillis() - lastInteraction) / StatDecay.MILLIS_PER_HOUR > ATTENTION_HOURS;
+    }
+
+    /**
+     * 因太久没有互动而需要关注的时刻（epoch 毫秒），与 needsAttention 的整小时判断一致
+     */
+    public long lonelySince() {
+        return lastInteraction + (ATTENTION_HOURS + 1) * StatDecay.MILLIS_PER_HOUR;
     }
 
     /**
      * 更新最后互动时间
+     * 先按离开时长结算心情和数值，再从现在开始新的一段离开
      */
     public void updateLastInteraction() {
-        this.lastInteraction = LocalDateTime.now();
+        updateLastInteraction(System.currentTimeMillis());
+    }
+
+    public void updateLastInteraction(long now) {
+        this.mood = getMood(now);
+        stats.restartDecay(now);
+        this.lastInteraction = now;
+    }
+
+    /**
+     * 时刻 now 的心情：离开不满一小时保持原样，否则由数值决定
+     */
+    public Mood getMood(long now) {
+        return stats.moodDriftsAt(now) ? stats.moodAt(now) : mood;
     }
 
     /**
      * 获取宠物当前状态描述
      */
     public String getStatusDescription() {
-        if (isAsleep) {
-            return name + " 正在睡觉 😴";
+        return name + STATUS_SUFFIXES.get(statusAt(System.currentTimeMillis()));
+    }
+
+    /**
+     * 时刻 now 的状态描述在 {@link #STATUS_SUFFIXES} 中的下标：先看是否在睡觉、是否需要紧急照顾，否则按总体情绪
+     */
+    public int statusAt(long now) {
+        if (stats.isSleepingAt(now)) {
+            return 0;
         }
         
-        if (stats.needsUrgentCare()) {
-            if (stats.getHunger() <= 20) return name + " 非常饿 😢";
-            if (stats.getCleanliness() <= 20) return name + " 很脏，需要清洁 🛁";
-            if (stats.getHealth() <= 30) return name + " 看起来不太舒服 😰";
+        if (stats.needsUrgentCareAt(now)) {
+            if (stats.hungerAt(now) <= 20) return 1;
+            if (stats.cleanlinessAt(now) <= 20) return 2;
+            if (stats.healthAt(now) <= 30) return 3;
         }
         
-        String moodEmoji = switch (stats.getMoodStatus()) {
-            case "非常开心" -> "😄";
-            case "开心" -> "😊";
-            case "一般" -> "😐";
-            case "不开心" -> "😔";
-            case "很难过" -> "😢";
-            default -> "🙂";
-        };
-        
-        return name + " " + stats.getMoodStatus() + " " + moodEmoji;
+        return 4 + stats.moodStatusAt(now);
     }
 
     /**
      * 获取可执行的推荐动作
      */
     public String[] getRecommendedActions() {
-        java.util.List<String> actions = new java.util.ArrayList<>();
-        
-        if (stats.getHunger() <= 70) actions.add("喂食");
-        if (stats.getCleanliness() <= 70) actions.add("清洁");
-        if (stats.getHappiness() <= 70) actions.add("玩耍");
-        if (stats.getEnergy() <= 30) actions.add("休息");
-        
-        if (actions.isEmpty()) {
-            actions.add("抚摸");
-            actions.add("聊天");
+        return RECOMMENDED_ACTIONS.get(recommendationsAt(System.currentTimeMillis())).toArray(new String[0]);
+    }
+
+    /**
+     * 时刻 now 的推荐动作在 {@link #RECOMMENDED_ACTIONS} 中的下标：饱食、清洁、快乐、能量各占一位
+     */
+    public int recommendationsAt(long now) {
+        int mask = 0;
+        if (stats.hungerAt(now) <= 70) mask |= 1;
+        if (stats.cleanlinessAt(now) <= 70) mask |= 2;
+        if (stats.happinessAt(now) <= 70) mask |= 4;
+        if (stats.energyAt(now) <= 30) mask |= 8;
+        return mask;
+    }
+
+    private static List<List<String>> recommendationTable() {
+        String[] names = {"喂食", "清洁", "玩耍", "休息"};
+        List<List<String>> table = new ArrayList<>(1 << names.length);
+        table.add(List.of("抚摸", "聊天")); // 状态都不错时推荐互动
+        for (int mask = 1; mask < 1 << names.length; mask++) {
+            List<String> actions = new ArrayList<>();
+            for (int bit = 0; bit < names.length; bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    actions.add(names[bit]);
+                }
+            }
+            table.add(List.copyOf(actions));
         }
-        
-        return actions.toArray(new String[0]);
+        return List.copyOf(table);
     }
 
     // Getters and Setters
-    public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public String getId() { return new UUID(idMostBits, idLeastBits).toString(); }
+    public void setId(String id) {
+        UUID uuid = UUID.fromString(id);
+        this.idMostBits = uuid.getMostSignificantBits();
+        this.idLeastBits = uuid.getLeastSignificantBits();
+    }
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -118,15 +204,31 @@ public class Pet {
     public String getColor() { return color; }
     public void setColor(String color) { this.color = color; }
 
-    public LocalDateTime getBirthDate() { return birthDate; }
-    public void setBirthDate(LocalDateTime birthDate) { this.birthDate = birthDate; }
+    public LocalDateTime getBirthDate() { return toLocalDateTime(birthDate); }
+    public void setBirthDate(LocalDateTime birthDate) { this.birthDate = toEpochMillis(birthDate); }
+
+    @JsonIgnore
+    public long getBirthDateMillis() { return birthDate; }
+    public void setBirthDateMillis(long birthDate) { this.birthDate = birthDate; }
 
-    public LocalDateTime getLastInteraction() { return lastInteraction; }
-    public void setLastInteraction(LocalDateTime lastInteraction) { this.lastInteraction = lastInteraction; }
+    public LocalDateTime getLastInteraction() { return toLocalDateTime(lastInteraction); }
+    public void setLastInteraction(LocalDateTime lastInteraction) { this.lastInteraction = toEpochMillis(lastInteraction); }
 
-    public boolean isAsleep() { return isAsleep; }
-    public void setAsleep(boolean asleep) { isAsleep = asleep; }
+    @JsonIgnore
+    public long getLastInteractionMillis() { return lastInteraction; }
+    public void setLastInteractionMillis(long lastInteraction) { this.lastInteraction = lastInteraction; }
 
-    public String getMood() { return mood; }
-    public void setMood(String mood) { this.mood = mood; }
+    public boolean isAsleep() { return stats.isSleepingAt(System.currentTimeMillis()); }
+    public void setAsleep(boolean asleep) { stats.setSleeping(asleep, System.currentTimeMillis()); }
+
+    public Mood getMood() { return getMood(System.currentTimeMillis()); }
+    public void setMood(Mood mood) { this.mood = mood; }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
 }
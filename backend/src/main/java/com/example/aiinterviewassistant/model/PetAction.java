@@ -55,20 +55,27 @@ public enum PetAction {
      * 检查动作是否可执行
      */
     public boolean canExecute(Pet pet) {
+        return canExecute(pet, System.currentTimeMillis());
+    }
+
+    /**
+     * 检查动作在时刻 now 是否可执行（重放离线操作时按操作发生的时刻判断）
+     */
+    public boolean canExecute(Pet pet, long now) {
         PetStats stats = pet.getStats();
         
         // 宠物睡觉时不能执行某些动作
-        if (pet.isAsleep() && this != SLEEP) {
+        if (stats.isSleepingAt(now) && this != SLEEP) {
             return false;
         }
         
         // 特定条件检查
         return switch (this) {
-            case SLEEP -> stats.getEnergy() < 90; // 不累的时候不能睡觉
-            case MEDICINE, FEED_MEDICINE -> stats.getHealth() < 80; // 健康时不需要治疗
-            case FEED -> stats.getHunger() < 90; // 不饿的时候不需要喂食
-            case CLEAN -> stats.getCleanliness() < 90; // 不脏的时候不需要清洁
-            case PLAY, EXERCISE -> stats.getEnergy() > 20; // 太累不能玩耍运动
+            case SLEEP -> stats.energyAt(now) < 90; // 不累的时候不能睡觉
+            case MEDICINE, FEED_MEDICINE -> stats.healthAt(now) < 80; // 健康时不需要治疗
+            case FEED -> stats.hungerAt(now) < 90; // 不饿的时候不需要喂食
+            case CLEAN -> stats.cleanlinessAt(now) < 90; // 不脏的时候不需要清洁
+            case PLAY, EXERCISE -> stats.energyAt(now) > 20; // 太累不能玩耍运动
             default -> true; // 其他动作都可以执行
         };
     }
@@ -99,46 +106,56 @@ public enum PetAction {
 
     /**
      * 状态效果内部类
+     * 构造时把数值名称编译成按 StatType 序号索引的增量向量，应用时不再解析字符串
      */
     public static class StatEffect {
         private final String[] statNames;
         private final int[] values;
+        private final int[] deltas = new int[StatType.COUNT];
 
         public StatEffect(String stat1, int value1) {
-            this.statNames = new String[]{stat1};
-            this.values = new int[]{value1};
+            this(new String[]{stat1}, new int[]{value1});
         }
 
         public StatEffect(String stat1, int value1, String stat2, int value2) {
-            this.statNames = new String[]{stat1, stat2};
-            this.values = new int[]{value1, value2};
+            this(new String[]{stat1, stat2}, new int[]{value1, value2});
         }
 
         public StatEffect(String stat1, int value1, String stat2, int value2, String stat3, int value3) {
-            this.statNames = new String[]{stat1, stat2, stat3};
-            this.values = new int[]{value1, value2, value3};
+            this(new String[]{stat1, stat2, stat3}, new int[]{value1, value2, value3});
+        }
+
+        private StatEffect(String[] statNames, int[] values) {
+            this.statNames = statNames;
+            this.values = values;
+            for (int i = 0; i < statNames.length; i++) {
+                StatType type = StatType.fromKey(statNames[i]);
+                if (type == null) {
+                    throw new IllegalArgumentException("未知的状态：" + statNames[i]);
+                }
+                deltas[type.ordinal()] += values[i];
+            }
         }
 
         /**
          * 应用效果到宠物状态
          */
         public void applyTo(PetStats stats) {
-            for (int i = 0; i < statNames.length; i++) {
-                String statName = statNames[i];
-                int currentValue = getCurrentStatValue(stats, statName);
-                stats.updateStat(statName, currentValue + values[i]);
-            }
+            stats.applyDeltas(deltas);
+        }
+
+        /**
+         * 在时刻 now 应用效果
+         */
+        public void applyTo(PetStats stats, long now) {
+            stats.applyDeltas(deltas, now);
         }
 
-        private int getCurrentStatValue(PetStats stats, String statName) {
-            return switch (statName.toLowerCase()) {
-                case "hunger" -> stats.getHunger();
-                case "cleanliness" -> stats.getCleanliness();
-                case "happiness" -> stats.getHappiness();
-                case "energy" -> stats.getEnergy();
-                case "health" -> stats.getHealth();
-                default -> 0;
-            };
+        /**
+         * 效果对某项数值的增量
+         */
+        public int deltaOf(StatType type) {
+            return deltas[type.ordinal()];
         }
 
         public String[] getStatNames() { return statNames; }
@@ -1,60 +1,330 @@
 package com.example.aiinterviewassistant.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
 
 /**
  * 宠物状态数据
  * 管理宠物的各项数值状态
+ *
+ * 字段保存的是 settledAt 时刻结算出的基线值，getter 按 {@link StatDecay} 的闭式规则
+ * 投影到当前时刻，读取不修改状态。只有写操作才先调用 settle() 把基线推进到当前时刻。
+ * 五项数值打包存放后只剩 getter，JSON 字段顺序按打包之前固定。
  */
+@JsonPropertyOrder({"hunger", "cleanliness", "happiness", "energy", "health", "experience", "level", "lastUpdate",
+    "moodStatus"})
 public class PetStats {
-    // 饥饿值 (0-100，0为最饿，100为最饱)
-    private int hunger = 50;
-    
-    // 清洁度 (0-100，0为最脏，100为最干净)
-    private int cleanliness = 80;
-    
-    // 快乐值 (0-100，0为最不开心，100为最开心)
-    private int happiness = 60;
-    
-    // 能量值 (0-100，0为最累，100为最有活力)
-    private int energy = 70;
-    
-    // 健康值 (0-100，0为生病，100为健康)
-    private int health = 90;
-    
+    // 需要紧急照顾的阈值
+    public static final int URGENT_HUNGER = 20;
+    public static final int URGENT_CLEANLINESS = 20;
+    public static final int URGENT_HEALTH = 30;
+
+    // 总体情绪状态，从好到差
+    public static final List<String> MOOD_STATUSES = List.of("非常开心", "开心", "一般", "不开心", "很难过");
+
+    // 五项数值 (0-100) 和等级各占一个字节，与睡觉标记一起打包在一个 long 里：
+    // 第 0-4 字节依次为 hunger、cleanliness、happiness、energy、health（下标为 StatType 序号），
+    // 第 5 字节为等级，第 48 位为是否在睡觉
+    // hunger: 0为最饿，100为最饱；cleanliness: 0为最脏；happiness: 0为最不开心；
+    // energy: 0为最累；health: 0为生病
+    private static final int LEVEL_SHIFT = 40;
+    private static final long SLEEPING_BIT = 1L << 48;
+    private long packed = pack(50, 80, 60, 70, 90) | (1L << LEVEL_SHIFT);
+
     // 经验值
     private int experience = 0;
     
-    // 等级
-    private int level = 1;
-    
     // 最后更新时间（用于计算随时间的状态变化）
-    private LocalDateTime lastUpdate = LocalDateTime.now();
+    private long lastUpdate = System.currentTimeMillis();
+
+    // 衰减锚点（epoch 毫秒）：本次离开的起点，以及基线值对应的时刻
+    private long decayOrigin;
+    private long settledAt;
+
+    // 上一段离开中不足 1 点的变化量（速率·毫秒）
+    private int hungerCarry;
+    private int cleanlinessCarry;
+    private int happinessCarry;
+    private int energyCarry;
 
     // 构造函数
-    public PetStats() {}
+    public PetStats() {
+        long now = System.currentTimeMillis();
+        this.decayOrigin = now;
+        this.settledAt = now;
+    }
 
     public PetStats(int hunger, int cleanliness, int happiness, int energy, int health) {
-        this.hunger = Math.max(0, Math.min(100, hunger));
-        this.cleanliness = Math.max(0, Math.min(100, cleanliness));
-        this.happiness = Math.max(0, Math.min(100, happiness));
-        this.energy = Math.max(0, Math.min(100, energy));
-        this.health = Math.max(0, Math.min(100, health));
+        this();
+        this.packed = pack(clamp(hunger), clamp(cleanliness), clamp(happiness), clamp(energy), clamp(health))
+            | (1L << LEVEL_SHIFT);
+    }
+
+    // ================= 打包存储 =================
+
+    private static long pack(int hunger, int cleanliness, int happiness, int energy, int health) {
+        return (long) hunger
+            | ((long) cleanliness << 8)
+            | ((long) happiness << 16)
+            | ((long) energy << 24)
+            | ((long) health << 32);
+    }
+
+    private int base(StatType type) {
+        return (int) ((packed >>> (type.ordinal() << 3)) & 0xFF);
+    }
+
+    private void setBase(StatType type, int value) {
+        int shift = type.ordinal() << 3;
+        packed = (packed & ~(0xFFL << shift)) | ((long) value << shift);
+    }
+
+    private boolean sleeping() {
+        return (packed & SLEEPING_BIT) != 0;
+    }
+
+    private void setSleepingBit(boolean sleeping) {
+        packed = sleeping ? packed | SLEEPING_BIT : packed & ~SLEEPING_BIT;
+    }
+
+    // ================= 随时间变化 =================
+
+    public int hungerAt(long now) {
+        return StatDecay.decayed(base(StatType.HUNGER), StatDecay.HUNGER_RATE, StatDecay.HUNGER_CAP,
+            hungerCarry, decayOrigin, settledAt, now);
+    }
+
+    public int cleanlinessAt(long now) {
+        return StatDecay.decayed(base(StatType.CLEANLINESS), StatDecay.CLEANLINESS_RATE, StatDecay.CLEANLINESS_CAP,
+            cleanlinessCarry, decayOrigin, settledAt, now);
+    }
+
+    public int happinessAt(long now) {
+        return StatDecay.decayed(base(StatType.HAPPINESS), StatDecay.HAPPINESS_RATE, StatDecay.HAPPINESS_CAP,
+            happinessCarry, decayOrigin, settledAt, now);
+    }
+
+    public int energyAt(long now) {
+        int energy = base(StatType.ENERGY);
+        return sleeping() ? StatDecay.regenerated(energy, energyCarry, decayOrigin, settledAt, now) : energy;
+    }
+
+    public int healthAt(long now) {
+        return base(StatType.HEALTH);
+    }
+
+    /**
+     * 饥饿值降到 threshold 及以下的时刻（不会降到时为 Long.MAX_VALUE）
+     */
+    public long hungerDropsToAt(int threshold) {
+        return StatDecay.decaysToAt(base(StatType.HUNGER), threshold, StatDecay.HUNGER_RATE, StatDecay.HUNGER_CAP,
+            hungerCarry, decayOrigin, settledAt);
+    }
+
+    /**
+     * 清洁度降到 threshold 及以下的时刻（不会降到时为 Long.MAX_VALUE）
+     */
+    public long cleanlinessDropsToAt(int threshold) {
+        return StatDecay.decaysToAt(base(StatType.CLEANLINESS), threshold, StatDecay.CLEANLINESS_RATE, StatDecay.CLEANLINESS_CAP,
+            cleanlinessCarry, decayOrigin, settledAt);
+    }
+
+    /**
+     * 快乐度降到 threshold 及以下的时刻（不会降到时为 Long.MAX_VALUE）
+     */
+    public long happinessDropsToAt(int threshold) {
+        return StatDecay.decaysToAt(base(StatType.HAPPINESS), threshold, StatDecay.HAPPINESS_RATE, StatDecay.HAPPINESS_CAP,
+            happinessCarry, decayOrigin, settledAt);
+    }
+
+    /**
+     * 能量恢复到 threshold 及以上的时刻：醒着时能量不变，已经达到时返回结算时刻，否则为 Long.MAX_VALUE
+     */
+    public long energyRisesToAt(int threshold) {
+        int energy = base(StatType.ENERGY);
+        if (!sleeping() || energy >= threshold) {
+            return energy >= threshold ? settledAt : Long.MAX_VALUE;
+        }
+        return StatDecay.regeneratesToAt(energy, threshold, energyCarry, decayOrigin, settledAt);
+    }
+
+    /**
+     * 投影出的数值下一次变化的时刻，在此之前任意时刻读取的结果都相同；不会再变化时为 Long.MAX_VALUE
+     */
+    public long nextChangeAt(long now) {
+        long next = Long.MAX_VALUE;
+        int hunger = hungerAt(now);
+        if (hunger > 0) {
+            next = Math.min(next, hungerDropsToAt(hunger - 1));
+        }
+        int cleanliness = cleanlinessAt(now);
+        if (cleanliness > 0) {
+            next = Math.min(next, cleanlinessDropsToAt(cleanliness - 1));
+        }
+        int happiness = happinessAt(now);
+        if (happiness > 0) {
+            next = Math.min(next, happinessDropsToAt(happiness - 1));
+        }
+        int energy = energyAt(now);
+        if (sleeping() && energy < StatDecay.WAKE_ENERGY) {
+            next = Math.min(next, energyRisesToAt(energy + 1));
+        }
+        return next;
+    }
+
+    /**
+     * 健康值不随时间变化，已经低于 threshold 时返回结算时刻
+     */
+    public long healthDropsToAt(int threshold) {
+        return base(StatType.HEALTH) <= threshold ? settledAt : Long.MAX_VALUE;
+    }
+
+    /**
+     * 能量恢复到 WAKE_ENERGY 后自动醒来
+     */
+    public boolean isSleepingAt(long now) {
+        return sleeping() && energyAt(now) < StatDecay.WAKE_ENERGY;
+    }
+
+    /**
+     * 距离本次离开的起点是否已满一小时（此时心情随数值变化）
+     */
+    public boolean moodDriftsAt(long now) {
+        return StatDecay.moodDriftsAt(decayOrigin, now);
+    }
+
+    /**
+     * 按数值计算的心情
+     */
+    public Mood moodAt(long now) {
+        return StatDecay.moodFor(hungerAt(now), cleanlinessAt(now), happinessAt(now), energyAt(now), healthAt(now));
+    }
+
+    /**
+     * 把基线推进到 now：之后的投影结果不变，重复调用是幂等的
+     */
+    public void settle(long now) {
+        if (now <= settledAt) {
+            return;
+        }
+        int newHunger = hungerAt(now);
+        int newCleanliness = cleanlinessAt(now);
+        int newHappiness = happinessAt(now);
+        int newEnergy = energyAt(now);
+        setSleepingBit(sleeping() && newEnergy < StatDecay.WAKE_ENERGY);
+        setBase(StatType.HUNGER, newHunger);
+        setBase(StatType.CLEANLINESS, newCleanliness);
+        setBase(StatType.HAPPINESS, newHappiness);
+        setBase(StatType.ENERGY, newEnergy);
+        settledAt = now;
+    }
+
+    /**
+     * 互动后开始新的一段离开：先结算，再把不足 1 点的余量结转到新起点
+     */
+    public void restartDecay(long now) {
+        settle(now);
+        if (now <= decayOrigin) {
+            return;
+        }
+        hungerCarry = StatDecay.carryOver(StatDecay.HUNGER_RATE, StatDecay.HUNGER_CAP, hungerCarry, decayOrigin, now);
+        cleanlinessCarry = StatDecay.carryOver(StatDecay.CLEANLINESS_RATE, StatDecay.CLEANLINESS_CAP,
+            cleanlinessCarry, decayOrigin, now);
+        happinessCarry = StatDecay.carryOver(StatDecay.HAPPINESS_RATE, StatDecay.HAPPINESS_CAP,
+            happinessCarry, decayOrigin, now);
+        energyCarry = sleeping()
+            ? StatDecay.carryOver(StatDecay.ENERGY_REGEN_RATE, StatDecay.ENERGY_REGEN_CAP, energyCarry, decayOrigin, now)
+            : 0;
+        decayOrigin = now;
+    }
+
+    /**
+     * 从持久化数据恢复衰减锚点
+     */
+    public void restoreDecay(long decayOrigin, long settledAt, int[] carry, boolean sleeping) {
+        this.decayOrigin = decayOrigin;
+        this.settledAt = settledAt;
+        setSleepingBit(sleeping);
+        if (carry != null && carry.length == 4) {
+            this.hungerCarry = carry[0];
+            this.cleanlinessCarry = carry[1];
+            this.happinessCarry = carry[2];
+            this.energyCarry = carry[3];
+        }
+    }
+
+    public void setSleeping(boolean sleeping, long now) {
+        settle(now);
+        setSleepingBit(sleeping);
+    }
+
+    /**
+     * 时刻 now 某项数值的值
+     */
+    public int valueAt(StatType type, long now) {
+        return switch (type) {
+            case HUNGER -> hungerAt(now);
+            case CLEANLINESS -> cleanlinessAt(now);
+            case HAPPINESS -> happinessAt(now);
+            case ENERGY -> energyAt(now);
+            case HEALTH -> healthAt(now);
+        };
+    }
+
+    /**
+     * 按效果向量（下标为 StatType 序号）一次性调整全部数值：
+     * 只结算一次、只取一次时间、每项只截断一次，不分配对象
+     */
+    public void applyDeltas(int[] deltas) {
+        applyDeltas(deltas, System.currentTimeMillis());
+    }
+
+    /**
+     * 在时刻 now 调整全部数值，now 早于结算点时按结算点处理
+     */
+    public void applyDeltas(int[] deltas, long now) {
+        settle(now);
+        long values = packed;
+        for (int i = 0; i < StatType.COUNT; i++) {
+            int shift = i << 3;
+            int value = clamp((int) ((values >>> shift) & 0xFF) + deltas[i]);
+            values = (values & ~(0xFFL << shift)) | ((long) value << shift);
+        }
+        packed = values;
+        // 能量被直接加到醒来阈值时立即醒来，同一时刻的后续调整不会再让它接着睡
+        if (base(StatType.ENERGY) >= StatDecay.WAKE_ENERGY) {
+            setSleepingBit(false);
+        }
+        lastUpdate = now;
+    }
+
+    /**
+     * 设置某项数值，确保在0-100范围内
+     */
+    public void setStat(StatType type, int value) {
+        long now = System.currentTimeMillis();
+        settle(now);
+        setBase(type, clamp(value));
+        this.lastUpdate = now;
     }
 
     /**
      * 更新状态值，确保在0-100范围内
      */
     public void updateStat(String statName, int value) {
-        value = Math.max(0, Math.min(100, value));
-        switch (statName.toLowerCase()) {
-            case "hunger" -> this.hunger = value;
-            case "cleanliness" -> this.cleanliness = value;
-            case "happiness" -> this.happiness = value;
-            case "energy" -> this.energy = value;
-            case "health" -> this.health = value;
+        StatType type = StatType.fromKey(statName);
+        if (type != null) {
+            setStat(type, value);
         }
-        this.lastUpdate = LocalDateTime.now();
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(100, value));
     }
 
     /**
@@ -63,8 +333,8 @@ public class PetStats {
     public boolean addExperience(int exp) {
         this.experience += exp;
         int newLevel = Math.min(50, (this.experience / 100) + 1); // 最高50级
-        boolean leveledUp = newLevel > this.level;
-        this.level = newLevel;
+        boolean leveledUp = newLevel > getLevel();
+        setLevel(newLevel);
         return leveledUp;
     }
 
@@ -72,43 +342,76 @@ public class PetStats {
      * 获取总体情绪状态
      */
     public String getMoodStatus() {
-        int average = (hunger + cleanliness + happiness + energy + health) / 5;
-        if (average >= 80) return "非常开心";
-        if (average >= 60) return "开心";
-        if (average >= 40) return "一般";
-        if (average >= 20) return "不开心";
-        return "很难过";
+        return MOOD_STATUSES.get(moodStatusAt(System.currentTimeMillis()));
+    }
+
+    /**
+     * 时刻 now 的总体情绪状态在 {@link #MOOD_STATUSES} 中的下标
+     */
+    public int moodStatusAt(long now) {
+        int average = (hungerAt(now) + cleanlinessAt(now) + happinessAt(now) + energyAt(now) + healthAt(now)) / 5;
+        if (average >= 80) return 0;
+        if (average >= 60) return 1;
+        if (average >= 40) return 2;
+        if (average >= 20) return 3;
+        return 4;
     }
 
     /**
      * 检查是否需要紧急照顾
      */
     public boolean needsUrgentCare() {
-        return hunger <= 20 || cleanliness <= 20 || health <= 30;
+        return needsUrgentCareAt(System.currentTimeMillis());
+    }
+
+    public boolean needsUrgentCareAt(long now) {
+        return hungerAt(now) <= URGENT_HUNGER || cleanlinessAt(now) <= URGENT_CLEANLINESS
+            || healthAt(now) <= URGENT_HEALTH;
     }
 
     // Getters and Setters
-    public int getHunger() { return hunger; }
-    public void setHunger(int hunger) { this.hunger = Math.max(0, Math.min(100, hunger)); }
+    public int getHunger() { return hungerAt(System.currentTimeMillis()); }
+    public void setHunger(int hunger) { setStat(StatType.HUNGER, hunger); }
 
-    public int getCleanliness() { return cleanliness; }
-    public void setCleanliness(int cleanliness) { this.cleanliness = Math.max(0, Math.min(100, cleanliness)); }
+    public int getCleanliness() { return cleanlinessAt(System.currentTimeMillis()); }
+    public void setCleanliness(int cleanliness) { setStat(StatType.CLEANLINESS, cleanliness); }
 
-    public int getHappiness() { return happiness; }
-    public void setHappiness(int happiness) { this.happiness = Math.max(0, Math.min(100, happiness)); }
+    public int getHappiness() { return happinessAt(System.currentTimeMillis()); }
+    public void setHappiness(int happiness) { setStat(StatType.HAPPINESS, happiness); }
 
-    public int getEnergy() { return energy; }
-    public void setEnergy(int energy) { this.energy = Math.max(0, Math.min(100, energy)); }
+    public int getEnergy() { return energyAt(System.currentTimeMillis()); }
+    public void setEnergy(int energy) { setStat(StatType.ENERGY, energy); }
 
-    public int getHealth() { return health; }
-    public void setHealth(int health) { this.health = Math.max(0, Math.min(100, health)); }
+    public int getHealth() { return healthAt(System.currentTimeMillis()); }
+    public void setHealth(int health) { setStat(StatType.HEALTH, health); }
 
     public int getExperience() { return experience; }
     public void setExperience(int experience) { this.experience = experience; }
 
-    public int getLevel() { return level; }
-    public void setLevel(int level) { this.level = level; }
+    public int getLevel() { return (int) ((packed >>> LEVEL_SHIFT) & 0xFF); }
+    public void setLevel(int level) {
+        packed = (packed & ~(0xFFL << LEVEL_SHIFT)) | ((long) Math.max(0, Math.min(255, level)) << LEVEL_SHIFT);
+    }
 
-    public LocalDateTime getLastUpdate() { return lastUpdate; }
-    public void setLastUpdate(LocalDateTime lastUpdate) { this.lastUpdate = lastUpdate; }
+    public LocalDateTime getLastUpdate() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(lastUpdate), ZoneId.systemDefault());
+    }
+    public void setLastUpdate(LocalDateTime lastUpdate) {
+        this.lastUpdate = lastUpdate != null ? lastUpdate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    @JsonIgnore
+    public long getLastUpdateMillis() { return lastUpdate; }
+    public void setLastUpdateMillis(long lastUpdate) { this.lastUpdate = lastUpdate; }
+
+    @JsonIgnore
+    public long getDecayOrigin() { return decayOrigin; }
+
+    @JsonIgnore
+    public long getSettledAt() { return settledAt; }
+
+    @JsonIgnore
+    public int[] getDecayCarry() {
+        return new int[]{hungerCarry, cleanlinessCarry, happinessCarry, energyCarry};
+    }
 }
@@ -0,0 +1,134 @@
+package com.example.aiinterviewassistant.model;
+
+/**
+ * 宠物状态随时间变化的规则
+ * 以闭式计算代替"每次读取时按小时扣减"：给定基线数值、本次离开的起点和基线结算时刻，
+ * 直接算出任意时刻的当前数值。计算只依赖参数，重复计算结果相同（幂等），读取时不修改任何状态。
+ *
+ * 衰减量以"速率·毫秒"为单位累积，不足 1 点的部分记为余量（carry），开始新的离开时带入下一段，
+ * 因此频繁互动不会把小数部分一次次丢掉。每段离开的总衰减量有上限，与原先的按小时规则一致。
+ */
+public final class StatDecay {
+
+    public static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    // 每小时的变化速率与每段离开的上限
+    public static final int HUNGER_RATE = 3;
+    public static final int HUNGER_CAP = 30;
+    public static final int CLEANLINESS_RATE = 2;
+    public static final int CLEANLINESS_CAP = 20;
+    public static final int HAPPINESS_RATE = 1;
+    public static final int HAPPINESS_CAP = 15;
+    public static final int ENERGY_REGEN_RATE = 10; // 睡觉时恢复
+    public static final int ENERGY_REGEN_CAP = 50;
+
+    // 睡觉时能量恢复到这个值就醒来
+    public static final int WAKE_ENERGY = 80;
+
+    private StatDecay() {}
+
+    /**
+     * 从离开起点到时刻 t 累计的变化点数（向下取整，不超过上限）
+     */
+    public static int applied(int ratePerHour, int cap, int carry, long origin, long t) {
+        if (t <= origin) {
+            return 0;
+        }
+        long points = (carry + (t - origin) * ratePerHour) / MILLIS_PER_HOUR;
+        return (int) Math.min(points, cap);
+    }
+
+    /**
+     * 递减型数值在时刻 now 的值
+     *
+     * @param base      settledAt 时刻结算出的基线值
+     * @param origin    本次离开的起点（最后一次互动）
+     * @param settledAt 基线值对应的时刻，now 早于它时按 settledAt 计算
+     */
+    public static int decayed(int base, int ratePerHour, int cap, int carry, long origin, long settledAt, long now) {
+        if (now <= settledAt) {
+            return base;
+        }
+        int delta = applied(ratePerHour, cap, carry, origin, now) - applied(ratePerHour, cap, carry, origin, settledAt);
+        return Math.max(0, base - delta);
+    }
+
+    /**
+     * 睡觉时能量在时刻 now 的值：恢复到 WAKE_ENERGY 即醒来并停止恢复
+     */
+    public static int regenerated(int base, int carry, long origin, long settledAt, long now) {
+        if (now <= settledAt || base >= WAKE_ENERGY) {
+            return base;
+        }
+        int delta = applied(ENERGY_REGEN_RATE, ENERGY_REGEN_CAP, carry, origin, now)
+            - applied(ENERGY_REGEN_RATE, ENERGY_REGEN_CAP, carry, origin, settledAt);
+        return Math.min(WAKE_ENERGY, base + delta);
+    }
+
+    /**
+     * 递减型数值首次降到 threshold 及以下的时刻；本段离开内不会降到时返回 Long.MAX_VALUE
+     */
+    public static long decaysToAt(int base, int threshold, int ratePerHour, int cap, int carry, long origin, long settledAt) {
+        if (base <= threshold) {
+            return settledAt;
+        }
+        long target = applied(ratePerHour, cap, carry, origin, settledAt) + (long) (base - threshold);
+        if (target > cap) {
+            return Long.MAX_VALUE;
+        }
+        // 最小的 t 满足 carry + (t - origin) * rate >= target * 1h
+        long needed = target * MILLIS_PER_HOUR - carry;
+        return origin + (needed + ratePerHour - 1) / ratePerHour;
+    }
+
+    /**
+     * 睡觉时能量首次恢复到 threshold 及以上的时刻（threshold 不超过 WAKE_ENERGY）；本段离开内恢复不到时返回 Long.MAX_VALUE
+     */
+    public static long regeneratesToAt(int base, int threshold, int carry, long origin, long settledAt) {
+        if (base >= threshold) {
+            return settledAt;
+        }
+        long target = applied(ENERGY_REGEN_RATE, ENERGY_REGEN_CAP, carry, origin, settledAt) + (long) (threshold - base);
+        if (target > ENERGY_REGEN_CAP) {
+            return Long.MAX_VALUE;
+        }
+        long needed = target * MILLIS_PER_HOUR - carry;
+        return origin + (needed + ENERGY_REGEN_RATE - 1) / ENERGY_REGEN_RATE;
+    }
+
+    /**
+     * 开始新一段离开时，上一段中不足 1 点的余量；达到上限的数值不再结转
+     */
+    public static int carryOver(int ratePerHour, int cap, int carry, long origin, long now) {
+        if (now <= origin) {
+            return carry;
+        }
+        long total = carry + (now - origin) * ratePerHour;
+        if (total / MILLIS_PER_HOUR >= cap) {
+            return 0;
+        }
+        return (int) (total % MILLIS_PER_HOUR);
+    }
+
+    /**
+     * 离开至少一小时后，心情由五项数值的平均值决定
+     */
+    public static boolean moodDriftsAt(long origin, long now) {
+        return now - origin >= MILLIS_PER_HOUR;
+    }
+
+    /**
+     * 根据五项数值的平均值计算心情
+     */
+    public static Mood moodFor(int hunger, int cleanliness, int happiness, int energy, int health) {
+        return Mood.ofLevel(moodLevel(hunger, cleanliness, happiness, energy, health));
+    }
+
+    /**
+     * 心情等级，对应 Mood 的序号
+     */
+    public static int moodLevel(int hunger, int cleanliness, int happiness, int energy, int health) {
+        int avgStats = (hunger + cleanliness + happiness + energy + health) / 5;
+        return Math.max(0, Math.min(avgStats / 20 - 1, Mood.LEVELS - 1));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.aiinterviewassistant.model;
+
+/**
+ * 宠物数值类型
+ * 序号即为数值在效果向量中的下标
+ */
+public enum StatType {
+    HUNGER("hunger"),
+    CLEANLINESS("cleanliness"),
+    HAPPINESS("happiness"),
+    ENERGY("energy"),
+    HEALTH("health");
+
+    public static final int COUNT = values().length;
+
+    private static final StatType[] VALUES = values();
+
+    private final String key;
+
+    StatType(String key) {
+        this.key = key;
+    }
+
+    /**
+     * 按名称查找（不区分大小写），未知名称返回 null
+     */
+    public static StatType fromKey(String name) {
+        for (StatType type : VALUES) {
+            if (type.key.equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public static StatType of(int index) {
+        return VALUES[index];
+    }
+
+    public String getKey() { return key; }
+}
@@ -0,0 +1,51 @@
+package com.example.aiinterviewassistant.persistence;
+
+/**
+ * 预写日志记录
+ * 每次状态变更追加一条，携带变更后玩家的完整状态（后像）。
+ * 回放时直接覆盖该玩家的状态，因此重复回放是幂等的。
+ */
+public class JournalRecord {
+
+    /**
+     * 变更类型
+     */
+    public enum Operation {
+        CREATE_PET,
+        EXECUTE_ACTION,
+        USE_ITEM,
+        BUY_ITEM,
+        EXECUTE_BATCH,
+        SYNC_ACTIONS,
+        FINISH_GAME,
+        AWARD_ACHIEVEMENTS,
+        ANNOUNCE_ACHIEVEMENTS,
+        DELETE_PET
+    }
+
+    private long seq;
+    private String playerId;
+    private Operation operation;
+    private PlayerSnapshot state; // DELETE_PET 时为空
+
+    public JournalRecord() {}
+
+    public JournalRecord(long seq, String playerId, Operation operation, PlayerSnapshot state) {
+        this.seq = seq;
+        this.playerId = playerId;
+        this.operation = operation;
+        this.state = state;
+    }
+
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+
+    public String getPlayerId() { return playerId; }
+    public void setPlayerId(String playerId) { this.playerId = playerId; }
+
+    public Operation getOperation() { return operation; }
+    public void setOperation(Operation operation) { this.operation = operation; }
+
+    public PlayerSnapshot getState() { return state; }
+    public void setState(PlayerSnapshot state) { this.state = state; }
+}
@@ -0,0 +1,478 @@
+package com.example.aiinterviewassistant.persistence;
+
+import com.example.aiinterviewassistant.service.MpscRingBuffer;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * 宠物状态持久化日志
+ * 所有状态变更先追加到预写日志（WAL），再由后台线程批量写盘：
+ * 一批记录只做一次 write 和一次 fsync（组提交），请求线程只负责入队，不等待磁盘。
+ * 入队不加锁：序号取自原子计数器，记录放进多生产者单消费者环形缓冲区，不同分片的命令互不阻塞。
+ * 定期把全量状态写成快照，并丢弃快照之前的日志段，重启时只需回放快照之后的日志尾部。
+ * 写线程因磁盘错误停止后，之后的变更在 append 时直接失败，不会在内存中生效却没有落盘；健康检查报告该状态。
+ *
+ * 日志帧格式：[int 长度][int CRC32][JSON 记录]，遇到不完整或校验失败的帧即视为日志尾部被截断。
+ */
+@Component
+public class PetJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(PetJournal.class);
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".json";
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final long STALL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CAPTURE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long fsyncIntervalNanos;
+    private final int batchSize;
+    private final long snapshotIntervalNanos;
+    private final long snapshotEveryRecords;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final MpscRingBuffer<JournalRecord> queue;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean writerSleeping;
+    private volatile Throwable failure; // 写线程因错误停止的原因
+    private Thread writer;
+    private ExecutorService snapshotter;
+    private Supplier<Collection<PlayerSnapshot>> stateSupplier;
+
+    // 以下字段只在写线程中访问
+    private FileChannel segment;
+    private long lastWrittenSeq;
+    private long lastSnapshotSeq;
+    private long lastSnapshotNanos;
+
+    public PetJournal(@Value("${app.persistence.enabled:true}") boolean enabled,
+                      @Value("${app.persistence.dir:./data}") String dir,
+                      @Value("${app.persistence.fsyncIntervalMs:20}") long fsyncIntervalMs,
+                      @Value("${app.persistence.batchSize:1024}") int batchSize,
+                      @Value("${app.persistence.queueCapacity:65536}") int queueCapacity,
+                      @Value("${app.persistence.snapshotIntervalSeconds:300}") long snapshotIntervalSeconds,
+                      @Value("${app.persistence.snapshotEveryRecords:100000}") long snapshotEveryRecords) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.batchSize = batchSize;
+        this.snapshotIntervalNanos = TimeUnit.SECONDS.toNanos(snapshotIntervalSeconds);
+        this.snapshotEveryRecords = snapshotEveryRecords;
+        this.queue = new MpscRingBuffer<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 写线程因错误停止的原因，正常运行时为 null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * 已分配的最大记录序号
+     */
+    public long getLastSeq() {
+        return sequence.get();
+    }
+
+    /**
+     * 从最新快照和其后的日志恢复所有玩家状态
+     */
+    public Map<String, PlayerSnapshot> recover() {
+        Map<String, PlayerSnapshot> players = new LinkedHashMap<>();
+        if (!enabled) {
+            return players;
+        }
+
+        try {
+            Files.createDirectories(dir);
+            SnapshotFile snapshot = loadLatestSnapshot();
+            if (snapshot != null) {
+                for (PlayerSnapshot player : snapshot.getPlayers()) {
+                    players.put(player.getPlayerId(), player);
+                }
+                lastSnapshotSeq = snapshot.getLastSeq();
+            }
+
+            long maxSeq = lastSnapshotSeq;
+            int replayed = 0;
+            for (Path file : listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                for (JournalRecord record : readSegment(file)) {
+                    if (record.getSeq() <= lastSnapshotSeq) {
+                        continue;
+                    }
+                    if (record.getOperation() == JournalRecord.Operation.DELETE_PET || record.getState() == null) {
+                        players.remove(record.getPlayerId());
+                    } else {
+                        players.put(record.getPlayerId(), record.getState());
+                    }
+                    maxSeq = Math.max(maxSeq, record.getSeq());
+                    replayed++;
+                }
+            }
+
+            sequence.set(maxSeq);
+            lastWrittenSeq = maxSeq;
+            log.info("宠物数据恢复完成：快照序号 {}，回放日志 {} 条，玩家 {} 名", lastSnapshotSeq, replayed, players.size());
+        } catch (IOException e) {
+            throw new IllegalStateException("无法恢复宠物数据：" + dir.toAbsolutePath(), e);
+        }
+        return players;
+    }
+
+    /**
+     * 启动后台写线程
+     *
+     * @param stateSupplier 生成全量快照时用于采集所有玩家状态，在单独的采集线程中调用，可以等待各玩家的串行上下文
+     */
+    public void start(Supplier<Collection<PlayerSnapshot>> stateSupplier) {
+        if (!enabled || running) {
+            return;
+        }
+        this.stateSupplier = stateSupplier;
+        try {
+            openSegment(lastWrittenSeq + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("无法打开宠物数据日志：" + dir.toAbsolutePath(), e);
+        }
+        lastSnapshotNanos = System.nanoTime();
+        snapshotter = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "pet-journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        writer = new Thread(this::writeLoop, "pet-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 追加一条变更记录
+     * 状态在调用方（玩家的串行上下文）中采集，同一玩家的命令依次执行，序号更大的记录一定携带更新的状态，
+     * 也一定更晚入队；不同玩家的记录在队列中可能与序号顺序不同，回放时互不影响。
+     * 队列满时调用方自旋后短暂休眠等待（背压）；写线程已经停止时不再等待，直接让这次变更失败。
+     * 持久化关闭时什么都不做。
+     *
+     * @throws IllegalStateException 写线程没有运行（写盘出错或已经关闭）
+     */
+    public void append(String playerId, JournalRecord.Operation operation, Supplier<PlayerSnapshot> state) {
+        if (!enabled) {
+            return;
+        }
+        if (!running) {
+            throw stopped();
+        }
+        PlayerSnapshot after = operation == JournalRecord.Operation.DELETE_PET ? null : state.get();
+        JournalRecord record = new JournalRecord(sequence.incrementAndGet(), playerId, operation, after);
+        int spins = 0;
+        while (!queue.offer(record)) {
+            if (!running) {
+                throw stopped();
+            }
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(STALL_PARK_NANOS);
+            }
+        }
+        if (writerSleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ================= 写线程 =================
+
+    private void writeLoop() {
+        List<JournalRecord> batch = new ArrayList<>(batchSize);
+        boolean dirty = false;
+        long lastSync = System.nanoTime();
+        long sinceSnapshot = 0;
+
+        try {
+            while (running || !queue.isEmpty()) {
+                queue.drain(batch::add, batchSize);
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                    sinceSnapshot += batch.size();
+                    batch.clear();
+                    dirty = true;
+                } else {
+                    // 没有记录时休眠到下一次 fsync：先声明要睡，再复查一次，防止错过生产者的唤醒
+                    writerSleeping = true;
+                    if (queue.isEmpty() && running) {
+                        LockSupport.parkNanos(Math.max(1, fsyncIntervalNanos));
+                    }
+                    writerSleeping = false;
+                }
+
+                long now = System.nanoTime();
+                if (dirty && now - lastSync >= fsyncIntervalNanos) {
+                    segment.force(false);
+                    dirty = false;
+                    lastSync = now;
+                }
+
+                if (sinceSnapshot >= snapshotEveryRecords
+                        || (sinceSnapshot > 0 && now - lastSnapshotNanos >= snapshotIntervalNanos)) {
+                    writeSnapshot();
+                    sinceSnapshot = 0;
+                    dirty = false;
+                }
+            }
+
+            if (lastWrittenSeq > lastSnapshotSeq) {
+                writeSnapshot();
+            } else {
+                segment.force(false);
+            }
+            segment.close();
+        } catch (IOException | RuntimeException e) {
+            // 先记下原因再停止，append 看到 running 为 false 时一定能拿到原因
+            failure = e;
+            running = false;
+            log.error("宠物数据日志写入失败，后续变更将被拒绝（队列中 {} 条记录未写出）", queue.size(), e);
+        } finally {
+            snapshotter.shutdownNow();
+        }
+    }
+
+    private IllegalStateException stopped() {
+        return new IllegalStateException("宠物数据日志写线程已停止，无法记录变更", failure);
+    }
+
+    private void writeBatch(List<JournalRecord> batch) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(batch.size());
+        int total = 0;
+        for (JournalRecord record : batch) {
+            byte[] payload = mapper.writeValueAsBytes(record);
+            payloads.add(payload);
+            total += FRAME_HEADER_BYTES + payload.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        CRC32 crc = new CRC32();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(payload.length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(payload);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        for (JournalRecord record : batch) {
+            lastWrittenSeq = Math.max(lastWrittenSeq, record.getSeq());
+        }
+    }
+
+    /**
+     * 写全量快照：先切换到新日志段，再采集状态写快照，最后删除旧日志段和旧快照。
+     * 采集期间仍在进行的变更序号必然大于 lastWrittenSeq，会留在新日志段里被回放；
+     * 序号不大于 lastWrittenSeq 但还没写出的记录，变更在取序号之前已经完成，采集到的状态已经包含它。
+     * 状态由采集线程在各玩家的串行上下文中读取，等待期间写线程继续把新记录写进新日志段：
+     * 命令线程可能正因队列已满在 append 中等待，写线程停下来等采集会与它互相等待。
+     */
+    private void writeSnapshot() throws IOException {
+        long snapshotSeq = lastWrittenSeq;
+        segment.force(false);
+        segment.close();
+        openSegment(snapshotSeq + 1);
+
+        SnapshotFile snapshot = new SnapshotFile();
+        snapshot.setLastSeq(snapshotSeq);
+        snapshot.setCreatedAt(System.currentTimeMillis());
+        Collection<PlayerSnapshot> players = capture();
+        segment.force(false);
+        if (players == null) {
+            // 采集失败时保留已有日志段，下一个周期再试
+            lastSnapshotNanos = System.nanoTime();
+            return;
+        }
+        snapshot.setPlayers(new ArrayList<>(players));
+
+        Path target = dir.resolve(SNAPSHOT_PREFIX + snapshotSeq + SNAPSHOT_SUFFIX);
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(mapper.writeValueAsBytes(snapshot));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        lastSnapshotSeq = snapshotSeq;
+        lastSnapshotNanos = System.nanoTime();
+
+        for (Path file : listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (seqOf(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < snapshotSeq) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (seqOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX) <= snapshotSeq) {
+                Files.deleteIfExists(file);
+            }
+        }
+        log.info("宠物数据快照已写入：序号 {}，玩家 {} 名", snapshotSeq, snapshot.getPlayers().size());
+    }
+
+    /**
+     * 在采集线程中采集全部玩家状态，等待期间写出新到的记录；失败或超时返回 null
+     */
+    private Collection<PlayerSnapshot> capture() throws IOException {
+        Future<Collection<PlayerSnapshot>> capture = snapshotter.submit(stateSupplier::get);
+        List<JournalRecord> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + CAPTURE_TIMEOUT_NANOS;
+        while (!capture.isDone()) {
+            queue.drain(batch::add, batchSize);
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            } else if (System.nanoTime() - deadline > 0) {
+                capture.cancel(true);
+                log.warn("采集宠物数据快照超时，稍后重试");
+                return null;
+            } else {
+                LockSupport.parkNanos(STALL_PARK_NANOS);
+            }
+        }
+        try {
+            return capture.get();
+        } catch (ExecutionException e) {
+            log.warn("采集宠物数据快照失败，稍后重试", e.getCause());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void openSegment(long startSeq) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(SEGMENT_PREFIX + startSeq + SEGMENT_SUFFIX);
+        // 同序号的旧段只可能是没有任何有效记录的残留文件，直接截断
+        segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // ================= 恢复 =================
+
+    private SnapshotFile loadLatestSnapshot() throws IOException {
+        List<Path> snapshots = listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        Collections.reverse(snapshots);
+        for (Path file : snapshots) {
+            try {
+                return mapper.readValue(file.toFile(), SnapshotFile.class);
+            } catch (IOException e) {
+                log.warn("快照文件损坏，尝试更早的快照：{}", file, e);
+            }
+        }
+        return null;
+    }
+
+    private List<JournalRecord> readSegment(Path file) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= FRAME_HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                log.warn("日志段 {} 尾部不完整，忽略剩余 {} 字节", file, buffer.remaining());
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("日志段 {} 校验失败，忽略该帧及其后的内容", file);
+                break;
+            }
+            records.add(mapper.readValue(payload, JournalRecord.class));
+        }
+        return records;
+    }
+
+    private List<Path> listFiles(String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + suffix)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(Comparator.comparingLong(file -> seqOf(file, prefix, suffix)));
+        return files;
+    }
+
+    private static long seqOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    /**
+     * 快照文件内容
+     */
+    public static class SnapshotFile {
+        private long lastSeq;
+        private long createdAt;
+        private List<PlayerSnapshot> players = new ArrayList<>();
+
+        public long getLastSeq() { return lastSeq; }
+        public void setLastSeq(long lastSeq) { this.lastSeq = lastSeq; }
+        public long getCreatedAt() { return createdAt; }
+        public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+        public List<PlayerSnapshot> getPlayers() { return players; }
+        public void setPlayers(List<PlayerSnapshot> players) { this.players = players; }
+    }
+}
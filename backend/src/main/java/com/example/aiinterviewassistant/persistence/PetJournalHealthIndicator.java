@@ -0,0 +1,31 @@
+package com.example.aiinterviewassistant.persistence;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 预写日志的健康检查
+ * 写线程因磁盘错误停止后报告 DOWN：此时所有变更都会被拒绝，需要人工处理后重启
+ */
+@Component
+public class PetJournalHealthIndicator implements HealthIndicator {
+
+    private final PetJournal journal;
+
+    public PetJournalHealthIndicator(PetJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Health health() {
+        if (!journal.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        Throwable failure = journal.getFailure();
+        if (failure != null) {
+            return Health.down(failure).withDetail("lastSeq", journal.getLastSeq()).build();
+        }
+        return Health.up().withDetail("lastSeq", journal.getLastSeq()).build();
+    }
+}
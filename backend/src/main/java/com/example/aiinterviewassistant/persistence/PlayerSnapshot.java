@@ -0,0 +1,182 @@
+package com.example.aiinterviewassistant.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 玩家状态快照
+ * 一个玩家在某一时刻的完整状态（宠物、金币、背包、成就、统计），
+ * 既作为预写日志中每条记录的"后像"，也作为全量快照文件中的元素。
+ * 时间统一用 epoch 毫秒保存，避免依赖 Jackson 的时间模块，保证格式稳定。
+ */
+public class PlayerSnapshot {
+    private String playerId;
+
+    // 宠物
+    private String petId;
+    private String petName;
+    private String petType;
+    private String color;
+    private long birthDate;
+    private long lastInteraction;
+    private boolean asleep;
+    private String mood;
+
+    // 宠物状态
+    private int hunger;
+    private int cleanliness;
+    private int happiness;
+    private int energy;
+    private int health;
+    private int experience;
+    private int level;
+    private long statsUpdatedAt;
+
+    // 衰减锚点：数值对应的结算时刻、本次离开的起点、不足 1 点的余量
+    private long decaySettledAt;
+    private long decayOrigin;
+    private int[] decayCarry;
+
+    // 玩家资源
+    private int coins;
+    private Map<String, Integer> items = new LinkedHashMap<>(); // 物品ID -> 数量
+    private List<String> inventory = new ArrayList<>(); // 旧格式：每件物品一项，只在读取旧数据时使用
+    private List<AchievementProgress> achievements = new ArrayList<>();
+    // 尚未处理的成就事件（按类型名），恢复后重新交给成就处理器
+    private Map<String, Integer> pendingAchievementAdds = new HashMap<>();
+    private Map<String, Integer> pendingAchievementSets = new HashMap<>();
+    private long perfectCareSince;
+    private long perfectCareUntil;
+    private long lastSyncSeq; // 已应用的最大离线操作序号
+    private long version; // 状态版本号，恢复时据此取更大的代号
+    private Map<String, Integer> stats = new HashMap<>();
+
+    /**
+     * 单个成就的进度
+     */
+    public static class AchievementProgress {
+        private String id;
+        private int progress;
+        private boolean unlocked;
+        private long unlockedAt;
+        private boolean unannounced; // 已解锁但还没通知客户端
+
+        public AchievementProgress() {}
+
+        public AchievementProgress(String id, int progress, boolean unlocked, long unlockedAt, boolean unannounced) {
+            this.id = id;
+            this.progress = progress;
+            this.unlocked = unlocked;
+            this.unlockedAt = unlockedAt;
+            this.unannounced = unannounced;
+        }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public int getProgress() { return progress; }
+        public void setProgress(int progress) { this.progress = progress; }
+        public boolean isUnlocked() { return unlocked; }
+        public void setUnlocked(boolean unlocked) { this.unlocked = unlocked; }
+        public long getUnlockedAt() { return unlockedAt; }
+        public void setUnlockedAt(long unlockedAt) { this.unlockedAt = unlockedAt; }
+        public boolean isUnannounced() { return unannounced; }
+        public void setUnannounced(boolean unannounced) { this.unannounced = unannounced; }
+    }
+
+    // Getters and Setters
+    public String getPlayerId() { return playerId; }
+    public void setPlayerId(String playerId) { this.playerId = playerId; }
+
+    public String getPetId() { return petId; }
+    public void setPetId(String petId) { this.petId = petId; }
+
+    public String getPetName() { return petName; }
+    public void setPetName(String petName) { this.petName = petName; }
+
+    public String getPetType() { return petType; }
+    public void setPetType(String petType) { this.petType = petType; }
+
+    public String getColor() { return color; }
+    public void setColor(String color) { this.color = color; }
+
+    public long getBirthDate() { return birthDate; }
+    public void setBirthDate(long birthDate) { this.birthDate = birthDate; }
+
+    public long getLastInteraction() { return lastInteraction; }
+    public void setLastInteraction(long lastInteraction) { this.lastInteraction = lastInteraction; }
+
+    public boolean isAsleep() { return asleep; }
+    public void setAsleep(boolean asleep) { this.asleep = asleep; }
+
+    public String getMood() { return mood; }
+    public void setMood(String mood) { this.mood = mood; }
+
+    public int getHunger() { return hunger; }
+    public void setHunger(int hunger) { this.hunger = hunger; }
+
+    public int getCleanliness() { return cleanliness; }
+    public void setCleanliness(int cleanliness) { this.cleanliness = cleanliness; }
+
+    public int getHappiness() { return happiness; }
+    public void setHappiness(int happiness) { this.happiness = happiness; }
+
+    public int getEnergy() { return energy; }
+    public void setEnergy(int energy) { this.energy = energy; }
+
+    public int getHealth() { return health; }
+    public void setHealth(int health) { this.health = health; }
+
+    public int getExperience() { return experience; }
+    public void setExperience(int experience) { this.experience = experience; }
+
+    public int getLevel() { return level; }
+    public void setLevel(int level) { this.level = level; }
+
+    public long getStatsUpdatedAt() { return statsUpdatedAt; }
+    public void setStatsUpdatedAt(long statsUpdatedAt) { this.statsUpdatedAt = statsUpdatedAt; }
+
+    public long getDecaySettledAt() { return decaySettledAt; }
+    public void setDecaySettledAt(long decaySettledAt) { this.decaySettledAt = decaySettledAt; }
+
+    public long getDecayOrigin() { return decayOrigin; }
+    public void setDecayOrigin(long decayOrigin) { this.decayOrigin = decayOrigin; }
+
+    public int[] getDecayCarry() { return decayCarry; }
+    public void setDecayCarry(int[] decayCarry) { this.decayCarry = decayCarry; }
+
+    public int getCoins() { return coins; }
+    public void setCoins(int coins) { this.coins = coins; }
+
+    public Map<String, Integer> getItems() { return items; }
+    public void setItems(Map<String, Integer> items) { this.items = items; }
+
+    public List<String> getInventory() { return inventory; }
+    public void setInventory(List<String> inventory) { this.inventory = inventory; }
+
+    public List<AchievementProgress> getAchievements() { return achievements; }
+    public void setAchievements(List<AchievementProgress> achievements) { this.achievements = achievements; }
+
+    public Map<String, Integer> getPendingAchievementAdds() { return pendingAchievementAdds; }
+    public void setPendingAchievementAdds(Map<String, Integer> pendingAchievementAdds) { this.pendingAchievementAdds = pendingAchievementAdds; }
+
+    public Map<String, Integer> getPendingAchievementSets() { return pendingAchievementSets; }
+    public void setPendingAchievementSets(Map<String, Integer> pendingAchievementSets) { this.pendingAchievementSets = pendingAchievementSets; }
+
+    public long getPerfectCareSince() { return perfectCareSince; }
+    public void setPerfectCareSince(long perfectCareSince) { this.perfectCareSince = perfectCareSince; }
+
+    public long getPerfectCareUntil() { return perfectCareUntil; }
+    public void setPerfectCareUntil(long perfectCareUntil) { this.perfectCareUntil = perfectCareUntil; }
+
+    public long getLastSyncSeq() { return lastSyncSeq; }
+    public void setLastSyncSeq(long lastSyncSeq) { this.lastSyncSeq = lastSyncSeq; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public Map<String, Integer> getStats() { return stats; }
+    public void setStats(Map<String, Integer> stats) { this.stats = stats; }
+}
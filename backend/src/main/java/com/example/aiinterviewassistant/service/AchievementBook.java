@@ -0,0 +1,310 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Achievement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * 玩家成就进度簿
+ * 同一类型的成就收到的事件完全相同，所以每种类型只记一个计数器，
+ * 单个成就的进度就是 min(目标值, 计数器)。每种类型的成就按目标值升序排好（所有玩家共享），
+ * 玩家只保存一个游标指向下一个可能解锁的成就：更新时只比较这一个阈值，
+ * 全部解锁的类型记在位图里，之后的事件直接跳过。
+ * 动作只把事件记入待处理区（按类型合并），由成就处理器稍后统一 {@link #flush}，
+ * 解锁后的通知保留在未读位图里，随下一次状态响应发给客户端。
+ */
+public class AchievementBook {
+
+    private static final int TYPE_COUNT = Achievement.AchievementType.values().length;
+
+    // 所有玩家共享的成就目录
+    private static final Catalog DEFAULT_CATALOG = new Catalog(Achievement.catalog());
+
+    private final Catalog catalog;
+    private final int[] counters = new int[TYPE_COUNT];
+    private final int[] cursors = new int[TYPE_COUNT];
+    private long unlocked;      // 按成就下标
+    private int finishedTypes;  // 按类型序号，该类型的成就已全部解锁
+    private long[] unlockedAt;  // 解锁时间（epoch 毫秒），第一次解锁时才分配
+    private long unannounced;   // 已解锁但还没通知客户端的成就
+
+    // 待处理的事件，按类型合并：累加型求和，绝对值型取最大值（-1 表示没有）
+    private final int[] pendingAdds = new int[TYPE_COUNT];
+    private final int[] pendingSets = new int[TYPE_COUNT];
+    private int pendingTypes;
+
+    public AchievementBook() {
+        this(DEFAULT_CATALOG);
+    }
+
+    /**
+     * 使用指定的成就目录（测试用）
+     */
+    AchievementBook(List<Achievement> templates) {
+        this(new Catalog(templates));
+    }
+
+    private AchievementBook(Catalog catalog) {
+        this.catalog = catalog;
+        Arrays.fill(pendingSets, -1);
+        for (Achievement.AchievementType type : Achievement.AchievementType.values()) {
+            markIfFinished(type);
+        }
+    }
+
+    /**
+     * 累加型事件（喂食次数、购买次数等），每解锁一个成就回调一次它的下标
+     */
+    public void add(Achievement.AchievementType type, int value, IntConsumer onUnlock) {
+        if (isFinished(type)) {
+            return;
+        }
+        counters[type.ordinal()] += value;
+        advance(type, onUnlock);
+    }
+
+    /**
+     * 绝对值型事件（等级、快乐度），每解锁一个成就回调一次它的下标
+     */
+    public void set(Achievement.AchievementType type, int value, IntConsumer onUnlock) {
+        if (isFinished(type)) {
+            return;
+        }
+        counters[type.ordinal()] = value;
+        advance(type, onUnlock);
+    }
+
+    private void advance(Achievement.AchievementType type, IntConsumer onUnlock) {
+        int[] sorted = catalog.byType.get(type);
+        int t = type.ordinal();
+        int cursor = cursors[t];
+        while (cursor < sorted.length) {
+            int index = sorted[cursor];
+            if (!isUnlocked(index)) {
+                if (counters[t] < catalog.templates.get(index).getTargetValue()) {
+                    break;
+                }
+                markUnlocked(index, System.currentTimeMillis());
+                unannounced |= 1L << index;
+                onUnlock.accept(index);
+            }
+            cursor++;
+        }
+        cursors[t] = cursor;
+        markIfFinished(type);
+    }
+
+    // ================= 待处理事件 =================
+
+    /**
+     * 记下一个累加型事件，返回 true 表示待处理区原本为空（调用方需要把玩家交给成就处理器）
+     */
+    public boolean queueAdd(Achievement.AchievementType type, int value) {
+        if (isFinished(type)) {
+            return false;
+        }
+        boolean wasEmpty = pendingTypes == 0;
+        pendingAdds[type.ordinal()] += value;
+        pendingTypes |= 1 << type.ordinal();
+        return wasEmpty;
+    }
+
+    /**
+     * 记下一个绝对值型事件，同一批内只保留最大值，中途达到过的目标不会被后来的较小值覆盖
+     */
+    public boolean queueSet(Achievement.AchievementType type, int value) {
+        if (isFinished(type)) {
+            return false;
+        }
+        boolean wasEmpty = pendingTypes == 0;
+        pendingSets[type.ordinal()] = Math.max(pendingSets[type.ordinal()], value);
+        pendingTypes |= 1 << type.ordinal();
+        return wasEmpty;
+    }
+
+    public boolean hasPending() {
+        return pendingTypes != 0;
+    }
+
+    public int pendingAddOf(Achievement.AchievementType type) {
+        return pendingAdds[type.ordinal()];
+    }
+
+    public int pendingSetOf(Achievement.AchievementType type) {
+        return pendingSets[type.ordinal()];
+    }
+
+    /**
+     * 一次性处理所有待处理事件，每解锁一个成就回调一次它的下标
+     */
+    public void flush(IntConsumer onUnlock) {
+        for (Achievement.AchievementType type : Achievement.AchievementType.values()) {
+            int t = type.ordinal();
+            if ((pendingTypes & (1 << t)) == 0) {
+                continue;
+            }
+            if (pendingAdds[t] != 0) {
+                add(type, pendingAdds[t], onUnlock);
+            }
+            if (pendingSets[t] >= 0) {
+                set(type, pendingSets[t], onUnlock);
+            }
+            pendingAdds[t] = 0;
+            pendingSets[t] = -1;
+        }
+        pendingTypes = 0;
+    }
+
+    /**
+     * 从持久化的待处理事件恢复
+     */
+    public void restorePending(Achievement.AchievementType type, int add, int set) {
+        if (add != 0) {
+            queueAdd(type, add);
+        }
+        if (set >= 0) {
+            queueSet(type, set);
+        }
+    }
+
+    public boolean hasUnannounced() {
+        return unannounced != 0;
+    }
+
+    public boolean isUnannounced(int index) {
+        return (unannounced & (1L << index)) != 0;
+    }
+
+    /**
+     * 取出并清空尚未通知的解锁成就（位图）
+     */
+    public long takeUnannounced() {
+        long mask = unannounced;
+        unannounced = 0;
+        return mask;
+    }
+
+    private void markUnlocked(int index, long at) {
+        unlocked |= 1L << index;
+        if (unlockedAt == null) {
+            unlockedAt = new long[catalog.templates.size()];
+        }
+        unlockedAt[index] = at;
+    }
+
+    private void markIfFinished(Achievement.AchievementType type) {
+        if (cursors[type.ordinal()] >= catalog.byType.get(type).length) {
+            finishedTypes |= 1 << type.ordinal();
+        }
+    }
+
+    /**
+     * 该类型的成就是否已全部解锁
+     */
+    public boolean isFinished(Achievement.AchievementType type) {
+        return (finishedTypes & (1 << type.ordinal())) != 0;
+    }
+
+    public boolean isUnlocked(int index) {
+        return (unlocked & (1L << index)) != 0;
+    }
+
+    /**
+     * 已解锁成就的位图，第 i 位对应目录中的第 i 个成就
+     */
+    public long getUnlockedMask() {
+        return unlocked;
+    }
+
+    /**
+     * 第 index 个成就的解锁时间（epoch 毫秒），未解锁为 0
+     */
+    public long unlockedAtOf(int index) {
+        return unlockedAt != null ? unlockedAt[index] : 0L;
+    }
+
+    public int size() {
+        return catalog.templates.size();
+    }
+
+    /**
+     * 该类型已结算的计数
+     */
+    public int counterOf(Achievement.AchievementType type) {
+        return counters[type.ordinal()];
+    }
+
+    /**
+     * 该类型下一个待解锁成就的目标值，全部解锁时为 -1
+     */
+    public int nextTarget(Achievement.AchievementType type) {
+        int[] sorted = catalog.byType.get(type);
+        int cursor = cursors[type.ordinal()];
+        return cursor < sorted.length ? catalog.templates.get(sorted[cursor]).getTargetValue() : -1;
+    }
+
+    /**
+     * 第 index 个成就的当前进度
+     */
+    public int progressOf(int index) {
+        Achievement template = catalog.templates.get(index);
+        if (isUnlocked(index)) {
+            return template.getTargetValue();
+        }
+        return Math.min(template.getTargetValue(), Math.max(0, counters[template.getType().ordinal()]));
+    }
+
+    /**
+     * 从持久化的逐个成就进度恢复
+     */
+    public void restore(int index, int progress, boolean isUnlocked, long unlockedAtMillis, boolean isUnannounced) {
+        Achievement.AchievementType type = catalog.templates.get(index).getType();
+        if (isUnlocked) {
+            markUnlocked(index, unlockedAtMillis);
+            if (isUnannounced) {
+                unannounced |= 1L << index;
+            }
+        } else {
+            counters[type.ordinal()] = Math.max(counters[type.ordinal()], progress);
+        }
+        int[] sorted = catalog.byType.get(type);
+        int cursor = 0;
+        while (cursor < sorted.length && isUnlocked(sorted[cursor])) {
+            cursor++;
+        }
+        cursors[type.ordinal()] = cursor;
+        finishedTypes &= ~(1 << type.ordinal());
+        markIfFinished(type);
+    }
+
+    /**
+     * 成就目录，以及每种类型的成就下标（按目标值升序，目标值相同的保持目录顺序）
+     */
+    private static final class Catalog {
+        private final List<Achievement> templates;
+        private final EnumMap<Achievement.AchievementType, int[]> byType =
+            new EnumMap<>(Achievement.AchievementType.class);
+
+        Catalog(List<Achievement> templates) {
+            if (templates.size() > Long.SIZE) {
+                throw new IllegalStateException("成就数量超过位图容量");
+            }
+            this.templates = templates;
+            for (Achievement.AchievementType type : Achievement.AchievementType.values()) {
+                List<Integer> indices = new ArrayList<>();
+                for (int i = 0; i < templates.size(); i++) {
+                    if (templates.get(i).getType() == type) {
+                        indices.add(i);
+                    }
+                }
+                indices.sort(Comparator.comparingInt(i -> templates.get(i).getTargetValue()));
+                byType.put(type, indices.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+    }
+}
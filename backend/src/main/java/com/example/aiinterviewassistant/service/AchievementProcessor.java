@@ -0,0 +1,109 @@
+package com.example.aiinterviewassistant.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 成就处理器
+ * 动作只把成就事件合并进玩家的 {@link AchievementBook} 待处理区，并在待处理区由空变为非空时把玩家放进这里的队列。
+ * 处理线程每攒够一个批处理窗口就取出队列中的所有玩家，逐个交给 onFlush（应在玩家的串行上下文中处理），
+ * 窗口内同一玩家的多次事件已经合并，例如 20 次喂食只做一次 +20 的更新。
+ * 队列无锁，提交只做一次入队，不同分片的命令不会在这里互相等待；处理线程每个窗口醒来一次取出全部玩家。
+ */
+@Component
+public class AchievementProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(AchievementProcessor.class);
+
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+    private final long batchMillis;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AchievementProcessor(@Value("${app.achievements.batchMillis:50}") long batchMillis) {
+        this.batchMillis = batchMillis;
+    }
+
+    /**
+     * 启动处理线程
+     */
+    public synchronized void start(Consumer<String> onFlush) {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(() -> drain(onFlush), "achievement-processor");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * 玩家有了待处理的成就事件
+     */
+    public void submit(String playerId) {
+        queue.offer(playerId);
+    }
+
+    /**
+     * 等待处理的玩家数（需要遍历队列，只用于监控）
+     */
+    public int pendingPlayers() {
+        return queue.size();
+    }
+
+    public long getBatches() { return batches.get(); }
+    public long getFlushes() { return flushes.get(); }
+
+    private void drain(Consumer<String> onFlush) {
+        List<String> batch = new ArrayList<>();
+        while (running) {
+            try {
+                // 睡一个窗口，期间提交的玩家和同一玩家的后续事件一起处理
+                Thread.sleep(batchMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            String playerId;
+            while ((playerId = queue.poll()) != null) {
+                batch.add(playerId);
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            for (String id : new LinkedHashSet<>(batch)) {
+                try {
+                    onFlush.accept(id);
+                    flushes.incrementAndGet();
+                } catch (RuntimeException e) {
+                    log.error("成就处理失败：{}", id, e);
+                }
+            }
+            batches.incrementAndGet();
+            batch.clear();
+        }
+    }
+}
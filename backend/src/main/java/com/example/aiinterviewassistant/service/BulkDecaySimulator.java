@@ -0,0 +1,65 @@
+package com.example.aiinterviewassistant.service;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 批量状态推进模拟器
+ * 用于数值平衡调整和每日报表：在列式存储上把大量宠物一次推进到指定时刻，
+ * 按固定大小切块后交给 fork-join 线程池并行处理。
+ */
+public class BulkDecaySimulator {
+
+    // 每个任务处理的行数，保证切块足够大以摊销任务调度开销
+    private static final int CHUNK_SIZE = 32 * 1024;
+
+    private final ForkJoinPool pool;
+
+    public BulkDecaySimulator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BulkDecaySimulator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 把所有宠物结算到时刻 now
+     */
+    public void advance(PetColumns columns, long now, boolean parallel) {
+        if (parallel && columns.size() > CHUNK_SIZE) {
+            pool.invoke(new AdvanceTask(columns, 0, columns.size(), now));
+        } else {
+            columns.advance(0, columns.size(), now);
+        }
+    }
+
+    /**
+     * 二分切块的并行推进任务
+     */
+    private static final class AdvanceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PetColumns columns;
+        private final int from;
+        private final int to;
+        private final long now;
+
+        private AdvanceTask(PetColumns columns, int from, int to, long now) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.now = now;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                columns.advance(from, to, now);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new AdvanceTask(columns, from, mid, now), new AdvanceTask(columns, mid, to, now));
+        }
+    }
+}
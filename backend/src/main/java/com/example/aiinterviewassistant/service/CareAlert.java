@@ -0,0 +1,58 @@
+package com.example.aiinterviewassistant.service;
+
+/**
+ * 照顾提醒事件
+ * 宠物刚刚进入需要关注的状态时发出一次
+ */
+public class CareAlert {
+
+    /**
+     * 提醒原因
+     */
+    public enum Reason {
+        HUNGRY("非常饿 😢"),
+        DIRTY("很脏，需要清洁 🛁"),
+        SICK("看起来不太舒服 😰"),
+        LONELY("很久没有见到你了 🥺");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() { return description; }
+    }
+
+    private String playerId;
+    private String petName;
+    private Reason reason;
+    private String message;
+    private long firedAt;
+
+    public CareAlert() {}
+
+    public CareAlert(String playerId, String petName, Reason reason, long firedAt) {
+        this.playerId = playerId;
+        this.petName = petName;
+        this.reason = reason;
+        this.message = petName + " " + reason.getDescription();
+        this.firedAt = firedAt;
+    }
+
+    // Getters and Setters
+    public String getPlayerId() { return playerId; }
+    public void setPlayerId(String playerId) { this.playerId = playerId; }
+
+    public String getPetName() { return petName; }
+    public void setPetName(String petName) { this.petName = petName; }
+
+    public Reason getReason() { return reason; }
+    public void setReason(Reason reason) { this.reason = reason; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public long getFiredAt() { return firedAt; }
+    public void setFiredAt(long firedAt) { this.firedAt = firedAt; }
+}
@@ -0,0 +1,222 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 照顾提醒调度
+ * 宠物数值按闭式规则变化，每次写入后都能直接算出它下一次跨过紧急阈值的时刻
+ * （饥饿 ≤ 20、清洁 ≤ 20、健康 ≤ 30，或超过 12 小时没有互动），把这个时刻放进时间轮。
+ * 到期时在玩家的串行上下文中重新评估：刚进入的状态各发出一次提醒，再调度下一个时刻。
+ * 每只宠物在时间轮中最多一个定时项，不需要周期性扫描所有宠物。
+ * 提醒在玩家线程中只放进无锁的发送队列，由唯一的发送线程交给订阅者，玩家线程不会因订阅者或并发发送而等待。
+ */
+@Component
+public class CareAlertScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CareAlertScheduler.class);
+
+    // 每个订阅者最多积压的提醒条数，超出时丢弃最旧的
+    private static final int MAX_PENDING = 256;
+    // 等待发送的提醒条数上限，超出时丢弃新的提醒
+    private static final int OUTBOX_CAPACITY = 4096;
+    private static final int EMIT_BATCH = 256;
+    private static final long EMITTER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final TimingWheel<String> wheel;
+    private final long tickMillis;
+
+    // 每个玩家已经提醒过、且仍然成立的原因，原因解除后才能再次提醒
+    private final Map<String, Set<CareAlert.Reason>> raised = new ConcurrentHashMap<>();
+
+    private final Sinks.Many<CareAlert> sink = Sinks.many().multicast().directBestEffort();
+    private final MpscRingBuffer<CareAlert> outbox = new MpscRingBuffer<>(OUTBOX_CAPACITY);
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running;
+    private volatile boolean emitterSleeping;
+    private Thread driver;
+    private Thread emitter;
+
+    public CareAlertScheduler(@Value("${app.alerts.tickMillis:1000}") long tickMillis) {
+        this.tickMillis = tickMillis;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * 启动时间轮驱动线程，到期的玩家交给 onDue（应在玩家的串行上下文中调用 evaluate）
+     */
+    public synchronized void start(Consumer<String> onDue) {
+        if (running) {
+            return;
+        }
+        running = true;
+        driver = new Thread(() -> drive(onDue), "care-alert-wheel");
+        driver.setDaemon(true);
+        driver.start();
+        emitter = new Thread(this::emitLoop, "care-alert-emitter");
+        emitter.setDaemon(true);
+        emitter.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (driver != null) {
+            driver.interrupt();
+        }
+        if (emitter != null) {
+            LockSupport.unpark(emitter);
+            try {
+                emitter.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        sink.tryEmitComplete();
+    }
+
+    /**
+     * 某个玩家的提醒事件流
+     * 每个订阅者各自缓冲：SSE 写出一条才请求下一条，集中到期的提醒先排在缓冲里，慢的订阅者只丢自己最旧的提醒
+     */
+    public Flux<CareAlert> alerts(String playerId) {
+        return sink.asFlux()
+            .filter(alert -> playerId.equals(alert.getPlayerId()))
+            .onBackpressureBuffer(MAX_PENDING, alert -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * 重新评估玩家的宠物：发出新出现的提醒并调度下一次跨过阈值的时刻，必须在玩家的串行上下文中调用
+     */
+    public void evaluate(PlayerAggregate player) {
+        String playerId = player.getPlayerId();
+        Pet pet = player.getPet();
+        PetStats stats = pet.getStats();
+        long now = System.currentTimeMillis();
+
+        long hungryAt = stats.hungerDropsToAt(PetStats.URGENT_HUNGER);
+        long dirtyAt = stats.cleanlinessDropsToAt(PetStats.URGENT_CLEANLINESS);
+        long sickAt = stats.healthDropsToAt(PetStats.URGENT_HEALTH);
+        long lonelyAt = pet.lonelySince();
+
+        Set<CareAlert.Reason> previous = raised.getOrDefault(playerId, Set.of());
+        EnumSet<CareAlert.Reason> current = EnumSet.noneOf(CareAlert.Reason.class);
+        long next = Long.MAX_VALUE;
+        next = check(CareAlert.Reason.HUNGRY, hungryAt, now, current, next);
+        next = check(CareAlert.Reason.DIRTY, dirtyAt, now, current, next);
+        next = check(CareAlert.Reason.SICK, sickAt, now, current, next);
+        next = check(CareAlert.Reason.LONELY, lonelyAt, now, current, next);
+
+        for (CareAlert.Reason reason : current) {
+            if (!previous.contains(reason)) {
+                publish(new CareAlert(playerId, pet.getName(), reason, now));
+            }
+        }
+
+        if (current.isEmpty()) {
+            raised.remove(playerId);
+        } else {
+            raised.put(playerId, current);
+        }
+        if (next == Long.MAX_VALUE) {
+            wheel.cancel(playerId);
+        } else {
+            wheel.schedule(playerId, next);
+        }
+    }
+
+    /**
+     * 宠物被删除时取消提醒
+     */
+    public void cancel(String playerId) {
+        raised.remove(playerId);
+        wheel.cancel(playerId);
+    }
+
+    public int scheduledCount() {
+        return wheel.size();
+    }
+
+    /**
+     * 因没有订阅者、订阅者跟不上或发送队列已满而丢弃的提醒条数
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    private static long check(CareAlert.Reason reason, long crossesAt, long now,
+                              Set<CareAlert.Reason> current, long next) {
+        if (crossesAt <= now) {
+            current.add(reason);
+            return next;
+        }
+        return Math.min(next, crossesAt);
+    }
+
+    /**
+     * 在玩家线程中调用，只入队，不等待
+     */
+    private void publish(CareAlert alert) {
+        if (!outbox.offer(alert)) {
+            dropped.increment();
+            return;
+        }
+        if (emitterSleeping) {
+            LockSupport.unpark(emitter);
+        }
+    }
+
+    /**
+     * 发送线程：sink 只有这一个生产者，不会出现并发发送冲突；没有订阅者时丢弃该条。
+     * 不用 emitNext：它把失败转成 emitError，唯一的全局 sink 终止后所有订阅都会失败
+     */
+    private void emitLoop() {
+        while (running || !outbox.isEmpty()) {
+            int emitted = outbox.drain(alert -> {
+                if (sink.tryEmitNext(alert).isFailure()) {
+                    dropped.increment();
+                }
+            }, EMIT_BATCH);
+            if (emitted == 0) {
+                // 先声明要睡，再复查一次，防止错过玩家线程的唤醒
+                emitterSleeping = true;
+                if (outbox.isEmpty() && running) {
+                    LockSupport.parkNanos(EMITTER_PARK_NANOS);
+                }
+                emitterSleeping = false;
+            }
+        }
+    }
+
+    private void drive(Consumer<String> onDue) {
+        while (running) {
+            try {
+                wheel.advanceTo(System.currentTimeMillis(), onDue);
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("照顾提醒调度失败", e);
+            }
+        }
+    }
+}
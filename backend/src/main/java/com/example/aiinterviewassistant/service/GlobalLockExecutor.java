@@ -0,0 +1,23 @@
+package com.example.aiinterviewassistant.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 全局锁执行器
+ * 所有玩家共用一把锁，实现最简单但完全没有并行度，用作分段锁的吞吐量对照组。
+ */
+public class GlobalLockExecutor implements PlayerCommandExecutor {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Override
+    public <T> T execute(String playerId, Supplier<T> command) {
+        lock.lock();
+        try {
+            return command.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
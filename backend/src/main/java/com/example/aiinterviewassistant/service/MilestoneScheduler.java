@@ -0,0 +1,171 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Achievement;
+import com.example.aiinterviewassistant.model.PetStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * 按时间触发的成就
+ * 陪伴天数（DAYS_OWNED）只取决于出生时间，下一个里程碑的时刻可以直接算出；
+ * 完美照顾（PERFECT_CARE）要求所有数值连续 24 小时不低于 80，两次写入之间数值单调变化，
+ * 所以每次写入后能算出这段完美状态会在何时结束，只需在"满 24 小时"或"睡醒后进入完美状态"的时刻再评估一次。
+ * 每个玩家在时间轮中最多一个定时项，每次评估 O(1)，不扫描全部玩家。
+ * 评估结果作为普通成就事件交给 {@link AchievementProcessor} 结算。
+ */
+@Component
+public class MilestoneScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(MilestoneScheduler.class);
+
+    public static final long MILLIS_PER_DAY = 24 * 3_600_000L;
+
+    // 完美照顾要求每项数值不低于这个值
+    public static final int PERFECT_THRESHOLD = 80;
+
+    private final TimingWheel<String> wheel;
+    private final long tickMillis;
+    private final AchievementProcessor achievements;
+
+    private volatile boolean running;
+    private Thread driver;
+
+    public MilestoneScheduler(@Value("${app.achievements.tickMillis:1000}") long tickMillis,
+                              AchievementProcessor achievements) {
+        this.tickMillis = tickMillis;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.achievements = achievements;
+    }
+
+    /**
+     * 启动时间轮驱动线程，到期的玩家交给 onDue（应在玩家的串行上下文中调用 evaluate）
+     */
+    public synchronized void start(Consumer<String> onDue) {
+        if (running) {
+            return;
+        }
+        running = true;
+        driver = new Thread(() -> drive(onDue), "milestone-wheel");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (driver != null) {
+            driver.interrupt();
+        }
+    }
+
+    /**
+     * 重新评估玩家的时间型成就并调度下一次评估，必须在玩家的串行上下文中调用
+     */
+    public void evaluate(PlayerAggregate player) {
+        long now = System.currentTimeMillis();
+        long next = Math.min(evaluateDaysOwned(player, now), evaluatePerfectCare(player, now));
+        if (next == Long.MAX_VALUE) {
+            wheel.cancel(player.getPlayerId());
+        } else {
+            wheel.schedule(player.getPlayerId(), next);
+        }
+    }
+
+    /**
+     * 宠物被删除时取消定时项
+     */
+    public void cancel(String playerId) {
+        wheel.cancel(playerId);
+    }
+
+    public int scheduledCount() {
+        return wheel.size();
+    }
+
+    /**
+     * 天数增加时记一次事件，返回下一个里程碑的时刻
+     */
+    private long evaluateDaysOwned(PlayerAggregate player, long now) {
+        AchievementBook book = player.getAchievementBook();
+        Achievement.AchievementType type = Achievement.AchievementType.DAYS_OWNED;
+        if (book.isFinished(type)) {
+            return Long.MAX_VALUE;
+        }
+        long birth = player.getPet().getBirthDateMillis();
+        int days = (int) Math.max(0, (now - birth) / MILLIS_PER_DAY);
+        if (days > book.counterOf(type) && days > book.pendingSetOf(type)) {
+            queue(player, book.queueSet(type, days));
+        }
+        int target = book.nextTarget(type);
+        return target > days ? birth + target * MILLIS_PER_DAY : Long.MAX_VALUE;
+    }
+
+    /**
+     * 推进完美照顾的计时，返回需要再次评估的时刻
+     */
+    private long evaluatePerfectCare(PlayerAggregate player, long now) {
+        AchievementBook book = player.getAchievementBook();
+        Achievement.AchievementType type = Achievement.AchievementType.PERFECT_CARE;
+        if (book.isFinished(type) || book.pendingAddOf(type) > 0) {
+            return Long.MAX_VALUE;
+        }
+
+        // 上一段完美状态持续到现在（或它的结束时刻）是否已满一天
+        long since = player.getPerfectCareSince();
+        if (since > 0 && Math.min(now, player.getPerfectCareUntil()) - since >= MILLIS_PER_DAY) {
+            player.setPerfectCare(0, 0);
+            queue(player, book.queueAdd(type, 1));
+            return Long.MAX_VALUE;
+        }
+
+        PetStats stats = player.getPet().getStats();
+        long decaysBelowAt = decaysBelowAt(stats);
+        long energyReadyAt = stats.energyRisesToAt(PERFECT_THRESHOLD);
+        if (energyReadyAt <= now && decaysBelowAt > now) {
+            // 中间断过的话从现在重新计时
+            if (since == 0 || now > player.getPerfectCareUntil()) {
+                since = now;
+            }
+            player.setPerfectCare(since, decaysBelowAt);
+            return decaysBelowAt - since >= MILLIS_PER_DAY ? since + MILLIS_PER_DAY : Long.MAX_VALUE;
+        }
+
+        player.setPerfectCare(0, 0);
+        // 只差能量、而睡醒时其他数值仍达标的，在睡醒时开始计时
+        return energyReadyAt > now && energyReadyAt < decaysBelowAt ? energyReadyAt : Long.MAX_VALUE;
+    }
+
+    /**
+     * 会随时间下降的数值中最早跌破标准的时刻（健康值不变，已低于标准时返回结算时刻）
+     */
+    private static long decaysBelowAt(PetStats stats) {
+        int below = PERFECT_THRESHOLD - 1;
+        return Math.min(Math.min(stats.hungerDropsToAt(below), stats.cleanlinessDropsToAt(below)),
+            Math.min(stats.happinessDropsToAt(below), stats.healthDropsToAt(below)));
+    }
+
+    private void queue(PlayerAggregate player, boolean firstPending) {
+        if (firstPending) {
+            achievements.submit(player.getPlayerId());
+        }
+    }
+
+    private void drive(Consumer<String> onDue) {
+        while (running) {
+            try {
+                wheel.advanceTo(System.currentTimeMillis(), onDue);
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("时间型成就调度失败", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Mood;
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetStats;
+import com.example.aiinterviewassistant.model.StatDecay;
+
+/**
+ * 列式宠物状态存储
+ * 每项数值一个基本类型数组（struct-of-arrays），批量推进时逐列顺序扫描，
+ * 循环体只有整数运算、没有对象访问，便于 JIT 展开和自动向量化。
+ * 推进规则与 {@link PetStats#settle(long)} 和 {@link Pet#getMood(long)} 完全相同，都调用 {@link StatDecay}。
+ */
+public class PetColumns {
+
+    private final int size;
+
+    final int[] hunger;
+    final int[] cleanliness;
+    final int[] happiness;
+    final int[] energy;
+    final int[] health;
+
+    final int[] hungerCarry;
+    final int[] cleanlinessCarry;
+    final int[] happinessCarry;
+    final int[] energyCarry;
+
+    final long[] decayOrigin;
+    final long[] settledAt;
+    final boolean[] sleeping;
+    final byte[] mood; // Mood 的序号
+
+    public PetColumns(int size) {
+        this.size = size;
+        this.hunger = new int[size];
+        this.cleanliness = new int[size];
+        this.happiness = new int[size];
+        this.energy = new int[size];
+        this.health = new int[size];
+        this.hungerCarry = new int[size];
+        this.cleanlinessCarry = new int[size];
+        this.happinessCarry = new int[size];
+        this.energyCarry = new int[size];
+        this.decayOrigin = new long[size];
+        this.settledAt = new long[size];
+        this.sleeping = new boolean[size];
+        this.mood = new byte[size];
+    }
+
+    public int size() { return size; }
+
+    /**
+     * 把一只宠物在时刻 now 的状态写入第 i 行
+     */
+    public void load(int i, Pet pet, long now) {
+        PetStats stats = pet.getStats();
+        int[] carry = stats.getDecayCarry();
+        hunger[i] = stats.hungerAt(now);
+        cleanliness[i] = stats.cleanlinessAt(now);
+        happiness[i] = stats.happinessAt(now);
+        energy[i] = stats.energyAt(now);
+        health[i] = stats.healthAt(now);
+        hungerCarry[i] = carry[0];
+        cleanlinessCarry[i] = carry[1];
+        happinessCarry[i] = carry[2];
+        energyCarry[i] = carry[3];
+        decayOrigin[i] = stats.getDecayOrigin();
+        settledAt[i] = now;
+        sleeping[i] = stats.isSleepingAt(now);
+        Mood current = pet.getMood(now);
+        mood[i] = (byte) (current != null ? current : Mood.CURIOUS).ordinal();
+    }
+
+    /**
+     * 把第 i 行还原成 PetStats，用于与逐只计算的结果对照
+     */
+    public PetStats toPetStats(int i) {
+        PetStats stats = new PetStats(hunger[i], cleanliness[i], happiness[i], energy[i], health[i]);
+        stats.restoreDecay(decayOrigin[i], settledAt[i],
+            new int[]{hungerCarry[i], cleanlinessCarry[i], happinessCarry[i], energyCarry[i]}, sleeping[i]);
+        return stats;
+    }
+
+    /**
+     * 把 [from, to) 行结算到时刻 now
+     */
+    public void advance(int from, int to, long now) {
+        decayColumn(hunger, hungerCarry, StatDecay.HUNGER_RATE, StatDecay.HUNGER_CAP, from, to, now);
+        decayColumn(cleanliness, cleanlinessCarry, StatDecay.CLEANLINESS_RATE, StatDecay.CLEANLINESS_CAP, from, to, now);
+        decayColumn(happiness, happinessCarry, StatDecay.HAPPINESS_RATE, StatDecay.HAPPINESS_CAP, from, to, now);
+
+        for (int i = from; i < to; i++) {
+            if (sleeping[i]) {
+                int value = StatDecay.regenerated(energy[i], energyCarry[i], decayOrigin[i], settledAt[i], now);
+                energy[i] = value;
+                sleeping[i] = value < StatDecay.WAKE_ENERGY;
+            }
+        }
+
+        // 数值已结算到 now，离开满一小时的宠物心情由数值决定
+        for (int i = from; i < to; i++) {
+            if (StatDecay.moodDriftsAt(decayOrigin[i], now)) {
+                mood[i] = (byte) StatDecay.moodLevel(hunger[i], cleanliness[i], happiness[i], energy[i], health[i]);
+            }
+        }
+
+        for (int i = from; i < to; i++) {
+            settledAt[i] = Math.max(settledAt[i], now);
+        }
+    }
+
+    private void decayColumn(int[] values, int[] carry, int rate, int cap, int from, int to, long now) {
+        for (int i = from; i < to; i++) {
+            values[i] = StatDecay.decayed(values[i], rate, cap, carry[i], decayOrigin[i], settledAt[i], now);
+        }
+    }
+
+    public Mood moodOf(int i) {
+        return Mood.of(mood[i]);
+    }
+}
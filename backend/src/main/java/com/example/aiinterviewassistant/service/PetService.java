@@ -1,108 +1,189 @@
 package com.example.aiinterviewassistant.service;
 
 import com.example.aiinterviewassistant.model.*;
+import com.example.aiinterviewassistant.persistence.JournalRecord;
+import com.example.aiinterviewassistant.persistence.PetJournal;
+import com.example.aiinterviewassistant.persistence.PlayerSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 宠物服务类
  * 负责管理宠物的业务逻辑
+ * 公开方法都作为命令提交到玩家的串行上下文中执行，结果以 CompletableFuture 返回
  */
 @Service
 public class PetService {
+
+    private static final Logger log = LoggerFactory.getLogger(PetService.class);
     
-    // 简单的内存存储（实际项目中应该使用数据库）
-    private final Map<String, Pet> pets = new ConcurrentHashMap<>();
-    private final Map<String, Integer> playerCoins = new ConcurrentHashMap<>();
-    private final Map<String, List<String>> playerInventory = new ConcurrentHashMap<>();
+    // 内存存储，每个玩家一个聚合对象，所有变更通过 PetJournal 写入预写日志和快照
+    private final Map<String, PlayerAggregate> players = new ConcurrentHashMap<>();
     private final Map<String, GameItem> gameItems = new ConcurrentHashMap<>();
     
-    // 小游戏和成就系统
-    private final Map<String, MiniGame.GameSession> activeSessions = new ConcurrentHashMap<>();
-    private final Map<String, List<Achievement>> playerAchievements = new ConcurrentHashMap<>();
-    private final Map<String, Map<String, Integer>> playerStats = new ConcurrentHashMap<>();
+    // 小游戏会话ID -> 玩家ID
+    private final Map<String, String> sessionOwners = new ConcurrentHashMap<>();
+    
+    private final PetJournal journal;
+    private final PlayerCommandExecutor executor;
+    private final CareAlertScheduler careAlerts;
+    private final AchievementProcessor achievements;
+    private final MilestoneScheduler milestones;
+    private final StatePushHub push;
     
-    public PetService() {
+    public PetService(PetJournal journal, PlayerCommandExecutor executor, CareAlertScheduler careAlerts,
+                      AchievementProcessor achievements, MilestoneScheduler milestones, StatePushHub push) {
+        this.journal = journal;
+        this.executor = executor;
+        this.careAlerts = careAlerts;
+        this.achievements = achievements;
+        this.milestones = milestones;
+        this.push = push;
         // 初始化游戏物品
-        for (GameItem item : GameItem.getDefaultItems()) {
+        for (GameItem item : GameItem.catalog()) {
             gameItems.put(item.getId(), item);
         }
     }
 
+    /**
+     * 启动时从快照和日志恢复玩家数据，然后开始记录新的变更、调度照顾提醒和时间型成就，并处理遗留的成就事件
+     */
+    @PostConstruct
+    void recoverState() {
+        for (PlayerSnapshot snapshot : journal.recover().values()) {
+            PlayerAggregate player = PlayerAggregate.fromSnapshot(snapshot);
+            players.put(snapshot.getPlayerId(), player);
+            careAlerts.evaluate(player);
+            milestones.evaluate(player);
+            if (player.getAchievementBook().hasPending()) {
+                achievements.submit(player.getPlayerId());
+            }
+        }
+        journal.start(this::capturePlayers);
+        careAlerts.start(this::onCareAlertDue);
+        milestones.start(this::onMilestoneDue);
+        achievements.start(this::onAchievementsDue);
+        push.start(this::onPushDue);
+    }
+
+    /**
+     * 先停止日志，最后一次快照还要在玩家的串行上下文中采集，必须赶在执行引擎关闭之前
+     */
+    @PreDestroy
+    void stop() {
+        journal.stop();
+    }
+
     /**
      * 创建新宠物
      */
-    public Pet createPet(String playerId, String petName, PetType petType) {
-        Pet pet = new Pet(petName, petType);
-        pets.put(playerId, pet);
-        
-        // 给新玩家一些初始资源
-        playerCoins.put(playerId, 100);
-        playerInventory.put(playerId, new ArrayList<>(Arrays.asList("apple", "ball")));
-        
-        // 初始化成就系统
-        initializePlayerAchievements(playerId);
-        
-        return pet;
+    public CompletableFuture<Pet> createPet(String playerId, String petName, PetType petType) {
+        return executor.submit(playerId, () -> {
+            Pet pet = new Pet(petName, petType);
+            
+            // 给新玩家一些初始资源
+            PlayerAggregate player = new PlayerAggregate(playerId, pet, 100);
+            player.addItem("apple");
+            player.addItem("ball");
+            PlayerAggregate previous = players.put(playerId, player);
+            if (previous != null && previous.getActiveSession() != null) {
+                sessionOwners.remove(previous.getActiveSession().getSessionId());
+            }
+            
+            record(player, JournalRecord.Operation.CREATE_PET);
+            return pet;
+        });
+    }
+
+    /**
+     * 在玩家的串行上下文中读取玩家状态，reader 看到的是一致的快照视图
+     * 玩家不存在时 reader 收到 null
+     */
+    public <T> CompletableFuture<T> readPlayer(String playerId, Function<PlayerAggregate, T> reader) {
+        return executor.submit(playerId, () -> reader.apply(loadPlayer(playerId)));
     }
 
     /**
      * 获取玩家的宠物
      */
-    public Pet getPet(String playerId) {
-        Pet pet = pets.get(playerId);
-        if (pet != null) {
-            updatePetStatusByTime(pet);
-        }
-        return pet;
+    public CompletableFuture<Pet> getPet(String playerId) {
+        return readPlayer(playerId, player -> player != null ? player.getPet() : null);
     }
     
     /**
      * 删除玩家的宠物（重新开始游戏）
      */
-    public boolean deletePet(String playerId) {
-        Pet pet = pets.remove(playerId);
-        if (pet != null) {
-            // 清理玩家的所有数据
-            playerCoins.remove(playerId);
-            playerInventory.remove(playerId);
-            playerAchievements.remove(playerId);
-            playerStats.remove(playerId);
+    public CompletableFuture<Boolean> deletePet(String playerId) {
+        return executor.submit(playerId, () -> {
+            PlayerAggregate player = players.remove(playerId);
+            if (player == null) {
+                return false;
+            }
             
             // 清理活跃的游戏会话
-            activeSessions.entrySet().removeIf(entry -> 
-                entry.getValue().getPlayerId().equals(playerId));
+            if (player.getActiveSession() != null) {
+                sessionOwners.remove(player.getActiveSession().getSessionId());
+            }
             
+            record(player, JournalRecord.Operation.DELETE_PET);
             return true;
-        }
-        return false;
+        });
     }
 
     /**
      * 执行宠物动作
      */
-    public ActionResult executeAction(String playerId, PetAction action) {
-        Pet pet = getPet(playerId);
-        if (pet == null) {
-            return new ActionResult(false, "没有找到宠物", null);
+    public CompletableFuture<ActionResult> executeAction(String playerId, PetAction action) {
+        return executeAction(playerId, action, false);
+    }
+
+    /**
+     * 执行宠物动作，delta 为 true 时结果附带相对执行前变化的字段（见 {@link ActionResult#getDelta}）
+     */
+    public CompletableFuture<ActionResult> executeAction(String playerId, PetAction action, boolean delta) {
+        return mutate(playerId, delta, player -> executeAction(player, action));
+    }
+
+    private ActionResult executeAction(PlayerAggregate player, PetAction action) {
+        ActionResult result = applyAction(player, action, System.currentTimeMillis());
+        if (!result.isSuccess()) {
+            return result;
         }
+        // 显示之前批次中新解锁的成就
+        ActionResult done = new ActionResult(true, result.getMessage() + unlockNotices(player), result.getPet());
+        record(player, JournalRecord.Operation.EXECUTE_ACTION);
+        return done;
+    }
+
+    /**
+     * 在时刻 now 应用动作效果并记录成就事件，不写日志（由调用方在一次或一批命令之后统一记录）
+     */
+    private ActionResult applyAction(PlayerAggregate player, PetAction action, long now) {
+        Pet pet = player.getPet();
         
         // 验证动作是否为空
         if (action == null) {
             return new ActionResult(false, "动作不能为空", pet);
         }
 
-        if (!action.canExecute(pet)) {
+        if (!action.canExecute(pet, now)) {
             return new ActionResult(false, "现在无法执行这个动作", pet);
         }
 
         // 应用动作效果
-        action.getEffect().applyTo(pet.getStats());
-        pet.updateLastInteraction();
+        action.getEffect().applyTo(pet.getStats(), now);
+        pet.updateLastInteraction(now);
         
         // 获得经验值
         boolean leveledUp = pet.getStats().addExperience(10);
@@ -111,31 +192,30 @@ public class PetService {
         int coinsEarned = 0;
         if (Math.random() < 0.3) { // 30%概率
             coinsEarned = 5 + (int)(Math.random() * 10);
-            addCoins(playerId, coinsEarned);
+            player.addCoins(coinsEarned);
         }
 
-        // 更新成就进度
-        List<Achievement> newlyUnlocked = new ArrayList<>();
+        // 记录成就事件，由成就处理器异步结算
         switch (action) {
             case FEED, FEED_TREAT, FEED_MEDICINE -> {
-                newlyUnlocked.addAll(updateAchievement(playerId, Achievement.AchievementType.FEED_COUNT, 1));
-                updatePlayerStat(playerId, "feed_count", 1);
+                updateAchievement(player, Achievement.AchievementType.FEED_COUNT, 1);
+                player.incrementStat("feed_count", 1);
             }
             case PLAY -> {
-                newlyUnlocked.addAll(updateAchievement(playerId, Achievement.AchievementType.PLAY_COUNT, 1));
-                updatePlayerStat(playerId, "play_count", 1);
+                updateAchievement(player, Achievement.AchievementType.PLAY_COUNT, 1);
+                player.incrementStat("play_count", 1);
             }
         }
         
         // 检查等级成就
-        newlyUnlocked.addAll(setAchievementProgress(playerId, Achievement.AchievementType.LEVEL_REACHED, pet.getStats().getLevel()));
+        setAchievementProgress(player, Achievement.AchievementType.LEVEL_REACHED, pet.getStats().getLevel());
         
         // 检查快乐度成就
-        newlyUnlocked.addAll(setAchievementProgress(playerId, Achievement.AchievementType.PET_HAPPINESS, pet.getStats().getHappiness()));
+        setAchievementProgress(player, Achievement.AchievementType.PET_HAPPINESS, pet.getStats().happinessAt(now));
         
         // 检查金币成就
         if (coinsEarned > 0) {
-            newlyUnlocked.addAll(updateAchievement(playerId, Achievement.AchievementType.COINS_EARNED, coinsEarned));
+            updateAchievement(player, Achievement.AchievementType.COINS_EARNED, coinsEarned);
         }
 
         String message = action.getExecuteMessage(pet);
@@ -145,30 +225,56 @@ public class PetService {
         if (coinsEarned > 0) {
             message += "\n💰 获得了 " + coinsEarned + " 金币！";
         }
-        
-        // 显示新解锁的成就
-        for (Achievement achievement : newlyUnlocked) {
-            message += "\n🏆 解锁成就：" + achievement.getName() + " " + achievement.getEmoji();
-        }
-
         return new ActionResult(true, message, pet);
     }
 
     /**
      * 使用物品
      */
-    public ActionResult useItem(String playerId, String itemId) {
-        Pet pet = getPet(playerId);
-        if (pet == null) {
-            return new ActionResult(false, "没有找到宠物", null);
+    public CompletableFuture<ActionResult> useItem(String playerId, String itemId) {
+        return useItem(playerId, itemId, false);
+    }
+
+    public CompletableFuture<ActionResult> useItem(String playerId, String itemId, boolean delta) {
+        return mutate(playerId, delta, player -> useItem(player, itemId));
+    }
+
+    /**
+     * 在玩家的串行上下文中执行单条命令并附上实体标签；需要增量时在执行前采集一次状态，执行成功后与之比较
+     */
+    private CompletableFuture<ActionResult> mutate(String playerId, boolean delta,
+                                                   Function<PlayerAggregate, ActionResult> command) {
+        return executor.submit(playerId, () -> {
+            PlayerAggregate player = loadPlayer(playerId);
+            if (player == null) {
+                return new ActionResult(false, "没有找到宠物", null);
+            }
+            Object[] before = delta ? StatePushHub.capture(player, System.currentTimeMillis()) : null;
+            ActionResult result = tagged(player, command.apply(player));
+            if (before != null && result.isSuccess()) {
+                result.setDelta(StatePushHub.changesSince(before, player));
+            }
+            return result;
+        });
+    }
+
+    private ActionResult useItem(PlayerAggregate player, String itemId) {
+        ActionResult result = applyUseItem(player, itemId);
+        if (result.isSuccess()) {
+            record(player, JournalRecord.Operation.USE_ITEM);
         }
+        return result;
+    }
+
+    private ActionResult applyUseItem(PlayerAggregate player, String itemId) {
+        Pet pet = player.getPet();
 
         GameItem item = gameItems.get(itemId);
         if (item == null) {
             return new ActionResult(false, "物品不存在", pet);
         }
 
-        if (!hasItem(playerId, itemId)) {
+        if (!player.hasItem(itemId)) {
             return new ActionResult(false, "你没有这个物品", pet);
         }
 
@@ -178,15 +284,125 @@ public class PetService {
 
         // 使用物品
         String message = item.useOn(pet);
-        removeItem(playerId, itemId);
-
+        player.removeItem(itemId);
         return new ActionResult(true, message, pet);
     }
 
     /**
      * 购买物品
      */
-    public ActionResult buyItem(String playerId, String itemId) {
+    public CompletableFuture<ActionResult> buyItem(String playerId, String itemId) {
+        return executor.submit(playerId, () -> {
+            PlayerAggregate player = players.get(playerId);
+            ActionResult result = buyItem(player, itemId);
+            return player != null ? tagged(player, result) : result;
+        });
+    }
+
+    /**
+     * 按顺序批量执行动作、使用物品和购买物品，整批只进入一次玩家的串行上下文
+     * 数值衰减由修改数值的命令各自结算，不预先结算；单条命令失败不影响后续命令。
+     * 至少一条命令成功时才记录一条日志（时间型成就、照顾提醒和状态推送各评估一次）；全部失败时玩家状态和版本号都不变。
+     * 最终状态由 state 在同一上下文中生成（新解锁的成就在这里一次取出）。玩家不存在时返回 null。
+     */
+    public <T> CompletableFuture<BatchResult<T>> executeBatch(String playerId, List<Command> commands,
+                                                              Function<PlayerAggregate, T> state) {
+        return executor.submit(playerId, () -> {
+            PlayerAggregate player = loadPlayer(playerId);
+            if (player == null) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            List<ActionResult> results = new ArrayList<>(commands.size());
+            boolean changed = false;
+            for (Command command : commands) {
+                ActionResult result = apply(player, command, now);
+                results.add(result);
+                changed |= result.isSuccess();
+            }
+            if (changed) {
+                record(player, JournalRecord.Operation.EXECUTE_BATCH);
+            }
+            T finalState = state.apply(player);
+            return new BatchResult<>(results, finalState, player.infoTag(System.currentTimeMillis()));
+        });
+    }
+
+    /**
+     * 同步客户端离线期间记录的动作
+     * 操作按序号排序后逐条重放，序号不大于已应用序号的视为重复上传直接跳过，因此重试是安全的。
+     * 每条操作在它发生的时刻执行：clientTime 是客户端上传时的时钟，用来换算客户端与服务端的时钟偏差；
+     * 换算后的时刻不早于上一条已应用的操作（也不早于服务端最后一次结算），不晚于现在，
+     * 两条操作之间的衰减由闭式规则按时间差推进。执行失败的操作同样消耗序号，重试得到相同结果。
+     * 整批只记录一条日志；玩家不存在时返回 null。
+     */
+    public <T> CompletableFuture<SyncResult<T>> syncActions(String playerId, List<SyncEntry> entries, long clientTime,
+                                                            Function<PlayerAggregate, T> state) {
+        List<SyncEntry> ordered = new ArrayList<>(entries);
+        ordered.sort(Comparator.comparingLong(SyncEntry::getSeq));
+        return executor.submit(playerId, () -> {
+            PlayerAggregate player = loadPlayer(playerId);
+            if (player == null) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            long skew = clientTime > 0 ? now - clientTime : 0;
+            Pet pet = player.getPet();
+            long floor = Math.max(pet.getLastInteractionMillis(), pet.getStats().getSettledAt());
+            Map<Long, ActionResult> results = new HashMap<>();
+            boolean changed = false;
+            for (SyncEntry entry : ordered) {
+                if (entry.getSeq() <= player.getLastSyncSeq()) {
+                    continue;
+                }
+                long at = Math.min(now, Math.max(floor, entry.getAt() + skew));
+                ActionResult result = entry.getError() != null
+                    ? new ActionResult(false, entry.getError(), null)
+                    : applyAction(player, entry.getAction(), at);
+                results.put(entry.getSeq(), result);
+                player.setLastSyncSeq(entry.getSeq());
+                floor = at;
+                changed = true;
+            }
+            if (changed) {
+                record(player, JournalRecord.Operation.SYNC_ACTIONS);
+            }
+            T finalState = state.apply(player);
+            return new SyncResult<>(results, player.getLastSyncSeq(), finalState,
+                player.infoTag(System.currentTimeMillis()));
+        });
+    }
+
+    private ActionResult apply(PlayerAggregate player, Command command, long now) {
+        if (command.getError() != null) {
+            return new ActionResult(false, command.getError(), null);
+        }
+        return switch (command.getKind()) {
+            case ACTION -> applyAction(player, command.getAction(), now);
+            case USE_ITEM -> applyUseItem(player, command.getItemId());
+            case BUY_ITEM -> applyBuyItem(player, command.getItemId());
+        };
+    }
+
+    /**
+     * 附上变更后宠物信息的实体标签，客户端据此判断是否需要重新获取
+     */
+    private static ActionResult tagged(PlayerAggregate player, ActionResult result) {
+        result.setEtag(player.infoTag(System.currentTimeMillis()));
+        return result;
+    }
+
+    private ActionResult buyItem(PlayerAggregate player, String itemId) {
+        ActionResult result = applyBuyItem(player, itemId);
+        if (!result.isSuccess()) {
+            return result;
+        }
+        ActionResult done = new ActionResult(true, result.getMessage() + unlockNotices(player), null);
+        record(player, JournalRecord.Operation.BUY_ITEM);
+        return done;
+    }
+
+    private ActionResult applyBuyItem(PlayerAggregate player, String itemId) {
         GameItem item = gameItems.get(itemId);
         if (item == null) {
             return new ActionResult(false, "物品不存在", null);
@@ -196,55 +412,56 @@ public class PetService {
             return new ActionResult(false, "物品尚未解锁", null);
         }
 
-        int playerCoins = getCoins(playerId);
-        if (playerCoins < item.getCost()) {
+        if (player == null || player.getCoins() < item.getCost()) {
             return new ActionResult(false, "金币不足！需要 " + item.getCost() + " 金币", null);
         }
 
         // 扣除金币并添加物品
-        addCoins(playerId, -item.getCost());
-        addItem(playerId, itemId);
+        player.addCoins(-item.getCost());
+        player.addItem(itemId);
         
         // 更新购买成就
-        List<Achievement> newlyUnlocked = updateAchievement(playerId, Achievement.AchievementType.ITEMS_BOUGHT, 1);
-        updatePlayerStat(playerId, "items_bought", 1);
-
-        String message = "成功购买了 " + item.getName() + " " + item.getEmoji();
-        for (Achievement achievement : newlyUnlocked) {
-            message += "\n🏆 解锁成就：" + achievement.getName() + " " + achievement.getEmoji();
-        }
+        updateAchievement(player, Achievement.AchievementType.ITEMS_BOUGHT, 1);
+        player.incrementStat("items_bought", 1);
 
-        return new ActionResult(true, message, null);
+        return new ActionResult(true, "成功购买了 " + item.getName() + " " + item.getEmoji(), null);
     }
 
     /**
      * 获取玩家金币
      */
-    public int getCoins(String playerId) {
-        return playerCoins.getOrDefault(playerId, 0);
+    public CompletableFuture<Integer> getCoins(String playerId) {
+        return executor.submit(playerId, () -> {
+            PlayerAggregate player = players.get(playerId);
+            return player != null ? player.getCoins() : 0;
+        });
     }
 
     /**
-     * 添加金币
+     * 获取玩家物品列表（物品及数量）
      */
-    public void addCoins(String playerId, int amount) {
-        int current = getCoins(playerId);
-        playerCoins.put(playerId, Math.max(0, current + amount));
+    public List<InventoryEntry> getPlayerItems(PlayerAggregate player) {
+        List<InventoryEntry> items = new ArrayList<>();
+        for (int i = 0; i < GameItem.catalogSize(); i++) {
+            int quantity = player.countAt(i);
+            if (quantity > 0) {
+                items.add(new InventoryEntry(GameItem.byIndex(i), quantity));
+            }
+        }
+        return items;
     }
 
     /**
-     * 获取玩家物品列表
+     * 已解锁物品的位图（按物品目录编号），商店内容只取决于它
      */
-    public List<GameItem> getPlayerItems(String playerId) {
-        List<String> itemIds = playerInventory.getOrDefault(playerId, new ArrayList<>());
-        List<GameItem> items = new ArrayList<>();
-        for (String itemId : itemIds) {
-            GameItem item = gameItems.get(itemId);
-            if (item != null) {
-                items.add(item);
+    public long getShopUnlockedMask() {
+        long unlocked = 0;
+        for (int i = 0; i < GameItem.catalogSize(); i++) {
+            if (GameItem.byIndex(i).isUnlocked()) {
+                unlocked |= 1L << i;
             }
         }
-        return items;
+        return unlocked;
     }
 
     /**
@@ -260,26 +477,22 @@ public class PetService {
     /**
      * 获取宠物可执行的动作
      */
-    public List<PetAction> getAvailableActions(String playerId) {
-        Pet pet = getPet(playerId);
-        if (pet == null) {
-            return Collections.emptyList();
-        }
-
-        return Arrays.stream(PetAction.values())
-                .filter(action -> action.canExecute(pet))
-                .toList();
+    public CompletableFuture<List<PetAction>> getAvailableActions(String playerId) {
+        return readPlayer(playerId, player -> {
+            if (player == null) {
+                return Collections.<PetAction>emptyList();
+            }
+            return Arrays.stream(PetAction.values())
+                    .filter(action -> action.canExecute(player.getPet()))
+                    .toList();
+        });
     }
     
     /**
      * 获取宠物可执行动作的详细信息（用于前端显示）
      */
-    public List<ActionInfo> getAvailableActionInfo(String playerId) {
-        Pet pet = getPet(playerId);
-        if (pet == null) {
-            return Collections.emptyList();
-        }
-
+    public List<ActionInfo> getAvailableActionInfo(PlayerAggregate player) {
+        Pet pet = player.getPet();
         return Arrays.stream(PetAction.values())
                 .filter(action -> action.canExecute(pet))
                 .map(action -> new ActionInfo(
@@ -290,7 +503,7 @@ public class PetService {
                 ))
                 .toList();
     }
-    
+
     /**
      * 动作信息类
      */
@@ -315,76 +528,11 @@ public class PetService {
     }
 
     /**
-     * 随时间更新宠物状态
+     * 查找玩家，必须在玩家的串行上下文中调用
+     * 宠物数值随时间的变化由 PetStats 在读取时投影、在写入时结算，这里不再修改状态
      */
-    private void updatePetStatusByTime(Pet pet) {
-        LocalDateTime now = LocalDateTime.now();
-        Duration timePassed = Duration.between(pet.getLastInteraction(), now);
-        long hoursAway = timePassed.toHours();
-
-        if (hoursAway > 0) {
-            PetStats stats = pet.getStats();
-            
-            // 随时间减少的状态（每小时减少一定数值）
-            int hungerDecrease = (int) Math.min(hoursAway * 3, 30);
-            int cleanlinessDecrease = (int) Math.min(hoursAway * 2, 20);
-            int happinessDecrease = (int) Math.min(hoursAway * 1, 15);
-            
-            stats.updateStat("hunger", stats.getHunger() - hungerDecrease);
-            stats.updateStat("cleanliness", stats.getCleanliness() - cleanlinessDecrease);
-            stats.updateStat("happiness", stats.getHappiness() - happinessDecrease);
-
-            // 如果宠物在睡觉，恢复能量
-            if (pet.isAsleep()) {
-                int energyIncrease = (int) Math.min(hoursAway * 10, 50);
-                stats.updateStat("energy", stats.getEnergy() + energyIncrease);
-                
-                // 睡够了就醒来
-                if (stats.getEnergy() >= 80) {
-                    pet.setAsleep(false);
-                }
-            }
-
-            // 更新心情
-            updatePetMood(pet);
-        }
-    }
-
-    /**
-     * 更新宠物心情
-     */
-    private void updatePetMood(Pet pet) {
-        PetStats stats = pet.getStats();
-        int avgStats = (stats.getHunger() + stats.getCleanliness() + 
-                       stats.getHappiness() + stats.getEnergy() + stats.getHealth()) / 5;
-
-        String newMood = switch (avgStats / 20) {
-            case 0, 1 -> "sick";
-            case 2 -> "sad";
-            case 3 -> "okay";
-            case 4 -> "happy";
-            default -> "excited";
-        };
-
-        pet.setMood(newMood);
-    }
-
-    // 物品管理辅助方法
-    private boolean hasItem(String playerId, String itemId) {
-        List<String> items = playerInventory.getOrDefault(playerId, new ArrayList<>());
-        return items.contains(itemId);
-    }
-
-    private void addItem(String playerId, String itemId) {
-        List<String> items = playerInventory.computeIfAbsent(playerId, k -> new ArrayList<>());
-        items.add(itemId);
-    }
-
-    private void removeItem(String playerId, String itemId) {
-        List<String> items = playerInventory.get(playerId);
-        if (items != null) {
-            items.remove(itemId);
-        }
+    private PlayerAggregate loadPlayer(String playerId) {
+        return players.get(playerId);
     }
 
     // ================= 小游戏系统 =================
@@ -392,20 +540,32 @@ public class PetService {
     /**
      * 开始小游戏
      */
-    public MiniGame.GameResult startMiniGame(String playerId, MiniGame.GameType gameType) {
-        Pet pet = getPet(playerId);
-        if (pet == null) {
-            return new MiniGame.GameResult(false, "没有找到宠物", null);
-        }
+    public CompletableFuture<MiniGame.GameResult> startMiniGame(String playerId, MiniGame.GameType gameType) {
+        return executor.submit(playerId, () -> {
+            PlayerAggregate player = loadPlayer(playerId);
+            if (player == null) {
+                return new MiniGame.GameResult(false, "没有找到宠物", null);
+            }
+            return startMiniGame(player, gameType);
+        });
+    }
+
+    private MiniGame.GameResult startMiniGame(PlayerAggregate player, MiniGame.GameType gameType) {
+        String playerId = player.getPlayerId();
 
         // 检查宠物状态
-        if (pet.getStats().getEnergy() < 20) {
+        if (player.getPet().getStats().getEnergy() < 20) {
             return new MiniGame.GameResult(false, "宠物太累了，无法玩游戏", null);
         }
 
-        // 创建游戏会话
+        // 创建游戏会话，替换掉之前未完成的会话
         MiniGame.GameSession session = new MiniGame.GameSession(playerId, gameType);
-        activeSessions.put(session.getSessionId(), session);
+        if (player.getActiveSession() != null) {
+            sessionOwners.remove(player.getActiveSession().getSessionId());
+        }
+        player.setActiveSession(session);
+        sessionOwners.put(session.getSessionId(), playerId);
+        push.publish(player);
 
         // 初始化游戏数据
         switch (gameType) {
@@ -441,31 +601,40 @@ public class PetService {
     /**
      * 处理游戏输入
      */
-    public MiniGame.GameResult processGameInput(String sessionId, Map<String, Object> input) {
-        MiniGame.GameSession session = activeSessions.get(sessionId);
-        if (session == null) {
+    public CompletableFuture<MiniGame.GameResult> processGameInput(String sessionId, Map<String, Object> input) {
+        String playerId = sessionOwners.get(sessionId);
+        if (playerId == null) {
+            return CompletableFuture.completedFuture(new MiniGame.GameResult(false, "游戏会话不存在", null));
+        }
+        return executor.submit(playerId, () -> processGameInput(players.get(playerId), sessionId, input));
+    }
+
+    private MiniGame.GameResult processGameInput(PlayerAggregate player, String sessionId, Map<String, Object> input) {
+        // 拿到玩家执行权后重新确认会话仍然有效
+        MiniGame.GameSession session = player != null ? player.getActiveSession() : null;
+        if (session == null || !session.getSessionId().equals(sessionId)) {
             return new MiniGame.GameResult(false, "游戏会话不存在", null);
         }
 
         switch (session.getGameType()) {
             case MEMORY -> {
-                return processMemoryGameInput(session, input);
+                return processMemoryGameInput(player, session, input);
             }
             case REACTION -> {
-                return processReactionGameInput(session, input);
+                return processReactionGameInput(player, session, input);
             }
             case PUZZLE -> {
-                return processPuzzleGameInput(session, input);
+                return processPuzzleGameInput(player, session, input);
             }
             case TAP -> {
-                return processTapGameInput(session, input);
+                return processTapGameInput(player, session, input);
             }
         }
 
         return new MiniGame.GameResult(false, "未知游戏类型", session);
     }
 
-    private MiniGame.GameResult processMemoryGameInput(MiniGame.GameSession session, Map<String, Object> input) {
+    private MiniGame.GameResult processMemoryGameInput(PlayerAggregate player, MiniGame.GameSession session, Map<String, Object> input) {
         @SuppressWarnings("unchecked")
         List<String> sequence = (List<String>) session.getGameData("sequence");
         @SuppressWarnings("unchecked")
@@ -478,7 +647,7 @@ public class PetService {
             // 检查到目前为止是否正确
             for (int i = 0; i < playerSequence.size(); i++) {
                 if (!sequence.get(i).equals(playerSequence.get(i))) {
-                    return finishGame(session, false, "记忆错误！正确答案是：" + String.join(" ", sequence));
+                    return finishGame(player, session, false, "记忆错误！正确答案是：" + String.join(" ", sequence));
                 }
             }
 
@@ -488,7 +657,7 @@ public class PetService {
                 session.setCurrentRound(session.getCurrentRound() + 1);
                 
                 if (session.getCurrentRound() >= session.getMaxRounds()) {
-                    return finishGame(session, true, "恭喜！记忆游戏完成！");
+                    return finishGame(player, session, true, "恭喜！记忆游戏完成！");
                 } else {
                     // 下一轮，序列更长
                     List<String> newSequence = MiniGame.MemoryGameGenerator.generateSequence(sequence.size() + 1);
@@ -504,7 +673,7 @@ public class PetService {
         return new MiniGame.GameResult(false, "输入过多", session);
     }
 
-    private MiniGame.GameResult processReactionGameInput(MiniGame.GameSession session, Map<String, Object> input) {
+    private MiniGame.GameResult processReactionGameInput(PlayerAggregate player, MiniGame.GameSession session, Map<String, Object> input) {
         int correctClicks = (Integer) session.getGameData("correctClicks");
         int totalClicks = (Integer) session.getGameData("totalClicks");
         
@@ -524,16 +693,16 @@ public class PetService {
         if (totalClicks >= 10) {
             double accuracy = (double) correctClicks / totalClicks;
             if (accuracy >= 0.7) {
-                return finishGame(session, true, String.format("反应游戏完成！准确率：%.1f%%", accuracy * 100));
+                return finishGame(player, session, true, String.format("反应游戏完成！准确率：%.1f%%", accuracy * 100));
             } else {
-                return finishGame(session, false, String.format("反应游戏失败！准确率：%.1f%% (需要70%%以上)", accuracy * 100));
+                return finishGame(player, session, false, String.format("反应游戏失败！准确率：%.1f%% (需要70%%以上)", accuracy * 100));
             }
         }
         
         return new MiniGame.GameResult(true, "继续点击目标！", session);
     }
 
-    private MiniGame.GameResult processPuzzleGameInput(MiniGame.GameSession session, Map<String, Object> input) {
+    private MiniGame.GameResult processPuzzleGameInput(PlayerAggregate player, MiniGame.GameSession session, Map<String, Object> input) {
         MiniGame.PuzzleQuestion question = (MiniGame.PuzzleQuestion) session.getGameData("question");
         String answer = (String) input.get("answer");
         
@@ -542,7 +711,7 @@ public class PetService {
             session.setCurrentRound(session.getCurrentRound() + 1);
             
             if (session.getCurrentRound() >= session.getMaxRounds()) {
-                return finishGame(session, true, "恭喜！猜谜游戏完成！");
+                return finishGame(player, session, true, "恭喜！猜谜游戏完成！");
             } else {
                 // 下一题
                 MiniGame.PuzzleQuestion newQuestion = MiniGame.PuzzleGameGenerator.getRandomQuestion();
@@ -550,11 +719,11 @@ public class PetService {
                 return new MiniGame.GameResult(true, "回答正确！下一题...", session);
             }
         } else {
-            return finishGame(session, false, "回答错误！正确答案包括：" + String.join(", ", question.getCorrectAnswers()));
+            return finishGame(player, session, false, "回答错误！正确答案包括：" + String.join(", ", question.getCorrectAnswers()));
         }
     }
 
-    private MiniGame.GameResult processTapGameInput(MiniGame.GameSession session, Map<String, Object> input) {
+    private MiniGame.GameResult processTapGameInput(PlayerAggregate player, MiniGame.GameSession session, Map<String, Object> input) {
         int taps = (Integer) session.getGameData("taps");
         long startTime = (Long) session.getGameData("startTime");
         int timeLimit = (Integer) session.getGameData("timeLimit");
@@ -565,13 +734,13 @@ public class PetService {
         
         long elapsed = (System.currentTimeMillis() - startTime) / 1000;
         if (elapsed >= timeLimit) {
-            return finishGame(session, true, String.format("拍拍游戏完成！总共拍了 %d 次！", taps));
+            return finishGame(player, session, true, String.format("拍拍游戏完成！总共拍了 %d 次！", taps));
         }
         
         return new MiniGame.GameResult(true, String.format("继续拍拍！剩余时间：%d秒", timeLimit - elapsed), session);
     }
 
-    private MiniGame.GameResult finishGame(MiniGame.GameSession session, boolean success, String message) {
+    private MiniGame.GameResult finishGame(PlayerAggregate player, MiniGame.GameSession session, boolean success, String message) {
         session.setState(success ? MiniGame.GameState.GAME_COMPLETE : MiniGame.GameState.FAILED);
         session.setEndTime(LocalDateTime.now());
         
@@ -588,142 +757,361 @@ public class PetService {
             result.setExperienceEarned(expEarned);
             
             // 给予奖励
-            addCoins(session.getPlayerId(), coinsEarned);
-            Pet pet = getPet(session.getPlayerId());
-            if (pet != null) {
-                pet.getStats().addExperience(expEarned);
-                pet.updateLastInteraction();
-            }
+            player.addCoins(coinsEarned);
+            Pet pet = player.getPet();
+            pet.getStats().addExperience(expEarned);
+            pet.updateLastInteraction();
             
             // 更新成就
-            updateAchievement(session.getPlayerId(), Achievement.AchievementType.GAMES_WON, 1);
-            updatePlayerStat(session.getPlayerId(), "games_won", 1);
+            updateAchievement(player, Achievement.AchievementType.GAMES_WON, 1);
+            player.incrementStat("games_won", 1);
+            record(player, JournalRecord.Operation.FINISH_GAME);
         }
         
         // 移除活跃会话
-        activeSessions.remove(session.getSessionId());
+        player.setActiveSession(null);
+        sessionOwners.remove(session.getSessionId());
+        push.publish(player);
         return result;
     }
 
     /**
      * 获取活跃游戏会话
      */
-    public MiniGame.GameSession getActiveGameSession(String playerId) {
-        return activeSessions.values().stream()
-            .filter(session -> session.getPlayerId().equals(playerId))
-            .findFirst()
-            .orElse(null);
+    public CompletableFuture<MiniGame.GameSession> getActiveGameSession(String playerId) {
+        return executor.submit(playerId, () -> {
+            PlayerAggregate player = players.get(playerId);
+            return player != null ? player.getActiveSession() : null;
+        });
     }
 
     // ================= 成就系统 =================
-    
+
     /**
-     * 初始化玩家成就
+     * 记录累加型成就事件
      */
-    private void initializePlayerAchievements(String playerId) {
-        if (!playerAchievements.containsKey(playerId)) {
-            List<Achievement> achievements = new ArrayList<>();
-            for (Achievement template : Achievement.getDefaultAchievements()) {
-                Achievement playerAchievement = new Achievement(
-                    template.getId(), template.getName(), template.getDescription(),
-                    template.getEmoji(), template.getType(), template.getTargetValue(),
-                    template.getReward()
-                );
-                achievements.add(playerAchievement);
-            }
-            playerAchievements.put(playerId, achievements);
+    private void updateAchievement(PlayerAggregate player, Achievement.AchievementType type, int value) {
+        if (player.getAchievementBook().queueAdd(type, value)) {
+            achievements.submit(player.getPlayerId());
         }
-        
-        if (!playerStats.containsKey(playerId)) {
-            playerStats.put(playerId, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * 记录绝对值型成就事件
+     */
+    private void setAchievementProgress(PlayerAggregate player, Achievement.AchievementType type, int value) {
+        if (player.getAchievementBook().queueSet(type, value)) {
+            achievements.submit(player.getPlayerId());
         }
     }
 
     /**
-     * 更新成就进度
+     * 成就处理器取到玩家：进入玩家的串行上下文结算合并后的事件
+     * 解锁位、奖励和清空的待处理区写在同一条日志记录里，奖励恰好发放一次。
+     * 结算失败（例如命令被拒绝）时待处理区还在，把玩家重新交给成就处理器，下一个窗口再试
      */
-    public List<Achievement> updateAchievement(String playerId, Achievement.AchievementType type, int value) {
-        initializePlayerAchievements(playerId);
-        
-        List<Achievement> playerAchievements = this.playerAchievements.get(playerId);
-        List<Achievement> newlyUnlocked = new ArrayList<>();
-        
-        for (Achievement achievement : playerAchievements) {
-            if (achievement.getType() == type && !achievement.isUnlocked()) {
-                boolean unlocked = achievement.updateProgress(value);
-                if (unlocked) {
-                    newlyUnlocked.add(achievement);
-                    // 给予奖励
-                    addCoins(playerId, achievement.getReward().getCoins());
-                    Pet pet = getPet(playerId);
-                    if (pet != null) {
-                        pet.getStats().addExperience(achievement.getReward().getExperience());
-                        
-                        // 特殊物品奖励
-                        if (achievement.getReward().getSpecialItem() != null) {
-                            addItem(playerId, achievement.getReward().getSpecialItem());
-                        }
-                    }
-                }
+    private void onAchievementsDue(String playerId) {
+        executor.submit(playerId, () -> {
+            PlayerAggregate player = players.get(playerId);
+            if (player != null && player.getAchievementBook().hasPending()) {
+                player.getAchievementBook().flush(index -> grantReward(player, Achievement.catalog().get(index)));
+                record(player, JournalRecord.Operation.AWARD_ACHIEVEMENTS);
             }
+            return null;
+        }).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                log.error("成就结算失败，稍后重试：{}", playerId, failure);
+                achievements.submit(playerId);
+            }
+        });
+    }
+
+    /**
+     * 取出尚未通知客户端的解锁成就，并记录一条日志：通知过的成就恢复后不再重复通知
+     * 必须在玩家的串行上下文中调用
+     */
+    public List<Achievement> takeUnlockedAchievements(PlayerAggregate player) {
+        long mask = player.getAchievementBook().takeUnannounced();
+        if (mask == 0) {
+            return Collections.emptyList();
         }
-        
-        return newlyUnlocked;
+        record(player, JournalRecord.Operation.ANNOUNCE_ACHIEVEMENTS);
+        return achievementsOf(mask);
     }
 
     /**
-     * 设置成就进度（用于绝对值类型）
+     * 位图中的成就，按目录顺序
      */
-    public List<Achievement> setAchievementProgress(String playerId, Achievement.AchievementType type, int value) {
-        initializePlayerAchievements(playerId);
-        
-        List<Achievement> playerAchievements = this.playerAchievements.get(playerId);
-        List<Achievement> newlyUnlocked = new ArrayList<>();
-        
-        for (Achievement achievement : playerAchievements) {
-            if (achievement.getType() == type && !achievement.isUnlocked()) {
-                boolean unlocked = achievement.setProgress(value);
-                if (unlocked) {
-                    newlyUnlocked.add(achievement);
-                    // 给予奖励
-                    addCoins(playerId, achievement.getReward().getCoins());
-                    Pet pet = getPet(playerId);
-                    if (pet != null) {
-                        pet.getStats().addExperience(achievement.getReward().getExperience());
-                        
-                        // 特殊物品奖励
-                        if (achievement.getReward().getSpecialItem() != null) {
-                            addItem(playerId, achievement.getReward().getSpecialItem());
-                        }
-                    }
-                }
+    private static List<Achievement> achievementsOf(long mask) {
+        if (mask == 0) {
+            return Collections.emptyList();
+        }
+        List<Achievement> unlocked = new ArrayList<>(Long.bitCount(mask));
+        for (int i = 0; i < Achievement.catalog().size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                unlocked.add(Achievement.catalog().get(i));
             }
         }
+        return unlocked;
+    }
+
+    /**
+     * 动作结果中的解锁通知，调用方随后记录的日志一并清掉未通知位
+     */
+    private String unlockNotices(PlayerAggregate player) {
+        StringBuilder message = new StringBuilder();
+        for (Achievement achievement : achievementsOf(player.getAchievementBook().takeUnannounced())) {
+            message.append("\n🏆 解锁成就：").append(achievement.getName()).append(" ").append(achievement.getEmoji());
+        }
+        return message.toString();
+    }
+
+    /**
+     * 发放成就奖励
+     */
+    private void grantReward(PlayerAggregate player, Achievement achievement) {
+        Achievement.Reward reward = achievement.getReward();
+        player.addCoins(reward.getCoins());
+        player.getPet().getStats().addExperience(reward.getExperience());
         
-        return newlyUnlocked;
+        // 特殊物品奖励
+        if (reward.getSpecialItem() != null) {
+            player.addItem(reward.getSpecialItem());
+        }
     }
 
     /**
      * 获取玩家成就列表
      */
-    public List<Achievement> getPlayerAchievements(String playerId) {
-        initializePlayerAchievements(playerId);
-        return new ArrayList<>(playerAchievements.get(playerId));
+    public CompletableFuture<List<Achievement>> getPlayerAchievements(String playerId) {
+        return readPlayer(playerId, this::achievementsOf);
     }
 
     /**
-     * 更新玩家统计数据
+     * 玩家的成就列表，玩家不存在时返回初始成就列表，必须在玩家的串行上下文中调用
      */
-    private void updatePlayerStat(String playerId, String statName, int increment) {
-        Map<String, Integer> stats = playerStats.computeIfAbsent(playerId, k -> new ConcurrentHashMap<>());
-        stats.put(statName, stats.getOrDefault(statName, 0) + increment);
+    public List<Achievement> achievementsOf(PlayerAggregate player) {
+        if (player == null) {
+            return new ArrayList<>(Achievement.getDefaultAchievements());
+        }
+        return player.getAchievements();
     }
 
     /**
      * 获取玩家统计数据
      */
-    public Map<String, Integer> getPlayerStats(String playerId) {
-        return new HashMap<>(playerStats.getOrDefault(playerId, new HashMap<>()));
+    public CompletableFuture<Map<String, Integer>> getPlayerStats(String playerId) {
+        return readPlayer(playerId, this::statsOf);
+    }
+
+    /**
+     * 玩家统计数据的副本，玩家不存在时为空，必须在玩家的串行上下文中调用
+     */
+    public Map<String, Integer> statsOf(PlayerAggregate player) {
+        return player != null ? new HashMap<>(player.getStats()) : new HashMap<>();
+    }
+
+    // ================= 状态推送 =================
+
+    /**
+     * 订阅玩家的状态变化：先收到一条包含全部字段的当前状态，之后每次变化收到变化的字段
+     * 玩家不存在时收到一条 deleted 推送，创建宠物后开始收到状态
+     */
+    public Flux<StatePushHub.Delta> watch(String playerId) {
+        Mono<StatePushHub.Delta> initial = Mono.defer(() -> Mono.fromFuture(readPlayer(playerId,
+            player -> player != null ? push.snapshot(player) : StatePushHub.deleted(0))));
+        // 先订阅变化再读取当前状态，两者之间的变化不会丢失
+        return push.updates(playerId).mergeWith(initial);
+    }
+
+    // ================= 持久化 =================
+
+    private void record(PlayerAggregate player, JournalRecord.Operation operation) {
+        player.touch();
+        // 时间型成就的计时状态随本条日志一起写入
+        if (operation != JournalRecord.Operation.DELETE_PET) {
+            milestones.evaluate(player);
+        }
+        journal.append(player.getPlayerId(), operation, player::toSnapshot);
+        if (operation == JournalRecord.Operation.DELETE_PET) {
+            careAlerts.cancel(player.getPlayerId());
+            milestones.cancel(player.getPlayerId());
+            push.publishDeleted(player.getPlayerId());
+        } else {
+            careAlerts.evaluate(player);
+            push.publish(player);
+        }
+    }
+
+    /**
+     * 时间轮到期：进入玩家的串行上下文重新评估照顾提醒
+     */
+    private void onCareAlertDue(String playerId) {
+        executor.submit(playerId, () -> {
+            PlayerAggregate player = players.get(playerId);
+            if (player != null) {
+                careAlerts.evaluate(player);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 时间型成就到期：进入玩家的串行上下文重新评估
+     */
+    private void onMilestoneDue(String playerId) {
+        executor.submit(playerId, () -> {
+            PlayerAggregate player = players.get(playerId);
+            if (player != null) {
+                milestones.evaluate(player);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 推送时间轮到期：显示的数值随时间变化了，进入玩家的串行上下文推送变化
+     */
+    private void onPushDue(String playerId) {
+        executor.submit(playerId, () -> {
+            PlayerAggregate player = players.get(playerId);
+            if (player != null) {
+                push.publish(player);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 采集所有玩家状态，用于生成全量快照
+     * 每个玩家在自己的串行上下文中生成快照，不会读到执行到一半的命令；日志的采集线程调用这里，
+     * 写线程在等待期间继续写盘，阻塞在满队列上的命令线程不会与采集互相等待。
+     * 采集期间正在修改的玩家，其日志记录序号一定晚于快照序号，恢复时会被日志尾部覆盖。
+     */
+    private Collection<PlayerSnapshot> capturePlayers() {
+        List<CompletableFuture<PlayerSnapshot>> captures = new ArrayList<>(players.size());
+        for (String playerId : players.keySet()) {
+            captures.add(executor.submit(playerId, () -> {
+                PlayerAggregate player = players.get(playerId);
+                return player != null ? player.toSnapshot() : null;
+            }));
+        }
+        List<PlayerSnapshot> snapshots = new ArrayList<>(captures.size());
+        for (CompletableFuture<PlayerSnapshot> capture : captures) {
+            PlayerSnapshot snapshot = capture.join();
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * 背包中的一种物品及其数量
+     */
+    public static class InventoryEntry {
+        private final GameItem item;
+        private final int quantity;
+
+        public InventoryEntry(GameItem item, int quantity) {
+            this.item = item;
+            this.quantity = quantity;
+        }
+
+        public GameItem getItem() { return item; }
+        public int getQuantity() { return quantity; }
+    }
+
+    /**
+     * 批量执行中的一条命令；无法解析的命令带着错误信息，执行时直接记为失败
+     */
+    public static class Command {
+        public enum Kind { ACTION, USE_ITEM, BUY_ITEM }
+
+        private final Kind kind;
+        private final PetAction action;
+        private final String itemId;
+        private final String error;
+
+        private Command(Kind kind, PetAction action, String itemId, String error) {
+            this.kind = kind;
+            this.action = action;
+            this.itemId = itemId;
+            this.error = error;
+        }
+
+        public static Command action(PetAction action) { return new Command(Kind.ACTION, action, null, null); }
+        public static Command useItem(String itemId) { return new Command(Kind.USE_ITEM, null, itemId, null); }
+        public static Command buyItem(String itemId) { return new Command(Kind.BUY_ITEM, null, itemId, null); }
+        public static Command invalid(String error) { return new Command(null, null, null, error); }
+
+        public Kind getKind() { return kind; }
+        public PetAction getAction() { return action; }
+        public String getItemId() { return itemId; }
+        public String getError() { return error; }
+    }
+
+    /**
+     * 批量执行结果：与命令一一对应的结果、最终状态和执行后宠物信息的实体标签
+     */
+    public static class BatchResult<T> {
+        private final List<ActionResult> results;
+        private final T state;
+        private final String etag;
+
+        public BatchResult(List<ActionResult> results, T state, String etag) {
+            this.results = results;
+            this.state = state;
+            this.etag = etag;
+        }
+
+        public List<ActionResult> getResults() { return results; }
+        public T getState() { return state; }
+        public String getEtag() { return etag; }
+    }
+
+    /**
+     * 客户端离线记录的一条动作：客户端序号、发生时刻（客户端时钟的 epoch 毫秒）；无法解析的动作带着错误信息
+     */
+    public static class SyncEntry {
+        private final long seq;
+        private final long at;
+        private final PetAction action;
+        private final String error;
+
+        public SyncEntry(long seq, long at, PetAction action, String error) {
+            this.seq = seq;
+            this.at = at;
+            this.action = action;
+            this.error = error;
+        }
+
+        public long getSeq() { return seq; }
+        public long getAt() { return at; }
+        public PetAction getAction() { return action; }
+        public String getError() { return error; }
+    }
+
+    /**
+     * 离线同步结果：本次新应用的操作（按序号，重复上传的不在其中）、已应用的最大序号、最终状态和实体标签
+     */
+    public static class SyncResult<T> {
+        private final Map<Long, ActionResult> results;
+        private final long lastAppliedSeq;
+        private final T state;
+        private final String etag;
+
+        public SyncResult(Map<Long, ActionResult> results, long lastAppliedSeq, T state, String etag) {
+            this.results = results;
+            this.lastAppliedSeq = lastAppliedSeq;
+            this.state = state;
+            this.etag = etag;
+        }
+
+        public Map<Long, ActionResult> getResults() { return results; }
+        public long getLastAppliedSeq() { return lastAppliedSeq; }
+        public T getState() { return state; }
+        public String getEtag() { return etag; }
     }
 
     /**
@@ -733,6 +1121,8 @@ public class PetService {
         private final boolean success;
         private final String message;
         private final Pet pet;
+        private String etag; // 执行后宠物信息的实体标签
+        private StatePushHub.Delta delta; // 执行后变化的字段，只在请求增量响应时生成
 
         public ActionResult(boolean success, String message, Pet pet) {
             this.success = success;
@@ -743,5 +1133,9 @@ public class PetService {
         public boolean isSuccess() { return success; }
         public String getMessage() { return message; }
         public Pet getPet() { return pet; }
+        public String getEtag() { return etag; }
+        public void setEtag(String etag) { this.etag = etag; }
+        public StatePushHub.Delta getDelta() { return delta; }
+        public void setDelta(StatePushHub.Delta delta) { this.delta = delta; }
     }
 }
@@ -0,0 +1,315 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.*;
+import com.example.aiinterviewassistant.persistence.PlayerSnapshot;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 玩家聚合
+ * 一个玩家的全部状态（宠物、金币、背包、成就、统计、进行中的小游戏）集中在一个对象里，
+ * 每次请求只查找一次，作为一个工作单元整体读写，返回给前端的视图也来自同一个对象。
+ */
+public class PlayerAggregate {
+    private final String playerId;
+    private final Pet pet;
+    private int coins;
+    private final int[] inventory = new int[GameItem.catalogSize()]; // 下标为物品目录编号，值为数量
+    private int inventorySize;
+    private final AchievementBook achievementBook = new AchievementBook();
+    private final Map<String, Integer> stats;
+    private MiniGame.GameSession activeSession;
+
+    // 状态版本号：低 24 位是本聚合的变更计数，其余高位是聚合创建时取的代号。
+    // 变更只递增自己的计数，不争用共享的计数器；删除后重建的玩家代号更大，版本号不会与旧的重复，也不会倒退。
+    // 代号序列从进程启动时刻（2024 年起的秒数）开始，重启后新建的聚合不会用到上次进程已发出的代号；
+    // 从快照恢复的聚合取比快照中代号更大的代号。整个版本号保持在 2^53 以内，前端按数字比较不丢精度。
+    private static final int COUNT_BITS = 24;
+    private static final long GENERATION_EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    static final long BOOT_GENERATION = (System.currentTimeMillis() - GENERATION_EPOCH_MILLIS) / 1000;
+    private static final AtomicLong INCARNATIONS = new AtomicLong(BOOT_GENERATION);
+    private long version = INCARNATIONS.incrementAndGet() << COUNT_BITS;
+
+    // 完美照顾：所有数值保持在标准以上的起始时刻，以及按当前数值推算的结束时刻（epoch 毫秒，0 表示不在完美状态）
+    private long perfectCareSince;
+    private long perfectCareUntil;
+
+    // 离线同步：已应用的最大客户端操作序号，序号不大于它的操作视为重复上传
+    private long lastSyncSeq;
+
+    public PlayerAggregate(String playerId, Pet pet, int coins) {
+        this.playerId = playerId;
+        this.pet = pet;
+        this.coins = coins;
+        this.stats = new HashMap<>();
+    }
+
+    // ================= 金币 =================
+
+    public int getCoins() { return coins; }
+
+    public void addCoins(int amount) {
+        coins = Math.max(0, coins + amount);
+    }
+
+    // ================= 背包 =================
+
+    /**
+     * 背包中物品的总件数
+     */
+    public int getInventorySize() { return inventorySize; }
+
+    public int countOf(String itemId) {
+        int index = GameItem.indexOf(itemId);
+        return index >= 0 ? inventory[index] : 0;
+    }
+
+    /**
+     * 目录编号为 index 的物品数量
+     */
+    public int countAt(int index) {
+        return inventory[index];
+    }
+
+    public boolean hasItem(String itemId) {
+        return countOf(itemId) > 0;
+    }
+
+    /**
+     * 添加物品，不在物品目录中的物品会被忽略
+     */
+    public void addItem(String itemId) {
+        addItem(itemId, 1);
+    }
+
+    public void addItem(String itemId, int quantity) {
+        int index = GameItem.indexOf(itemId);
+        if (index >= 0 && quantity > 0) {
+            inventory[index] += quantity;
+            inventorySize += quantity;
+        }
+    }
+
+    public void removeItem(String itemId) {
+        int index = GameItem.indexOf(itemId);
+        if (index >= 0 && inventory[index] > 0) {
+            inventory[index]--;
+            inventorySize--;
+        }
+    }
+
+    // ================= 统计 =================
+
+    public Map<String, Integer> getStats() { return stats; }
+
+    public void incrementStat(String statName, int increment) {
+        stats.merge(statName, increment, Integer::sum);
+    }
+
+    // ================= 版本 =================
+
+    public long getVersion() { return version; }
+
+    /**
+     * 版本号中的代号部分
+     */
+    static long generationOf(long version) {
+        return version >>> COUNT_BITS;
+    }
+
+    /**
+     * 状态发生了对外可见的变化
+     */
+    public void touch() {
+        version++;
+    }
+
+    /**
+     * 实体标签（ETag），由状态版本号派生，判断客户端缓存是否有效时不需要构建响应体
+     * 只取决于状态的接口（成就、详细统计）直接用版本号；状态推送的事件 ID 也是版本号。
+     * 版本号跨重启不重复（见 {@link #version} 的说明），重启前客户端缓存的标签不会误判为未修改
+     */
+    public String stateTag() {
+        return Long.toString(version, 36);
+    }
+
+    /**
+     * 宠物信息的实体标签：同一版本内视图随时间变化，附上当前视图的失效时刻，
+     * 两次变化之间的任意时刻算出的值都相同
+     */
+    public String infoTag(long now) {
+        return stateTag() + "-" + Long.toString(pet.viewChangesAt(now), 36);
+    }
+
+    /**
+     * 玩家统计的实体标签：同一版本内只有宠物年龄（天）随时间变化
+     */
+    public String statsTag() {
+        return stateTag() + "-" + pet.getAgeInDays();
+    }
+
+    // ================= 持久化 =================
+
+    /**
+     * 生成当前状态的深拷贝快照
+     */
+    public PlayerSnapshot toSnapshot() {
+        // 所有数值投影到同一时刻，恢复时以该时刻作为结算点
+        long now = System.currentTimeMillis();
+        PlayerSnapshot snapshot = new PlayerSnapshot();
+        snapshot.setPlayerId(playerId);
+        snapshot.setPetId(pet.getId());
+        snapshot.setPetName(pet.getName());
+        snapshot.setPetType(pet.getType() != null ? pet.getType().name() : null);
+        snapshot.setColor(pet.getColor());
+        snapshot.setBirthDate(pet.getBirthDateMillis());
+        snapshot.setLastInteraction(pet.getLastInteractionMillis());
+        Mood mood = pet.getMood(now);
+        snapshot.setMood(mood != null ? mood.getKey() : null);
+
+        PetStats petStats = pet.getStats();
+        snapshot.setAsleep(petStats.isSleepingAt(now));
+        snapshot.setHunger(petStats.hungerAt(now));
+        snapshot.setCleanliness(petStats.cleanlinessAt(now));
+        snapshot.setHappiness(petStats.happinessAt(now));
+        snapshot.setEnergy(petStats.energyAt(now));
+        snapshot.setHealth(petStats.healthAt(now));
+        snapshot.setExperience(petStats.getExperience());
+        snapshot.setLevel(petStats.getLevel());
+        snapshot.setStatsUpdatedAt(petStats.getLastUpdateMillis());
+        snapshot.setDecaySettledAt(now);
+        snapshot.setDecayOrigin(petStats.getDecayOrigin());
+        snapshot.setDecayCarry(petStats.getDecayCarry());
+
+        snapshot.setCoins(coins);
+        Map<String, Integer> items = new LinkedHashMap<>();
+        for (int i = 0; i < inventory.length; i++) {
+            if (inventory[i] > 0) {
+                items.put(GameItem.byIndex(i).getId(), inventory[i]);
+            }
+        }
+        snapshot.setItems(items);
+        List<Achievement> catalog = Achievement.catalog();
+        for (int i = 0; i < catalog.size(); i++) {
+            snapshot.getAchievements().add(new PlayerSnapshot.AchievementProgress(
+                catalog.get(i).getId(), achievementBook.progressOf(i), achievementBook.isUnlocked(i),
+                achievementBook.unlockedAtOf(i), achievementBook.isUnannounced(i)));
+        }
+        if (achievementBook.hasPending()) {
+            for (Achievement.AchievementType type : Achievement.AchievementType.values()) {
+                if (achievementBook.pendingAddOf(type) != 0) {
+                    snapshot.getPendingAchievementAdds().put(type.name(), achievementBook.pendingAddOf(type));
+                }
+                if (achievementBook.pendingSetOf(type) >= 0) {
+                    snapshot.getPendingAchievementSets().put(type.name(), achievementBook.pendingSetOf(type));
+                }
+            }
+        }
+        snapshot.setStats(new HashMap<>(stats));
+        snapshot.setPerfectCareSince(perfectCareSince);
+        snapshot.setPerfectCareUntil(perfectCareUntil);
+        snapshot.setLastSyncSeq(lastSyncSeq);
+        snapshot.setVersion(version);
+        return snapshot;
+    }
+
+    /**
+     * 从快照重建玩家聚合
+     */
+    public static PlayerAggregate fromSnapshot(PlayerSnapshot snapshot) {
+        PetStats petStats = new PetStats(snapshot.getHunger(), snapshot.getCleanliness(),
+            snapshot.getHappiness(), snapshot.getEnergy(), snapshot.getHealth());
+        petStats.setExperience(snapshot.getExperience());
+        petStats.setLevel(snapshot.getLevel());
+        petStats.setLastUpdateMillis(snapshot.getStatsUpdatedAt());
+        // 旧格式的快照没有衰减锚点，以最后互动时间为起点
+        long decayOrigin = snapshot.getDecayOrigin() > 0 ? snapshot.getDecayOrigin() : snapshot.getLastInteraction();
+        long settledAt = snapshot.getDecaySettledAt() > 0 ? snapshot.getDecaySettledAt() : decayOrigin;
+        petStats.restoreDecay(decayOrigin, settledAt, snapshot.getDecayCarry(), snapshot.isAsleep());
+
+        Pet pet = new Pet(snapshot.getPetName(),
+            snapshot.getPetType() != null ? PetType.valueOf(snapshot.getPetType()) : null);
+        pet.setId(snapshot.getPetId());
+        pet.setColor(snapshot.getColor());
+        pet.setBirthDateMillis(snapshot.getBirthDate());
+        pet.setLastInteractionMillis(snapshot.getLastInteraction());
+        pet.setMood(snapshot.getMood() != null ? Mood.fromKey(snapshot.getMood()) : null);
+        pet.setStats(petStats);
+
+        PlayerAggregate player = new PlayerAggregate(snapshot.getPlayerId(), pet, snapshot.getCoins());
+        for (Map.Entry<String, Integer> entry : snapshot.getItems().entrySet()) {
+            player.addItem(entry.getKey(), entry.getValue());
+        }
+        // 旧格式的快照按件记录物品
+        for (String itemId : snapshot.getInventory()) {
+            player.addItem(itemId);
+        }
+        player.stats.putAll(snapshot.getStats());
+        player.setPerfectCare(snapshot.getPerfectCareSince(), snapshot.getPerfectCareUntil());
+        player.lastSyncSeq = snapshot.getLastSyncSeq();
+        // 快照之后可能还有没落盘的变更已经发出了版本号，换一个更大的代号重新计数（旧格式的快照没有版本号，取本次启动的代号）；
+        // 序列跟着抬高，删除后重建时代号仍然更大
+        long generation = Math.max(generationOf(snapshot.getVersion()) + 1, BOOT_GENERATION);
+        INCARNATIONS.accumulateAndGet(generation, Math::max);
+        player.version = generation << COUNT_BITS;
+
+        Map<String, PlayerSnapshot.AchievementProgress> progress = new HashMap<>();
+        for (PlayerSnapshot.AchievementProgress entry : snapshot.getAchievements()) {
+            progress.put(entry.getId(), entry);
+        }
+        List<Achievement> catalog = Achievement.catalog();
+        for (int i = 0; i < catalog.size(); i++) {
+            PlayerSnapshot.AchievementProgress entry = progress.get(catalog.get(i).getId());
+            if (entry != null) {
+                player.achievementBook.restore(i, entry.getProgress(), entry.isUnlocked(), entry.getUnlockedAt(),
+                    entry.isUnannounced());
+            }
+        }
+        for (Achievement.AchievementType type : Achievement.AchievementType.values()) {
+            player.achievementBook.restorePending(type,
+                snapshot.getPendingAchievementAdds().getOrDefault(type.name(), 0),
+                snapshot.getPendingAchievementSets().getOrDefault(type.name(), -1));
+        }
+        return player;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return epochMillis > 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()) : null;
+    }
+
+    // Getters and Setters
+    public String getPlayerId() { return playerId; }
+    public Pet getPet() { return pet; }
+    public AchievementBook getAchievementBook() { return achievementBook; }
+
+    /**
+     * 带进度的成就列表：玩家只保存进度簿，这里按共享目录临时生成
+     */
+    public List<Achievement> getAchievements() {
+        List<Achievement> catalog = Achievement.catalog();
+        List<Achievement> views = new ArrayList<>(catalog.size());
+        for (int i = 0; i < catalog.size(); i++) {
+            views.add(Achievement.withProgress(catalog.get(i), achievementBook.progressOf(i),
+                achievementBook.isUnlocked(i), toLocalDateTime(achievementBook.unlockedAtOf(i))));
+        }
+        return views;
+    }
+
+    public MiniGame.GameSession getActiveSession() { return activeSession; }
+    public void setActiveSession(MiniGame.GameSession activeSession) { this.activeSession = activeSession; }
+
+    public long getPerfectCareSince() { return perfectCareSince; }
+    public long getPerfectCareUntil() { return perfectCareUntil; }
+
+    public void setPerfectCare(long since, long until) {
+        this.perfectCareSince = since;
+        this.perfectCareUntil = until;
+    }
+
+    public long getLastSyncSeq() { return lastSyncSeq; }
+    public void setLastSyncSeq(long lastSyncSeq) { this.lastSyncSeq = lastSyncSeq; }
+}
@@ -0,0 +1,45 @@
+package com.example.aiinterviewassistant.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 玩家命令执行器
+ * 保证同一个玩家的命令串行执行（游戏逻辑内部因此不需要任何锁），不同玩家之间可以并行。
+ * 同一线程内的嵌套调用必须可重入。
+ */
+public interface PlayerCommandExecutor {
+
+    /**
+     * 在玩家的串行上下文中执行命令，阻塞直到得到结果
+     */
+    <T> T execute(String playerId, Supplier<T> command);
+
+    /**
+     * 提交命令，返回命令结果的 Future
+     * 基于锁的实现直接在调用线程执行，返回已完成的 Future
+     */
+    default <T> CompletableFuture<T> submit(String playerId, Supplier<T> command) {
+        try {
+            return CompletableFuture.completedFuture(execute(playerId, command));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * submit 是否只把命令交给其他线程、不在调用线程执行（调用线程可以是不能阻塞的事件循环线程）
+     */
+    default boolean isAsynchronous() {
+        return false;
+    }
+
+    /**
+     * 各分片的运行指标，不分片的实现返回空列表
+     */
+    default List<ShardMetrics> shardMetrics() {
+        return Collections.emptyList();
+    }
+}
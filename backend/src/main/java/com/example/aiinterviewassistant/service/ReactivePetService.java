@@ -0,0 +1,98 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.MiniGame;
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.model.PetType;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link PetService} 的非阻塞外观，供响应式路由使用
+ * 执行引擎是异步的（sharded）时，命令直接投递到分片线程，结果再切换到并行调度器继续处理，不占用分片线程；
+ * 基于锁的引擎（striped、global）会在调用线程上等锁、等日志背压，不能放在事件循环线程执行，改为在弹性线程池上提交。
+ */
+@Service
+public class ReactivePetService {
+
+    private final PetService petService;
+    private final boolean asynchronous;
+    private final Scheduler offload = Schedulers.boundedElastic();
+
+    public ReactivePetService(PetService petService, PlayerCommandExecutor executor) {
+        this.petService = petService;
+        this.asynchronous = executor.isAsynchronous();
+    }
+
+    public Mono<Pet> createPet(String playerId, String petName, PetType petType) {
+        return call(() -> petService.createPet(playerId, petName, petType));
+    }
+
+    public <T> Mono<T> readPlayer(String playerId, Function<PlayerAggregate, T> reader) {
+        return call(() -> petService.readPlayer(playerId, reader));
+    }
+
+    public Mono<Pet> getPet(String playerId) {
+        return call(() -> petService.getPet(playerId));
+    }
+
+    public Mono<Boolean> deletePet(String playerId) {
+        return call(() -> petService.deletePet(playerId));
+    }
+
+    public Mono<PetService.ActionResult> executeAction(String playerId, PetAction action, boolean delta) {
+        return call(() -> petService.executeAction(playerId, action, delta));
+    }
+
+    public Mono<PetService.ActionResult> useItem(String playerId, String itemId, boolean delta) {
+        return call(() -> petService.useItem(playerId, itemId, delta));
+    }
+
+    public Mono<PetService.ActionResult> buyItem(String playerId, String itemId) {
+        return call(() -> petService.buyItem(playerId, itemId));
+    }
+
+    public <T> Mono<PetService.BatchResult<T>> executeBatch(String playerId, List<PetService.Command> commands,
+                                                            Function<PlayerAggregate, T> state) {
+        return call(() -> petService.executeBatch(playerId, commands, state));
+    }
+
+    public <T> Mono<PetService.SyncResult<T>> syncActions(String playerId, List<PetService.SyncEntry> entries,
+                                                          long clientTime, Function<PlayerAggregate, T> state) {
+        return call(() -> petService.syncActions(playerId, entries, clientTime, state));
+    }
+
+    public Mono<MiniGame.GameResult> startMiniGame(String playerId, MiniGame.GameType gameType) {
+        return call(() -> petService.startMiniGame(playerId, gameType));
+    }
+
+    public Mono<MiniGame.GameResult> processGameInput(String sessionId, Map<String, Object> input) {
+        return call(() -> petService.processGameInput(sessionId, input));
+    }
+
+    public Mono<MiniGame.GameSession> getActiveGameSession(String playerId) {
+        return call(() -> petService.getActiveGameSession(playerId));
+    }
+
+    /**
+     * 订阅玩家的状态变化，初始状态的读取同样不在事件循环线程上阻塞
+     */
+    public Flux<StatePushHub.Delta> watch(String playerId) {
+        Flux<StatePushHub.Delta> deltas = petService.watch(playerId);
+        return asynchronous ? deltas : deltas.subscribeOn(offload);
+    }
+
+    private <T> Mono<T> call(Supplier<CompletableFuture<T>> command) {
+        Mono<T> result = Mono.fromFuture(command);
+        return asynchronous ? result.publishOn(Schedulers.parallel()) : result.subscribeOn(offload);
+    }
+}
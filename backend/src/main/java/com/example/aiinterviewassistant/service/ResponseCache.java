@@ -0,0 +1,143 @@
+package com.example.aiinterviewassistant.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已序列化响应的缓存
+ * 按玩家和响应格式缓存最近一次生成的响应体字节，连同生成时的状态版本号和有效期：
+ * 版本号没变、也没到数值随时间变化的时刻，就直接返回缓存的字节，不再构建视图对象和调用 Jackson。
+ * 读取不加锁，命中只写条目自己的访问时刻，不同分片、不同玩家的读取互不争用；
+ * 容量有上限，超出时从少量条目中抽样，淘汰其中最久未访问的（近似 LRU）。
+ */
+@Component
+public class ResponseCache {
+
+    // 每次淘汰抽样的条目数
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(@Value("${app.cache.maxEntries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 查找与 version 对应、在 now 时刻仍然有效的响应体，没有时返回 null
+     */
+    public byte[] get(String key, long version, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version != version || now >= entry.validUntil) {
+            misses.increment();
+            return null;
+        }
+        if (entry.lastAccess != now) {
+            entry.lastAccess = now;
+        }
+        hits.increment();
+        return entry.body;
+    }
+
+    /**
+     * 缓存 version 对应的响应体，validUntil 之后失效
+     */
+    public void put(String key, long version, long validUntil, byte[] body) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (entries.put(key, new Entry(version, validUntil, body, System.currentTimeMillis())) == null) {
+            while (entries.size() > maxEntries && evictOne()) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public void evict(String key) {
+        entries.remove(key);
+    }
+
+    public Stats stats() {
+        Stats stats = new Stats();
+        stats.setEntries(entries.size());
+        stats.setMaxEntries(maxEntries);
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.setHits(hitCount);
+        stats.setMisses(missCount);
+        stats.setEvictions(evictions.sum());
+        long lookups = hitCount + missCount;
+        stats.setHitRate(lookups > 0 ? (double) hitCount / lookups : 0);
+        return stats;
+    }
+
+    /**
+     * 在抽样的条目中淘汰最久未访问的一个，并发淘汰时可能已被别的线程删掉，这时返回 false
+     */
+    private boolean evictOne() {
+        String victim = null;
+        long oldest = Long.MAX_VALUE;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SAMPLE && it.hasNext(); i++) {
+            Map.Entry<String, Entry> candidate = it.next();
+            if (candidate.getValue().lastAccess < oldest) {
+                oldest = candidate.getValue().lastAccess;
+                victim = candidate.getKey();
+            }
+        }
+        return victim != null && entries.remove(victim) != null;
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final long validUntil;
+        private final byte[] body;
+        private volatile long lastAccess;
+
+        private Entry(long version, long validUntil, byte[] body, long lastAccess) {
+            this.version = version;
+            this.validUntil = validUntil;
+            this.body = body;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * 缓存命中率等指标
+     */
+    public static class Stats {
+        private int entries;
+        private int maxEntries;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private double hitRate;
+
+        public int getEntries() { return entries; }
+        public void setEntries(int entries) { this.entries = entries; }
+
+        public int getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+        public long getHits() { return hits; }
+        public void setHits(long hits) { this.hits = hits; }
+
+        public long getMisses() { return misses; }
+        public void setMisses(long misses) { this.misses = misses; }
+
+        public long getEvictions() { return evictions; }
+        public void setEvictions(long evictions) { this.evictions = evictions; }
+
+        public double getHitRate() { return hitRate; }
+        public void setHitRate(double hitRate) { this.hitRate = hitRate; }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.aiinterviewassistant.service;
+
+/**
+ * 单个分片的运行指标（用于观察背压）
+ */
+public class ShardMetrics {
+    private final int shard;
+    private final int capacity;
+    private final int queueDepth;
+    private final long submitted;
+    private final long completed;
+    private final long failed;
+    private final long batches;
+    private final int maxBatchSize;
+    private final long producerStalls;
+
+    public ShardMetrics(int shard, int capacity, int queueDepth, long submitted, long completed,
+                        long failed, long batches, int maxBatchSize, long producerStalls) {
+        this.shard = shard;
+        this.capacity = capacity;
+        this.queueDepth = queueDepth;
+        this.submitted = submitted;
+        this.completed = completed;
+        this.failed = failed;
+        this.batches = batches;
+        this.maxBatchSize = maxBatchSize;
+        this.producerStalls = producerStalls;
+    }
+
+    /**
+     * 队列使用率 (0-1)
+     */
+    public double getUtilization() {
+        return capacity > 0 ? (double) queueDepth / capacity : 0;
+    }
+
+    /**
+     * 平均每批处理的命令数
+     */
+    public double getAverageBatchSize() {
+        return batches > 0 ? (double) (completed + failed) / batches : 0;
+    }
+
+    // Getters
+    public int getShard() { return shard; }
+    public int getCapacity() { return capacity; }
+    public int getQueueDepth() { return queueDepth; }
+    public long getSubmitted() { return submitted; }
+    public long getCompleted() { return completed; }
+    public long getFailed() { return failed; }
+    public long getBatches() { return batches; }
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public long getProducerStalls() { return producerStalls; }
+}
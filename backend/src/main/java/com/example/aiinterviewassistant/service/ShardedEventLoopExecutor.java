@@ -0,0 +1,209 @@
+package com.example.aiinterviewassistant.service;
+
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 分片单写者事件循环执行器
+ * 玩家按 playerId 的哈希固定分配到某个分片，每个分片只有一个线程处理命令，
+ * 命令通过有界环形缓冲区投递并成批取出。分片线程是其玩家状态的唯一写者，因此游戏逻辑中不需要锁；
+ * 命令路径上与其他分片共用的只有几处无锁入队（持久化日志、时间轮、成就队列）和并发缓存，不会互相阻塞。
+ *
+ * 缓冲区满时生产者自旋后短暂休眠等待（背压），并计入 producerStalls 指标。
+ */
+public class ShardedEventLoopExecutor implements PlayerCommandExecutor {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long STALL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Shard[] shards;
+
+    public ShardedEventLoopExecutor(int shardCount, int ringCapacity, int batchSize) {
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, ringCapacity, batchSize);
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    @Override
+    public <T> T execute(String playerId, Supplier<T> command) {
+        Shard shard = shardFor(playerId);
+        if (Thread.currentThread() == shard.thread) {
+            return command.get();
+        }
+        return submit(playerId, command).join();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(String playerId, Supplier<T> command) {
+        Shard shard = shardFor(playerId);
+        if (Thread.currentThread() == shard.thread) {
+            // 分片线程内的嵌套命令直接执行，避免自己等待自己
+            try {
+                return CompletableFuture.completedFuture(command.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        Task<T> task = new Task<>(command);
+        shard.enqueue(task);
+        return task.future;
+    }
+
+    /**
+     * 命令在分片线程执行；只有环形缓冲区写满时调用线程才会短暂等待（背压）
+     */
+    @Override
+    public boolean isAsynchronous() {
+        return true;
+    }
+
+    @Override
+    public List<ShardMetrics> shardMetrics() {
+        List<ShardMetrics> metrics = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            metrics.add(shard.metrics());
+        }
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Shard shardFor(String playerId) {
+        int h = playerId.hashCode();
+        h ^= (h >>> 16);
+        return shards[Math.floorMod(h, shards.length)];
+    }
+
+    /**
+     * 一条待执行的命令及其结果
+     */
+    private static final class Task<T> {
+        private final Supplier<T> command;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Task(Supplier<T> command) {
+            this.command = command;
+        }
+
+        private boolean run() {
+            try {
+                future.complete(command.get());
+                return true;
+            } catch (Throwable e) {
+                // 命令失败只影响它自己的 Future，分片线程继续运行
+                future.completeExceptionally(e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 单个分片：一个环形缓冲区加一个事件循环线程
+     */
+    private static final class Shard {
+        private final int index;
+        private final int batchSize;
+        private final MpscRingBuffer<Task<?>> ring;
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile boolean sleeping;
+
+        // 生产者侧指标
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder producerStalls = new LongAdder();
+
+        // 消费者侧指标，只由分片线程写
+        private volatile long completed;
+        private volatile long failed;
+        private volatile long batches;
+        private volatile int maxBatchSize;
+
+        private Shard(int index, int ringCapacity, int batchSize) {
+            this.index = index;
+            this.batchSize = batchSize;
+            this.ring = new MpscRingBuffer<>(ringCapacity);
+            this.thread = new Thread(this::loop, "pet-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void enqueue(Task<?> task) {
+            if (!ring.offer(task)) {
+                producerStalls.increment();
+                int spins = 0;
+                while (!ring.offer(task)) {
+                    if (!running) {
+                        throw new IllegalStateException("执行引擎已关闭");
+                    }
+                    if (++spins < 100) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(STALL_PARK_NANOS);
+                    }
+                }
+            }
+            submitted.increment();
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void loop() {
+            while (running || !ring.isEmpty()) {
+                int drained = ring.drain(this::runTask, batchSize);
+                if (drained > 0) {
+                    batches++;
+                    if (drained > maxBatchSize) {
+                        maxBatchSize = drained;
+                    }
+                    continue;
+                }
+
+                // 没有命令时休眠：先声明要睡，再复查一次，防止错过生产者的唤醒
+                sleeping = true;
+                if (ring.isEmpty() && running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                sleeping = false;
+            }
+        }
+
+        private void runTask(Task<?> task) {
+            if (task.run()) {
+                completed++;
+            } else {
+                failed++;
+            }
+        }
+
+        private ShardMetrics metrics() {
+            return new ShardMetrics(index, ring.capacity(), ring.size(), submitted.sum(),
+                completed, failed, batches, maxBatchSize, producerStalls.sum());
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 玩家状态推送
+ * 只为有订阅者的玩家建立频道：每个频道一个多播 sink，同一玩家打开的所有页面共享它。
+ * 聚合变更后在玩家的串行上下文中调用 {@link #publish}，与上次推送的状态逐字段比较，只推送变化的字段；
+ * 数值随时间衰减的部分不会触发写入，所以还把"显示的数值下一次变化"的时刻放进时间轮，到期时再比较一次。
+ * 连接空闲时不占线程，只占一个订阅和频道里的上次状态，最后一个订阅取消时频道随之移除。
+ */
+@Component
+public class StatePushHub {
+
+    private static final Logger log = LoggerFactory.getLogger(StatePushHub.class);
+
+    // 推送的字段，顺序即 Delta 中的顺序
+    private static final String[] FIELDS = {
+        "hunger", "happiness", "cleanliness", "energy", "health", "level", "experience",
+        "mood", "asleep", "coins", "inventorySize", "achievementsUnlocked", "activeGame"
+    };
+    private static final int COINS = 9;
+
+    // 每个订阅者最多积压的推送条数，超出时丢弃最旧的，并让频道的下一次推送带上全部字段
+    private static final int MAX_PENDING = 32;
+    private static final long EMIT_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final TimingWheel<String> wheel;
+    private final long tickMillis;
+
+    // 所有连接共享一个心跳定时器，防止代理断开空闲连接
+    private final Flux<Long> heartbeats;
+
+    private volatile boolean running;
+    private Thread driver;
+
+    public StatePushHub(@Value("${app.push.tickMillis:1000}") long tickMillis,
+                        @Value("${app.push.heartbeatSeconds:30}") long heartbeatSeconds) {
+        this.tickMillis = tickMillis;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.heartbeats = Flux.interval(Duration.ofSeconds(heartbeatSeconds)).share();
+    }
+
+    /**
+     * 启动时间轮驱动线程，到期的玩家交给 onDue（应在玩家的串行上下文中调用 publish）
+     */
+    public synchronized void start(Consumer<String> onDue) {
+        if (running) {
+            return;
+        }
+        running = true;
+        driver = new Thread(() -> drive(onDue), "push-wheel");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (driver != null) {
+            driver.interrupt();
+        }
+        channels.values().forEach(channel -> channel.sink.tryEmitComplete());
+    }
+
+    /**
+     * 玩家之后的状态变化，订阅时建立频道，取消时释放
+     */
+    public Flux<Delta> updates(String playerId) {
+        return Flux.defer(() -> {
+            Channel channel = channels.compute(playerId, (id, existing) -> {
+                Channel acquired = existing != null ? existing : new Channel();
+                acquired.subscribers++;
+                return acquired;
+            });
+            return channel.sink.asFlux()
+                .onBackpressureBuffer(MAX_PENDING, dropped -> channel.resync = true, BufferOverflowStrategy.DROP_OLDEST)
+                .doFinally(signal -> release(playerId, channel));
+        });
+    }
+
+    public Flux<Long> heartbeats() {
+        return heartbeats;
+    }
+
+    /**
+     * 把玩家的当前状态与上次推送的比较，推送变化的字段，必须在玩家的串行上下文中调用
+     */
+    public void publish(PlayerAggregate player) {
+        Channel channel = channels.get(player.getPlayerId());
+        if (channel == null) {
+            return;
+        }
+        if (channel.resync) {
+            // 有订阅者丢过推送，不再知道它手里的状态，这次推送全部字段
+            channel.resync = false;
+            channel.last = null;
+        }
+        long now = System.currentTimeMillis();
+        Object[] current = capture(player, now);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (channel.last == null || !Objects.equals(channel.last[i], current[i])) {
+                changes.put(FIELDS[i], current[i]);
+            }
+        }
+        channel.last = current;
+        channel.version = player.getVersion();
+        if (!changes.isEmpty()) {
+            emit(channel, new Delta(player.getVersion(), now, false, changes));
+        }
+        wheel.schedule(player.getPlayerId(), player.getPet().viewChangesAt(now));
+    }
+
+    /**
+     * 新订阅者的初始状态：先把其他订阅者推进到当前状态，再返回全部字段，必须在玩家的串行上下文中调用
+     * 频道还没有推送过时不先推送，否则新订阅者会把全部字段收到两次；快照直接作为频道的上次状态
+     */
+    public Delta snapshot(PlayerAggregate player) {
+        Channel channel = channels.get(player.getPlayerId());
+        long now = System.currentTimeMillis();
+        Object[] state;
+        if (channel != null && channel.last != null) {
+            publish(player);
+            state = channel.last;
+        } else {
+            state = capture(player, now);
+            if (channel != null) {
+                channel.last = state;
+                channel.version = player.getVersion();
+                wheel.schedule(player.getPlayerId(), player.getPet().viewChangesAt(now));
+            }
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < FIELDS.length; i++) {
+            fields.put(FIELDS[i], state[i]);
+        }
+        return new Delta(player.getVersion(), now, false, fields);
+    }
+
+    /**
+     * 宠物被删除（或不存在），必须在玩家的串行上下文中调用
+     */
+    public void publishDeleted(String playerId) {
+        wheel.cancel(playerId);
+        Channel channel = channels.get(playerId);
+        if (channel != null) {
+            channel.last = null;
+            emit(channel, deleted(channel.version));
+        }
+    }
+
+    public static Delta deleted(long version) {
+        return new Delta(version, System.currentTimeMillis(), true, Map.of());
+    }
+
+    public int channelCount() {
+        return channels.size();
+    }
+
+    public int subscriberCount() {
+        return channels.values().stream().mapToInt(channel -> channel.sink.currentSubscriberCount()).sum();
+    }
+
+    /**
+     * 命令执行后相对 before（{@link #capture} 在执行前采集的状态）变化的字段，金币总是包含在内
+     * 变更接口的增量响应使用，字段名和取值与推送一致，客户端用同一套逻辑应用
+     */
+    public static Delta changesSince(Object[] before, PlayerAggregate player) {
+        long now = System.currentTimeMillis();
+        Object[] after = capture(player, now);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (int i = 0; i < FIELDS.length; i++) {
+            if (!Objects.equals(before[i], after[i]) || i == COINS) {
+                changes.put(FIELDS[i], after[i]);
+            }
+        }
+        return new Delta(player.getVersion(), now, false, changes);
+    }
+
+    /**
+     * 玩家在时刻 now 的推送字段取值，顺序与 FIELDS 一致，必须在玩家的串行上下文中调用
+     */
+    public static Object[] capture(PlayerAggregate player, long now) {
+        Pet pet = player.getPet();
+        PetStats stats = pet.getStats();
+        return new Object[] {
+            stats.hungerAt(now), stats.happinessAt(now), stats.cleanlinessAt(now), stats.energyAt(now),
+            stats.healthAt(now), stats.getLevel(), stats.getExperience(),
+            pet.getMood(now), stats.isSleepingAt(now), player.getCoins(), player.getInventorySize(),
+            Long.bitCount(player.getAchievementBook().getUnlockedMask()),
+            player.getActiveSession() != null ? player.getActiveSession().getSessionId() : null
+        };
+    }
+
+    private void release(String playerId, Channel channel) {
+        channels.computeIfPresent(playerId, (id, existing) -> {
+            if (existing != channel || --existing.subscribers > 0) {
+                return existing;
+            }
+            wheel.cancel(playerId);
+            return null;
+        });
+    }
+
+    private static void emit(Channel channel, Delta delta) {
+        // 并发冲突时短暂重试；其他失败丢弃这一条，下次推送全部字段。
+        // 不能用 emitNext：它把溢出转成 emitError，频道终止后这个玩家的所有页面都会断开
+        long deadline = System.nanoTime() + EMIT_RETRY_NANOS;
+        Sinks.EmitResult result;
+        while ((result = channel.sink.tryEmitNext(delta)) == Sinks.EmitResult.FAIL_NON_SERIALIZED
+                && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        if (result.isFailure()) {
+            channel.resync = true;
+        }
+    }
+
+    private void drive(Consumer<String> onDue) {
+        while (running) {
+            try {
+                wheel.advanceTo(System.currentTimeMillis(), onDue);
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("状态推送调度失败", e);
+            }
+        }
+    }
+
+    private static final class Channel {
+        private final Sinks.Many<Delta> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;     // 只在 channels.compute 中修改
+        private Object[] last;       // 上次推送的状态，只在玩家的串行上下文中访问
+        private long version;
+        private volatile boolean resync; // 有订阅者丢过推送，下次推送全部字段
+    }
+
+    /**
+     * 一次状态推送：changes 只包含与上次推送不同的字段（取值都是完整的当前值，重复应用无害），
+     * version 是玩家的状态版本号，客户端丢弃比已应用版本旧的推送
+     */
+    public static class Delta {
+        private final long version;
+        private final long at;
+        private final boolean deleted;
+        private final Map<String, Object> changes;
+
+        public Delta(long version, long at, boolean deleted, Map<String, Object> changes) {
+            this.version = version;
+            this.at = at;
+            this.deleted = deleted;
+            this.changes = changes;
+        }
+
+        public long getVersion() { return version; }
+        public long getAt() { return at; }
+        public boolean isDeleted() { return deleted; }
+        public Map<String, Object> getChanges() { return changes; }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.aiinterviewassistant.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 分段锁执行器
+ * 按 playerId 的哈希把玩家分配到固定数量的锁上：同一玩家总是落在同一把锁，
+ * 不同玩家大概率落在不同的锁上，可以在所有核心上并行执行。
+ */
+public class StripedLockExecutor implements PlayerCommandExecutor {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLockExecutor(int stripeCount) {
+        // 向上取整到 2 的幂，用位与代替取模
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public <T> T execute(String playerId, Supplier<T> command) {
+        ReentrantLock lock = stripes[indexFor(playerId)];
+        lock.lock();
+        try {
+            return command.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int indexFor(String playerId) {
+        int h = playerId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.aiinterviewassistant.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮
+ * 4 层、每层 64 个槽，最底层一个槽为一个 tick，上一层一个槽覆盖下一层一整圈。
+ * 定时项挂在所在槽的双向链表上，按 key 索引，调度、取消、重新调度都是 O(1)；
+ * 时间推进时只处理到期的槽，高层的槽在对应的时间段开始时逐级下放（cascade），不做全量扫描。
+ * 超出总跨度的定时项先放在最高层，下放时再按真实时间重新定位。
+ *
+ * 调度和取消可以在任意线程调用，只把操作放进无锁队列，不加锁；由唯一的驱动线程调用 advanceTo，
+ * 先按提交顺序应用这些操作再推进时间。驱动线程是槽和索引的唯一写者，玩家命令之间不会因为时间轮互相等待。
+ * 同一个 key 的操作来自玩家的串行上下文，按提交顺序生效；操作最迟在下一个 tick 生效，到期时刻不受影响。
+ */
+public class TimingWheel<K> {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long SPAN_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Node<K>[][] slots;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private final Queue<Op<K>> pending = new ConcurrentLinkedQueue<>();
+    private long currentTick;
+    private volatile int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.slots = (Node<K>[][]) new Node<?>[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Node<K> sentinel = new Node<>(null, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                slots[level][slot] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * 在 deadlineMillis 时刻触发 key，已有的同 key 定时项会被替换；已经过去的时刻在下一个 tick 触发
+     */
+    public void schedule(K key, long deadlineMillis) {
+        pending.offer(new Op<>(key, deadlineMillis, false));
+    }
+
+    /**
+     * 取消 key 的定时项
+     */
+    public void cancel(K key) {
+        pending.offer(new Op<>(key, 0, true));
+    }
+
+    /**
+     * 定时项个数，只包含驱动线程已经应用的操作
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 把时间推进到 nowMillis，依次交出到期的 key（已从时间轮中移除），只能由驱动线程调用
+     */
+    public void advanceTo(long nowMillis, Consumer<K> expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (true) {
+            // 回调中再次调度的操作在下一个 tick 之前应用
+            applyPending();
+            if (currentTick >= targetTick) {
+                return;
+            }
+            currentTick++;
+            cascade();
+            for (K key : drainDue()) {
+                expired.accept(key);
+            }
+        }
+    }
+
+    private void applyPending() {
+        Op<K> op;
+        while ((op = pending.poll()) != null) {
+            Node<K> node = nodes.get(op.key);
+            if (op.cancel) {
+                if (node != null) {
+                    nodes.remove(op.key);
+                    unlink(node);
+                }
+                continue;
+            }
+            if (node != null) {
+                unlink(node);
+            } else {
+                node = new Node<>(op.key, 0);
+                nodes.put(op.key, node);
+            }
+            node.tick = Math.max(ceilDiv(op.deadlineMillis, tickMillis), currentTick + 1);
+            place(node);
+        }
+        size = nodes.size();
+    }
+
+    private void cascade() {
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            long periodMask = (1L << (SLOT_BITS * level)) - 1;
+            if ((currentTick & periodMask) != 0) {
+                continue;
+            }
+            Node<K> sentinel = slots[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            Node<K> node = sentinel.next;
+            while (node != sentinel) {
+                Node<K> next = node.next;
+                unlink(node);
+                place(node);
+                node = next;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private K[] drainDue() {
+        Node<K> sentinel = slots[0][(int) (currentTick & SLOT_MASK)];
+        int count = 0;
+        for (Node<K> node = sentinel.next; node != sentinel; node = node.next) {
+            count++;
+        }
+        Object[] due = new Object[count];
+        int i = 0;
+        Node<K> node = sentinel.next;
+        while (node != sentinel) {
+            Node<K> next = node.next;
+            unlink(node);
+            nodes.remove(node.key);
+            due[i++] = node.key;
+            node = next;
+        }
+        size = nodes.size();
+        return (K[]) due;
+    }
+
+    private void place(Node<K> node) {
+        long delta = node.tick - currentTick;
+        if (delta <= 0) {
+            // 下放时已到期，放进当前 tick 的槽，紧接着就会被取出
+            link(slots[0][(int) (currentTick & SLOT_MASK)], node);
+            return;
+        }
+        long tick = delta < SPAN_TICKS ? node.tick : currentTick + SPAN_TICKS - 1;
+        delta = tick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        link(slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)], node);
+    }
+
+    private static <K> void link(Node<K> sentinel, Node<K> node) {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private static <K> void unlink(Node<K> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    private static final class Op<K> {
+        private final K key;
+        private final long deadlineMillis;
+        private final boolean cancel;
+
+        private Op(K key, long deadlineMillis, boolean cancel) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+            this.cancel = cancel;
+        }
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private long tick;
+        private Node<K> prev;
+        private Node<K> next;
+
+        private Node(K key, long tick) {
+            this.key = key;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.aiinterviewassistant.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON 序列化基准测试
+ * 同一份宠物信息响应分别用默认的 Bean 序列化和 {@link PetJsonModule} 序列化，写到丢弃输出的流里，
+ * 结果只包含序列化本身，不含响应体数组。两者输出逐字节相同，见 PetJsonModuleTest。
+ * 运行：mvn test-compile 后执行 main 方法（带 gc 分析器，同时报告每次分配的字节数），
+ * 或 java -cp target/test-classes:target/classes:... org.openjdk.jmh.Main JsonSerializationBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    private final ObjectMapper fast = reflective.copy().registerModule(new PetJsonModule());
+    private final Object payload = SamplePayload.petInfo();
+    // writeValue 结束时会关闭目标流，nullOutputStream 关闭后不能再写，这里用一个什么都不做的流
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Benchmark
+    public void reflective() throws IOException {
+        reflective.writeValue(sink, payload);
+    }
+
+    @Benchmark
+    public void petJsonModule() throws IOException {
+        fast.writeValue(sink, payload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JsonSerializationBenchmark.class.getSimpleName())
+            .addProfiler("gc")
+            .build()).run();
+    }
+}
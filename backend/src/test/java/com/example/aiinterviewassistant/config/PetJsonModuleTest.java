@@ -0,0 +1,128 @@
+package com.example.aiinterviewassistant.config;
+
+import com.example.aiinterviewassistant.controller.PetController;
+import com.example.aiinterviewassistant.model.Achievement;
+import com.example.aiinterviewassistant.model.GameItem;
+import com.example.aiinterviewassistant.model.MiniGame;
+import com.example.aiinterviewassistant.model.Mood;
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.model.PetType;
+import com.example.aiinterviewassistant.service.PetService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 手写序列化器与默认 Bean 序列化的对照测试
+ * 参照的 ObjectMapper 按 Spring Boot 的默认配置构建（时间写成 ISO 字符串），只是不注册 {@link PetJsonModule}；
+ * 同一对象两边写出的 UTF-8 字节必须完全相同，字段顺序也必须与紧凑化之前的接口一致。
+ */
+class PetJsonModuleTest {
+
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    private final ObjectMapper fast = reflective.copy().registerModule(new PetJsonModule());
+
+    @Test
+    void petMatchesReflectiveOutput() throws Exception {
+        for (PetType type : PetType.values()) {
+            assertSameBytes(new Pet("小" + type.name(), type));
+        }
+        assertSameBytes(sleepingPet());
+        assertSameBytes(petWithTimes(1_700_000_000_000L, 1_700_000_000_080L));
+        assertSameBytes(petWithTimes(1_700_000_001_230L, 1_700_000_060_000L));
+        Pet unusual = new Pet("\"引号\" \\ 😺\n", PetType.PANDA);
+        unusual.setMood(null);
+        assertSameBytes(unusual);
+    }
+
+    @Test
+    void petStatsMatchReflectiveOutput() throws Exception {
+        assertSameBytes(new Pet("Bench", PetType.CAT).getStats());
+        assertSameBytes(sleepingPet().getStats());
+    }
+
+    @Test
+    void actionResponseMatchesReflectiveOutput() throws Exception {
+        Pet pet = new Pet("Bench", PetType.DOG);
+        PetAction.FEED.getEffect().applyTo(pet.getStats());
+        assertSameBytes(PetController.ApiResponse.success("喂食成功！", pet));
+    }
+
+    @Test
+    void petInfoAndCatalogsMatchReflectiveOutput() throws Exception {
+        Pet pet = new Pet("Bench", PetType.DRAGON);
+        List<PetService.ActionInfo> actions = new ArrayList<>();
+        for (PetAction action : PetAction.values()) {
+            actions.add(new PetService.ActionInfo(action.name(), action.getDisplayName(), action.getEmoji(),
+                action.getDescription()));
+        }
+        List<PetService.InventoryEntry> inventory = List.of(
+            new PetService.InventoryEntry(GameItem.byIndex(0), 2), new PetService.InventoryEntry(GameItem.byIndex(1), 1));
+        List<Achievement> achievements = Achievement.getDefaultAchievements();
+        Achievement unlocked = achievements.get(0);
+        unlocked.setCurrentProgress(unlocked.getTargetValue());
+        unlocked.setUnlocked(true);
+        unlocked.setUnlockedDate(LocalDateTime.of(2024, 2, 29, 23, 59, 0, 80_000_000));
+        Achievement partial = achievements.get(1);
+        partial.setCurrentProgress(partial.getTargetValue() / 2);
+
+        assertSameBytes(PetController.ApiResponse.success("获取宠物信息成功",
+            new PetController.PetInfo(pet, 250, actions, inventory, achievements.subList(0, 3))));
+        assertSameBytes(Arrays.asList(GameItem.getDefaultItems()));
+        assertSameBytes(achievements);
+        assertSameBytes(MiniGame.GameType.values());
+        assertSameBytes(PetType.values());
+    }
+
+    @Test
+    void petFieldsKeepTheirOriginalOrder() throws Exception {
+        JsonNode pet = fast.readTree(fast.writeValueAsBytes(new Pet("Bench", PetType.CAT)));
+        assertEquals(List.of("id", "name", "type", "stats", "color", "birthDate", "lastInteraction", "mood",
+            "asleep", "ageInDays", "statusDescription", "recommendedActions"), fieldNames(pet));
+        assertEquals(List.of("hunger", "cleanliness", "happiness", "energy", "health", "experience", "level",
+            "lastUpdate", "moodStatus"), fieldNames(pet.get("stats")));
+    }
+
+    private void assertSameBytes(Object value) throws Exception {
+        byte[] expected = reflective.writeValueAsBytes(value);
+        byte[] actual = fast.writeValueAsBytes(value);
+        assertEquals(new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8));
+        assertEquals(reflective.readTree(expected), reflective.readTree(actual));
+    }
+
+    private static Pet sleepingPet() {
+        Pet pet = new Pet("Sleepy", PetType.RABBIT);
+        pet.setMood(Mood.values()[Mood.values().length - 1]);
+        pet.setAsleep(true);
+        return pet;
+    }
+
+    private static Pet petWithTimes(long birth, long lastInteraction) {
+        Pet pet = new Pet("Bench", PetType.HAMSTER);
+        pet.setBirthDateMillis(birth);
+        pet.setLastInteractionMillis(lastInteraction);
+        return pet;
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+            names.add(it.next());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.aiinterviewassistant.config;
+
+import com.example.aiinterviewassistant.controller.PetController;
+import com.example.aiinterviewassistant.model.Achievement;
+import com.example.aiinterviewassistant.model.GameItem;
+import com.example.aiinterviewassistant.model.Mood;
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.model.PetType;
+import com.example.aiinterviewassistant.service.PetService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CBOR、Smile 响应的往返测试
+ * 用接口实际使用的 mapper（{@link WireMappers}）写出二进制响应再解析，按 {@link PetWireModule#codeTables()} 把编号换回文字，
+ * 结果必须与模型和 JSON 响应中的取值一致；请求体也按同样的 mapper 读回。
+ */
+class PetWireModuleTest {
+
+    private static final WireFormat[] BINARY = {WireFormat.CBOR, WireFormat.SMILE};
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .modulesToInstall(new PetJsonModule())
+        .build();
+    private final WireMappers mappers = new WireMappers(json);
+    private final Map<String, List<String>> codes = PetWireModule.codeTables();
+
+    @Test
+    void petRoundTripsThroughBinaryFormats() throws Exception {
+        List<Pet> pets = new ArrayList<>();
+        for (PetType type : PetType.values()) {
+            pets.add(new Pet("小" + type.name(), type));
+        }
+        Pet sleeping = new Pet("Sleepy", PetType.RABBIT);
+        sleeping.setAsleep(true);
+        pets.add(sleeping);
+        Pet fed = new Pet("\"引号\" 😺", PetType.DOG);
+        PetAction.FEED.getEffect().applyTo(fed.getStats());
+        pets.add(fed);
+
+        for (WireFormat format : BINARY) {
+            for (Pet pet : pets) {
+                assertPet(pet, mappers.get(format).readTree(mappers.write(format, pet)), format);
+            }
+        }
+    }
+
+    @Test
+    void missingCodesAreWrittenAsNull() throws Exception {
+        Pet pet = new Pet("Moodless", PetType.CAT);
+        pet.setMood(null);
+        for (WireFormat format : BINARY) {
+            JsonNode node = mappers.get(format).readTree(mappers.write(format, pet));
+            assertTrue(node.get("mood").isNull(), format.name());
+        }
+    }
+
+    @Test
+    void petInfoResponseRoundTripsThroughBinaryFormats() throws Exception {
+        PetController.ApiResponse<PetController.PetInfo> response = SamplePayload.petInfo();
+        Achievement unlocked = Achievement.getDefaultAchievements().get(0);
+        unlocked.setCurrentProgress(unlocked.getTargetValue());
+        unlocked.setUnlocked(true);
+        unlocked.setUnlockedDate(LocalDateTime.of(2024, 2, 29, 23, 59, 0, 80_000_000));
+        List<Achievement> achievements = new ArrayList<>(response.getData().getNewAchievements());
+        achievements.set(0, unlocked);
+        PetController.PetInfo info = new PetController.PetInfo(response.getData().getPet(), response.getData().getCoins(),
+            response.getData().getAvailableActions(), response.getData().getInventory(), achievements);
+
+        for (WireFormat format : BINARY) {
+            JsonNode root = mappers.get(format).readTree(mappers.write(format, PetController.ApiResponse.success("ok", info)));
+            assertTrue(root.get("success").asBoolean(), format.name());
+            JsonNode data = root.get("data");
+            assertPet(info.getPet(), data.get("pet"), format);
+            assertEquals(info.getCoins(), data.get("coins").asInt());
+
+            List<String> actions = new ArrayList<>();
+            data.get("availableActions").forEach(code -> actions.add(decode("actions", code)));
+            assertEquals(info.getAvailableActions().stream().map(PetService.ActionInfo::getName).toList(), actions, format.name());
+
+            JsonNode inventory = data.get("inventory");
+            assertEquals(info.getInventory().size(), inventory.size());
+            for (int i = 0; i < inventory.size(); i++) {
+                assertEquals(info.getInventory().get(i).getItem().getId(), decode("items", inventory.get(i).get("item")));
+                assertEquals(info.getInventory().get(i).getQuantity(), inventory.get(i).get("quantity").asInt());
+            }
+
+            JsonNode newAchievements = data.get("newAchievements");
+            assertEquals(achievements.size(), newAchievements.size());
+            for (int i = 0; i < newAchievements.size(); i++) {
+                Achievement expected = achievements.get(i);
+                JsonNode node = newAchievements.get(i);
+                assertEquals(expected.getId(), decode("achievements", node.get("id")));
+                assertEquals(expected.getCurrentProgress(), node.get("currentProgress").asInt());
+                assertEquals(expected.isUnlocked(), node.get("unlocked").asBoolean());
+                if (expected.getUnlockedDate() != null) {
+                    assertEquals(toEpochMillis(expected.getUnlockedDate()), node.get("unlockedDate").asLong());
+                } else {
+                    assertTrue(node.get("unlockedDate").isNull());
+                }
+            }
+        }
+    }
+
+    @Test
+    void catalogsDecodeThroughCodeTables() throws Exception {
+        for (WireFormat format : BINARY) {
+            ObjectMapper mapper = mappers.get(format);
+            JsonNode items = mapper.readTree(mappers.write(format, GameItem.catalog()));
+            for (int i = 0; i < items.size(); i++) {
+                assertEquals(GameItem.catalog().get(i).getId(), decode("items", items.get(i)));
+            }
+            JsonNode moods = mapper.readTree(mappers.write(format, Mood.values()));
+            for (int i = 0; i < moods.size(); i++) {
+                assertEquals(Mood.values()[i].getKey(), decode("moods", moods.get(i)));
+            }
+            JsonNode types = mapper.readTree(mappers.write(format, PetType.values()));
+            for (int i = 0; i < types.size(); i++) {
+                assertEquals(PetType.values()[i].name(), decode("petTypes", types.get(i)));
+            }
+        }
+    }
+
+    @Test
+    void binaryRequestBodiesAcceptCodes() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("playerId", "p1");
+        body.put("petName", "小龙");
+        body.put("petType", PetType.DRAGON.ordinal());
+        body.put("unknownField", 1);
+        for (WireFormat format : BINARY) {
+            ObjectMapper mapper = mappers.get(format);
+            PetController.CreatePetRequest request = mapper.readValue(
+                mapper.writeValueAsBytes(body), PetController.CreatePetRequest.class);
+            assertEquals("p1", request.getPlayerId(), format.name());
+            assertEquals("小龙", request.getPetName(), format.name());
+            assertEquals(PetType.DRAGON, request.getPetType(), format.name());
+        }
+    }
+
+    @Test
+    void cborAndSmileCarryTheSameContent() throws Exception {
+        Object payload = SamplePayload.petInfo();
+        JsonNode cbor = mappers.get(WireFormat.CBOR).readTree(mappers.write(WireFormat.CBOR, payload));
+        JsonNode smile = mappers.get(WireFormat.SMILE).readTree(mappers.write(WireFormat.SMILE, payload));
+        assertEquals(cbor, smile);
+        assertTrue(mappers.write(WireFormat.CBOR, payload).length < mappers.write(WireFormat.JSON, payload).length);
+    }
+
+    /**
+     * 二进制的宠物与模型逐项对照，数值再与 JSON 响应对照
+     */
+    private void assertPet(Pet pet, JsonNode node, WireFormat format) throws Exception {
+        String where = format.name() + " " + pet.getName();
+        JsonNode expected = json.readTree(json.writeValueAsBytes(pet));
+        assertEquals(pet.getId(), node.get("id").asText(), where);
+        assertEquals(pet.getName(), node.get("name").asText(), where);
+        assertEquals(pet.getColor(), node.get("color").asText(), where);
+        assertEquals(pet.getType().name(), decode("petTypes", node.get("type")), where);
+        assertEquals(pet.getBirthDateMillis(), node.get("birthDate").asLong(), where);
+        assertEquals(pet.getLastInteractionMillis(), node.get("lastInteraction").asLong(), where);
+        assertEquals(expected.get("mood").asText(), decode("moods", node.get("mood")), where);
+        assertEquals(expected.get("asleep"), node.get("asleep"), where);
+        assertEquals(expected.get("ageInDays").asLong(), node.get("ageInDays").asLong(), where);
+        assertEquals(expected.get("statusDescription").asText(), pet.getName() + decode("statuses", node.get("status")), where);
+        List<String> recommended = new ArrayList<>();
+        node.get("recommendedActions").forEach(code ->
+            recommended.add(PetAction.valueOf(decode("actions", code)).getDisplayName()));
+        List<String> expectedRecommended = new ArrayList<>();
+        expected.get("recommendedActions").forEach(action -> expectedRecommended.add(action.asText()));
+        assertEquals(expectedRecommended, recommended, where);
+
+        JsonNode stats = node.get("stats");
+        JsonNode expectedStats = expected.get("stats");
+        for (String field : List.of("hunger", "cleanliness", "happiness", "energy", "health", "experience", "level")) {
+            assertEquals(expectedStats.get(field).asInt(), stats.get(field).asInt(), where + " " + field);
+        }
+        assertEquals(pet.getStats().getLastUpdateMillis(), stats.get("lastUpdate").asLong(), where);
+        assertEquals(expectedStats.get("moodStatus").asText(), decode("moodStatuses", stats.get("moodStatus")), where);
+        assertFalse(node.has("statusDescription"), where);
+    }
+
+    private String decode(String table, JsonNode code) {
+        assertTrue(code.isInt(), table + " 编号不是整数: " + code);
+        return codes.get(table).get(code.asInt());
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
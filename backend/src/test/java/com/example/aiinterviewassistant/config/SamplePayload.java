@@ -0,0 +1,39 @@
+package com.example.aiinterviewassistant.config;
+
+import com.example.aiinterviewassistant.controller.PetController;
+import com.example.aiinterviewassistant.model.Achievement;
+import com.example.aiinterviewassistant.model.GameItem;
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.model.PetType;
+import com.example.aiinterviewassistant.service.PetService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试共用的响应样本
+ */
+final class SamplePayload {
+
+    private SamplePayload() {}
+
+    /**
+     * 最常见的响应：宠物信息，带全部动作、几件背包物品和几个成就
+     */
+    static PetController.ApiResponse<PetController.PetInfo> petInfo() {
+        List<PetService.ActionInfo> actions = new ArrayList<>();
+        for (PetAction action : PetAction.values()) {
+            actions.add(new PetService.ActionInfo(action.name(), action.getDisplayName(), action.getEmoji(),
+                action.getDescription()));
+        }
+        List<PetService.InventoryEntry> inventory = new ArrayList<>();
+        for (int i = 0; i < Math.min(4, GameItem.catalogSize()); i++) {
+            inventory.add(new PetService.InventoryEntry(GameItem.byIndex(i), i + 1));
+        }
+        List<Achievement> achievements = Achievement.catalog().subList(0, Math.min(3, Achievement.catalog().size()));
+        PetController.PetInfo info = new PetController.PetInfo(
+            new Pet("Benchmark", PetType.DRAGON), 250, actions, inventory, achievements);
+        return PetController.ApiResponse.success("获取宠物信息成功", info);
+    }
+}
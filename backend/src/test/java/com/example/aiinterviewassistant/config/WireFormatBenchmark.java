@@ -0,0 +1,96 @@
+package com.example.aiinterviewassistant.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 响应格式基准测试
+ * 同一份宠物信息响应按 JSON、CBOR、Smile 编码和解码，mapper 与接口相同（{@link WireMappers}）；
+ * 解码是客户端的通用做法：解析成树，不绑定到具体类型。响应大小（含 gzip 后）在每种格式开始时打印一次。
+ * 各格式内容一致由 PetWireModuleTest 保证。
+ * 运行：mvn test-compile 后执行 main 方法（带 gc 分析器），
+ * 或 java -cp target/test-classes:target/classes:... org.openjdk.jmh.Main WireFormatBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private WireFormat format;
+
+    private final Object payload = SamplePayload.petInfo();
+    // writeValue 结束时会关闭目标流，nullOutputStream 关闭后不能再写，这里用一个什么都不做的流
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+    private ObjectMapper mapper;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        WireMappers mappers = new WireMappers(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new PetJsonModule())
+            .build());
+        mapper = mappers.get(format);
+        body = mappers.write(format, payload);
+        System.out.printf("%s: %d 字节，gzip 后 %d 字节%n", format.getMediaType(), body.length, gzip(body).length);
+    }
+
+    @Benchmark
+    public void encode() throws IOException {
+        mapper.writeValue(sink, payload);
+    }
+
+    @Benchmark
+    public JsonNode decode() throws IOException {
+        return mapper.readTree(body);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(WireFormatBenchmark.class.getSimpleName())
+            .addProfiler("gc")
+            .build()).run();
+    }
+}
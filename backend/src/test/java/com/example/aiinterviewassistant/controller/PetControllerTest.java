@@ -0,0 +1,168 @@
+package com.example.aiinterviewassistant.controller;
+
+import com.example.aiinterviewassistant.config.WireFormat;
+import com.example.aiinterviewassistant.config.WireMappers;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 宠物接口的响应格式协商和条件请求测试（Servlet 模式，不写盘）
+ */
+@SpringBootTest(properties = "app.persistence.enabled=false")
+@AutoConfigureMockMvc
+class PetControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private WireMappers mappers;
+
+    private String playerId;
+
+    @BeforeEach
+    void createPet() throws Exception {
+        playerId = createPlayer();
+    }
+
+    @Test
+    void acceptSelectsResponseFormat() throws Exception {
+        for (WireFormat format : WireFormat.values()) {
+            MockHttpServletResponse response = perform(get("/api/pet/" + playerId)
+                .header(HttpHeaders.ACCEPT, format.getMediaType().toString()));
+            assertEquals(200, response.getStatus(), format.name());
+            assertTrue(format.getMediaType().isCompatibleWith(MediaType.parseMediaType(response.getContentType())),
+                format.name() + " 返回了 " + response.getContentType());
+            JsonNode pet = mappers.get(format).readTree(response.getContentAsByteArray()).get("data").get("pet");
+            assertEquals("小龙", pet.get("name").asText(), format.name());
+            if (format == WireFormat.JSON) {
+                assertEquals("DRAGON", pet.get("type").get("name").asText());
+            } else {
+                assertTrue(pet.get("type").isInt(), format.name());
+            }
+        }
+    }
+
+    @Test
+    void missingOrWildcardAcceptReturnsJson() throws Exception {
+        MockHttpServletResponse noAccept = perform(get("/api/pet/" + playerId));
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(noAccept.getContentType())));
+        MockHttpServletResponse preferred = perform(get("/api/pet/" + playerId)
+            .header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/x-jackson-smile"));
+        assertTrue(WireFormat.SMILE.getMediaType().isCompatibleWith(MediaType.parseMediaType(preferred.getContentType())));
+    }
+
+    @Test
+    void etagCarriesFormatSuffix() throws Exception {
+        String jsonTag = perform(get("/api/pet/" + playerId + "/stats")).getHeader(HttpHeaders.ETAG);
+        assertNotNull(jsonTag);
+        for (WireFormat format : new WireFormat[]{WireFormat.CBOR, WireFormat.SMILE}) {
+            MockHttpServletResponse response = perform(get("/api/pet/" + playerId + "/stats")
+                .header(HttpHeaders.ACCEPT, format.getMediaType().toString()));
+            String tag = response.getHeader(HttpHeaders.ETAG);
+            String suffix = format.name().toLowerCase();
+            assertEquals(jsonTag.substring(0, jsonTag.length() - 1) + "-" + suffix + "\"", tag);
+            assertTrue(response.getHeaders(HttpHeaders.VARY).stream().anyMatch(v -> v.contains(HttpHeaders.ACCEPT)));
+
+            // 同一格式的标签命中 304，另一种格式的标签不命中
+            assertEquals(304, perform(get("/api/pet/" + playerId + "/stats")
+                .header(HttpHeaders.ACCEPT, format.getMediaType().toString())
+                .header(HttpHeaders.IF_NONE_MATCH, tag)).getStatus());
+            assertEquals(200, perform(get("/api/pet/" + playerId + "/stats")
+                .header(HttpHeaders.ACCEPT, format.getMediaType().toString())
+                .header(HttpHeaders.IF_NONE_MATCH, jsonTag)).getStatus());
+            assertEquals(304, perform(get("/api/pet/" + playerId + "/stats")
+                .header(HttpHeaders.IF_NONE_MATCH, jsonTag)).getStatus());
+        }
+    }
+
+    @Test
+    void stateTagsRevalidateUntilStateChanges() throws Exception {
+        for (String resource : new String[]{"/achievements", "/detailed-stats"}) {
+            // 动作之后成就处理器还会异步更新状态，每个资源用一个新玩家
+            String player = "/api/pet/" + createPlayer();
+            String url = player + resource;
+            MockHttpServletResponse first = perform(get(url));
+            assertEquals(200, first.getStatus(), resource);
+            String tag = first.getHeader(HttpHeaders.ETAG);
+            assertNotNull(tag, resource);
+
+            MockHttpServletResponse revalidated = perform(get(url).header(HttpHeaders.IF_NONE_MATCH, tag));
+            assertEquals(304, revalidated.getStatus(), resource);
+            assertEquals(0, revalidated.getContentAsByteArray().length, resource);
+
+            assertEquals(200, perform(post(player + "/action")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"action\":\"FEED\"}")).getStatus());
+            MockHttpServletResponse changed = perform(get(url).header(HttpHeaders.IF_NONE_MATCH, tag));
+            assertEquals(200, changed.getStatus(), resource);
+            assertNotEquals(tag, changed.getHeader(HttpHeaders.ETAG), resource);
+        }
+    }
+
+    @Test
+    void failedBatchLeavesStateUnchanged() throws Exception {
+        String url = "/api/pet/" + playerId + "/achievements";
+        String tag = perform(get(url)).getHeader(HttpHeaders.ETAG);
+        assertNotNull(tag);
+
+        // 全部命令都失败：不记录日志，版本号不变，之前的标签仍然有效
+        MockHttpServletResponse batch = perform(post("/api/pet/" + playerId + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"commands\":[{\"type\":\"buy-item\",\"itemId\":\"no_such_item\"},"
+                + "{\"type\":\"use-item\",\"itemId\":\"no_such_item\"}]}"));
+        assertEquals(200, batch.getStatus(), batch.getContentAsString());
+        assertEquals(304, perform(get(url).header(HttpHeaders.IF_NONE_MATCH, tag)).getStatus());
+    }
+
+    @Test
+    void engineEndpointsAreOffByDefault() throws Exception {
+        assertEquals(404, perform(get("/api/engine/runtime")).getStatus());
+    }
+
+    @Test
+    void alertStreamRequiresPlayerId() throws Exception {
+        assertEquals(400, perform(get("/api/alerts/stream")).getStatus());
+    }
+
+    private String createPlayer() throws Exception {
+        String id = "test-" + UUID.randomUUID();
+        MockHttpServletResponse created = perform(post("/api/pet/create")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"playerId\":\"" + id + "\",\"petName\":\"小龙\",\"petType\":\"DRAGON\"}"));
+        assertEquals(200, created.getStatus(), created.getContentAsString());
+        return id;
+    }
+
+    /**
+     * 接口返回 CompletableFuture，先发起请求再分派异步结果
+     */
+    private MockHttpServletResponse perform(RequestBuilder request) throws Exception {
+        MvcResult started = mvc.perform(request).andReturn();
+        if (!started.getRequest().isAsyncStarted()) {
+            return started.getResponse();
+        }
+        started.getAsyncResult(5_000);
+        return mvc.perform(asyncDispatch(started)).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.aiinterviewassistant.model;
+
+import com.example.aiinterviewassistant.service.PlayerAggregate;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 宠物内存布局测试
+ * 用 JOL 统计旧布局（字符串 id、LocalDateTime 时间、逐个 int 数值、字符串心情）和现在的紧凑布局
+ * 每只宠物、每个玩家实际占用的字节数。枚举常量和字符串字面量由所有宠物共享，统计时扣除。
+ */
+class PetLayoutTest {
+
+    @Test
+    void compactLayoutIsSmallerThanLegacyLayout() {
+        Pet pet = new Pet("Bench", PetType.CAT);
+        LegacyPet legacy = new LegacyPet("Bench", PetType.CAT);
+        PlayerAggregate player = new PlayerAggregate("bench-player", pet, 100);
+
+        GraphLayout legacyPet = owned(legacy, legacy.name, legacy.type, legacy.color, legacy.mood);
+        GraphLayout compactPet = owned(pet, pet.getName(), pet.getType(), pet.getColor(), pet.getMood());
+        GraphLayout compactPlayer = owned(player, pet.getName(), pet.getType(), pet.getColor(), pet.getMood());
+        long legacyPlayerSize = compactPlayer.totalSize() - compactPet.totalSize() + legacyPet.totalSize();
+
+        System.out.println("旧布局 Pet + PetStats: " + legacyPet.totalCount() + " 个对象, " + legacyPet.totalSize() + " 字节");
+        System.out.println(legacyPet.toFootprint());
+        System.out.println("新布局 Pet + PetStats: " + compactPet.totalCount() + " 个对象, " + compactPet.totalSize() + " 字节");
+        System.out.println(compactPet.toFootprint());
+        System.out.println("玩家聚合: 旧布局 " + legacyPlayerSize + " 字节, 新布局 " + compactPlayer.totalSize() + " 字节");
+        System.out.println(compactPlayer.toFootprint());
+
+        assertTrue(compactPet.totalSize() < legacyPet.totalSize());
+    }
+
+    private static GraphLayout owned(Object root, Object... shared) {
+        return GraphLayout.parseInstance(root).subtract(GraphLayout.parseInstance(shared));
+    }
+
+    /**
+     * 紧凑化之前的 Pet 字段
+     */
+    static class LegacyPet {
+        String id = UUID.randomUUID().toString();
+        String name;
+        PetType type;
+        LegacyPetStats stats = new LegacyPetStats();
+        String color = "default";
+        LocalDateTime birthDate = LocalDateTime.now();
+        LocalDateTime lastInteraction = LocalDateTime.now();
+        String mood = "curious";
+
+        LegacyPet(String name, PetType type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    /**
+     * 紧凑化之前的 PetStats 字段
+     */
+    static class LegacyPetStats {
+        int hunger = 50;
+        int cleanliness = 80;
+        int happiness = 60;
+        int energy = 70;
+        int health = 90;
+        int experience = 0;
+        int level = 1;
+        long lastUpdate = System.currentTimeMillis();
+        long decayOrigin;
+        long settledAt;
+        int hungerCarry;
+        int cleanlinessCarry;
+        int happinessCarry;
+        int energyCarry;
+        boolean sleeping;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.aiinterviewassistant.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 闭式衰减与逐刻推进的对照
+ * 参照实现按原来的规则逐分钟改写数值：每小时的速率、每段离开的上限、睡觉时恢复能量并在 80 醒来，
+ * 不足 1 点的部分累积到下一刻、互动时结转到下一段离开。PetStats 只在事件发生时结算，其余时刻直接投影，
+ * 任意时刻读到的数值和睡觉状态都必须与逐刻推进的结果相同。
+ */
+class StatDecayTest {
+
+    private static final long T0 = 1_704_067_200_000L;
+    private static final long TICK = 60_000L;
+    private static final long HOUR = StatDecay.MILLIS_PER_HOUR;
+
+    @Test
+    void randomTimelinesMatchTickLoop() {
+        Random random = new Random(5);
+        int[] edges = {0, 1, 2, 19, 20, 21, 79, 80, 81, 99, 100};
+        for (int run = 0; run < 300; run++) {
+            int[] initial = new int[StatType.COUNT];
+            for (int i = 0; i < initial.length; i++) {
+                initial[i] = random.nextBoolean() ? edges[random.nextInt(edges.length)] : random.nextInt(101);
+            }
+            boolean sleeping = random.nextBoolean();
+            PetStats stats = stats(initial, sleeping);
+            TickLoop loop = new TickLoop(initial, sleeping);
+
+            int ticks = 72 * 60;
+            for (int tick = 1; tick <= ticks; tick++) {
+                long now = T0 + tick * TICK;
+                loop.advance();
+                switch (random.nextInt(400)) {
+                    case 0 -> {
+                        // 互动：开始新的一段离开
+                        stats.restartDecay(now);
+                        loop.restart();
+                    }
+                    case 1 -> {
+                        int[] deltas = new int[StatType.COUNT];
+                        for (int i = 0; i < deltas.length; i++) {
+                            deltas[i] = random.nextInt(161) - 80;
+                        }
+                        stats.applyDeltas(deltas, now);
+                        loop.apply(deltas);
+                    }
+                    case 2 -> {
+                        boolean asleep = random.nextBoolean();
+                        stats.setSleeping(asleep, now);
+                        loop.sleep(asleep);
+                    }
+                    case 3 -> stats.settle(now);
+                    default -> { }
+                }
+                assertMatches(loop, stats, now, "第 " + run + " 次，第 " + tick + " 分钟");
+            }
+        }
+    }
+
+    @Test
+    void decayStopsAtZeroAndAtTheAbsenceCap() {
+        PetStats stats = stats(new int[]{100, 100, 100, 50, 90}, false);
+        long later = T0 + 48 * HOUR;
+        assertEquals(100 - StatDecay.HUNGER_CAP, stats.hungerAt(later));
+        assertEquals(100 - StatDecay.CLEANLINESS_CAP, stats.cleanlinessAt(later));
+        assertEquals(100 - StatDecay.HAPPINESS_CAP, stats.happinessAt(later));
+        assertEquals(50, stats.energyAt(later));
+        assertEquals(90, stats.healthAt(later));
+
+        PetStats low = stats(new int[]{1, 0, 2, 0, 0}, false);
+        assertEquals(0, low.hungerAt(T0 + HOUR));
+        assertEquals(0, low.cleanlinessAt(T0 + 48 * HOUR));
+        assertEquals(0, low.happinessAt(T0 + 48 * HOUR));
+
+        // 达到上限后新的一段离开重新计算
+        stats.restartDecay(later);
+        assertEquals(100 - StatDecay.HUNGER_CAP - 3, stats.hungerAt(later + HOUR));
+
+        stats.applyDeltas(new int[]{500, -500, 0, 0, 0}, later + HOUR);
+        assertEquals(100, stats.hungerAt(later + HOUR));
+        assertEquals(0, stats.cleanlinessAt(later + HOUR));
+    }
+
+    @Test
+    void sleepingEnergyWakesAtThreshold() {
+        PetStats stats = stats(new int[]{50, 50, 50, 75, 50}, true);
+        long wakesAt = stats.energyRisesToAt(StatDecay.WAKE_ENERGY);
+        // 每 6 分钟恢复 1 点，5 点需要 30 分钟
+        assertEquals(T0 + HOUR / 2, wakesAt);
+        assertTrue(stats.isSleepingAt(wakesAt - 1));
+        assertEquals(StatDecay.WAKE_ENERGY - 1, stats.energyAt(wakesAt - 1));
+        assertFalse(stats.isSleepingAt(wakesAt));
+        assertEquals(StatDecay.WAKE_ENERGY, stats.energyAt(wakesAt + 10 * HOUR));
+
+        // 从很低的能量睡起，一段离开内最多恢复 50 点，仍在睡
+        PetStats tired = stats(new int[]{50, 50, 50, 10, 50}, true);
+        assertEquals(10 + StatDecay.ENERGY_REGEN_CAP, tired.energyAt(T0 + 24 * HOUR));
+        assertTrue(tired.isSleepingAt(T0 + 24 * HOUR));
+
+        // 醒着时能量不变，睡下之后才开始恢复
+        PetStats awake = stats(new int[]{50, 50, 50, 10, 50}, false);
+        assertEquals(10, awake.energyAt(T0 + HOUR));
+        awake.setSleeping(true, T0 + HOUR);
+        assertEquals(20, awake.energyAt(T0 + 2 * HOUR));
+        awake.setSleeping(false, T0 + 2 * HOUR);
+        assertEquals(20, awake.energyAt(T0 + 3 * HOUR));
+    }
+
+    @Test
+    void energyRaisedToThresholdWakesWithinTheSameInstant() {
+        // 批量命令共用同一时刻：先把能量加过 80，再扣回去，宠物应当保持醒着
+        PetStats stats = stats(new int[]{50, 50, 50, 40, 50}, true);
+        long now = T0 + HOUR;
+        stats.applyDeltas(new int[]{0, 0, 0, 50, 0}, now);
+        stats.applyDeltas(new int[]{0, 0, 0, -50, 0}, now);
+        assertFalse(stats.isSleepingAt(now));
+        assertEquals(50, stats.energyAt(now + HOUR));
+    }
+
+    @Test
+    void settlingIsIdempotent() {
+        PetStats stats = stats(new int[]{90, 90, 90, 30, 90}, true);
+        long now = T0 + 7 * HOUR + 1_234;
+        int[] before = values(stats, now + HOUR);
+        stats.settle(now);
+        stats.settle(now);
+        stats.settle(now - HOUR);
+        assertArrayEquals(before, values(stats, now + HOUR));
+    }
+
+    private static PetStats stats(int[] values, boolean sleeping) {
+        PetStats stats = new PetStats(values[0], values[1], values[2], values[3], values[4]);
+        stats.restoreDecay(T0, T0, new int[4], sleeping);
+        return stats;
+    }
+
+    private static int[] values(PetStats stats, long now) {
+        int[] values = new int[StatType.COUNT];
+        for (StatType type : StatType.values()) {
+            values[type.ordinal()] = stats.valueAt(type, now);
+        }
+        return values;
+    }
+
+    private static void assertMatches(TickLoop loop, PetStats stats, long now, String where) {
+        for (StatType type : StatType.values()) {
+            assertEquals(loop.values[type.ordinal()], stats.valueAt(type, now), where + " " + type);
+        }
+        assertEquals(loop.sleeping, stats.isSleepingAt(now), where + " 睡觉");
+    }
+
+    /**
+     * 逐分钟推进的参照实现
+     * 每项数值从本段离开开始累积"速率·毫秒"，每一刻把新满的整点数逐点加减（截断在 0-100），
+     * 整段离开累计的点数不超过上限；睡觉时能量逐点恢复，到 80 就醒来。
+     */
+    private static final class TickLoop {
+        private static final int[] RATES = {StatDecay.HUNGER_RATE, StatDecay.CLEANLINESS_RATE,
+            StatDecay.HAPPINESS_RATE, StatDecay.ENERGY_REGEN_RATE};
+        private static final int[] CAPS = {StatDecay.HUNGER_CAP, StatDecay.CLEANLINESS_CAP,
+            StatDecay.HAPPINESS_CAP, StatDecay.ENERGY_REGEN_CAP};
+        private static final int ENERGY = StatType.ENERGY.ordinal();
+
+        private final int[] values;
+        private final long[] accumulated = new long[RATES.length];
+        private final int[] applied = new int[RATES.length];
+        private boolean sleeping;
+
+        TickLoop(int[] initial, boolean sleeping) {
+            this.values = initial.clone();
+            this.sleeping = sleeping && initial[ENERGY] < StatDecay.WAKE_ENERGY;
+        }
+
+        void advance() {
+            for (int i = 0; i < RATES.length; i++) {
+                accumulated[i] += TICK * RATES[i];
+                int points = (int) Math.min(accumulated[i] / HOUR, CAPS[i]);
+                for (; applied[i] < points; applied[i]++) {
+                    if (i != ENERGY) {
+                        values[i] = Math.max(0, values[i] - 1);
+                    } else if (sleeping) {
+                        values[i]++;
+                        sleeping = values[i] < StatDecay.WAKE_ENERGY;
+                    }
+                }
+            }
+        }
+
+        void sleep(boolean asleep) {
+            sleeping = asleep && values[ENERGY] < StatDecay.WAKE_ENERGY;
+        }
+
+        void restart() {
+            for (int i = 0; i < RATES.length; i++) {
+                boolean carries = applied[i] < CAPS[i] && (i != ENERGY || sleeping);
+                accumulated[i] = carries ? accumulated[i] % HOUR : 0;
+                applied[i] = 0;
+            }
+        }
+
+        void apply(int[] deltas) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Math.max(0, Math.min(100, values[i] + deltas[i]));
+            }
+            // 能量被加到 80 以上时，下一次读取就是醒着的
+            sleeping = sleeping && values[ENERGY] < StatDecay.WAKE_ENERGY;
+        }
+    }
+}
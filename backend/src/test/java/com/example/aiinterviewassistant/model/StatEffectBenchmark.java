@@ -0,0 +1,92 @@
+package com.example.aiinterviewassistant.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 状态效果应用基准测试
+ * 对比按字符串名称逐项读取、switch 分派再写回的旧 applyTo，与预编译增量向量的 applyTo（一次结算、一次取时钟、不分配对象）。
+ * 旧路径在现在的 setter 之上复现原来的字符串处理，每项数值仍然 toLowerCase、switch 并分配 LocalDateTime。
+ * 运行：mvn test-compile 后执行 main 方法，或 java -cp target/test-classes:target/classes:... org.openjdk.jmh.Main StatEffectBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatEffectBenchmark {
+
+    private PetStats stats;
+    private PetAction.StatEffect effect;
+
+    @Setup
+    public void setUp() {
+        stats = new PetStats();
+        // 三项数值的效果，正负相抵，反复应用时数值不会卡在边界上
+        effect = new PetAction.StatEffect("happiness", 1, "energy", -1, "hunger", 0);
+    }
+
+    @Benchmark
+    public void stringSwitch(Blackhole blackhole) {
+        legacyApplyTo(effect, stats);
+        blackhole.consume(stats);
+    }
+
+    @Benchmark
+    public void deltaVector(Blackhole blackhole) {
+        effect.applyTo(stats);
+        blackhole.consume(stats);
+    }
+
+    /**
+     * 改为增量向量之前的 applyTo
+     */
+    private static void legacyApplyTo(PetAction.StatEffect effect, PetStats stats) {
+        String[] statNames = effect.getStatNames();
+        int[] values = effect.getValues();
+        for (int i = 0; i < statNames.length; i++) {
+            String statName = statNames[i];
+            int currentValue = switch (statName.toLowerCase()) {
+                case "hunger" -> stats.getHunger();
+                case "cleanliness" -> stats.getCleanliness();
+                case "happiness" -> stats.getHappiness();
+                case "energy" -> stats.getEnergy();
+                case "health" -> stats.getHealth();
+                default -> 0;
+            };
+            legacyUpdateStat(stats, statName, currentValue + values[i]);
+        }
+    }
+
+    private static void legacyUpdateStat(PetStats stats, String statName, int value) {
+        switch (statName.toLowerCase()) {
+            case "hunger" -> stats.setStat(StatType.HUNGER, value);
+            case "cleanliness" -> stats.setStat(StatType.CLEANLINESS, value);
+            case "happiness" -> stats.setStat(StatType.HAPPINESS, value);
+            case "energy" -> stats.setStat(StatType.ENERGY, value);
+            case "health" -> stats.setStat(StatType.HEALTH, value);
+        }
+        // 旧实现每次写入都把 lastUpdate 记成新的 LocalDateTime
+        stats.setLastUpdate(LocalDateTime.now());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StatEffectBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.aiinterviewassistant.persistence;
+
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetType;
+import com.example.aiinterviewassistant.service.PlayerAggregate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.health.Status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 预写日志的恢复测试
+ * 崩溃用"复制数据目录"模拟：写线程仍在运行时把目录拷走，拷贝就是进程在这一刻被杀掉后留在磁盘上的内容。
+ */
+class PetJournalTest {
+
+    private static final long WAIT_MILLIS = 5_000;
+
+    @TempDir
+    Path dir;
+
+    @TempDir
+    Path crashImage;
+
+    // 模拟 PetService 中的玩家状态，快照从这里采集
+    private final Map<String, PlayerSnapshot> state = new ConcurrentHashMap<>();
+    private final List<PetJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void stopJournals() {
+        journals.forEach(PetJournal::stop);
+    }
+
+    @Test
+    void tornTailIsTruncated() throws Exception {
+        PetJournal journal = start(dir, Long.MAX_VALUE);
+        for (int i = 1; i <= 3; i++) {
+            put(journal, "p" + i, 100 + i);
+        }
+        awaitDurable(3);
+        Path segment = onlySegment(crashImage);
+
+        // 最后一帧只写了一半：长度和校验码完整，内容缺一截
+        byte[] frames = Files.readAllBytes(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2, 3, 4, '{', '"'}, StandardOpenOption.APPEND);
+        PetJournal recovered = journal(crashImage, Long.MAX_VALUE);
+        assertEquals(3, recovered.recover().size());
+        assertEquals(3, recovered.getLastSeq());
+
+        // 最后一帧内容损坏：校验失败，该帧及其后都被丢弃，序号从上一条继续
+        frames[frames.length - 2] ^= 0x5A;
+        Files.write(segment, frames);
+        recovered = journal(crashImage, Long.MAX_VALUE);
+        Map<String, PlayerSnapshot> players = recovered.recover();
+        assertEquals(List.of("p1", "p2"), new ArrayList<>(players.keySet()));
+        assertEquals(2, recovered.getLastSeq());
+    }
+
+    @Test
+    void snapshotPlusTailReplay() throws Exception {
+        PetJournal journal = start(dir, 3);
+        put(journal, "p1", 1);
+        put(journal, "p2", 2);
+        put(journal, "p3", 3);
+        await(() -> Files.exists(dir.resolve("snapshot-3.json")) && !Files.exists(dir.resolve("wal-1.log")),
+            "没有生成快照");
+        // 快照之后的两条记录只在日志尾部
+        put(journal, "p1", 11);
+        delete(journal, "p2");
+        awaitDurable(2);
+
+        try (Stream<Path> files = Files.list(crashImage)) {
+            // 快照之前的日志段已删除，只剩快照和其后的新段
+            assertEquals(List.of("snapshot-3.json", "wal-4.log"),
+                files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+        Map<String, PlayerSnapshot> players = journal(crashImage, 3).recover();
+        assertEquals(List.of("p1", "p3"), players.keySet().stream().sorted().toList());
+        assertEquals(11, players.get("p1").getCoins());
+        assertEquals(3, players.get("p3").getCoins());
+    }
+
+    @Test
+    void restartRoundTrip() throws Exception {
+        PetJournal first = start(dir, Long.MAX_VALUE);
+        put(first, "p1", 10);
+        put(first, "p2", 20);
+        put(first, "p1", 15);
+        first.stop();
+
+        PetJournal second = journal(dir, Long.MAX_VALUE);
+        Map<String, PlayerSnapshot> recovered = second.recover();
+        assertEquals(state.keySet(), recovered.keySet());
+        for (PlayerSnapshot expected : state.values()) {
+            PlayerSnapshot actual = recovered.get(expected.getPlayerId());
+            assertEquals(expected.getCoins(), actual.getCoins());
+            assertEquals(expected.getPetName(), actual.getPetName());
+            assertEquals(expected.getVersion(), actual.getVersion());
+            assertEquals(expected.getItems(), actual.getItems());
+        }
+        assertEquals(3, second.getLastSeq());
+
+        second.start(() -> new ArrayList<>(state.values()));
+        put(second, "p3", 30);
+        delete(second, "p2");
+        second.stop();
+
+        PetJournal third = journal(dir, Long.MAX_VALUE);
+        Map<String, PlayerSnapshot> players = third.recover();
+        assertEquals(List.of("p1", "p3"), players.keySet().stream().sorted().toList());
+        assertEquals(15, players.get("p1").getCoins());
+        assertEquals(30, players.get("p3").getCoins());
+        assertEquals(5, third.getLastSeq());
+    }
+
+    @Test
+    void appendFailsOnceWriterHasDied() throws Exception {
+        PetJournal journal = start(dir, Long.MAX_VALUE);
+        PetJournalHealthIndicator health = new PetJournalHealthIndicator(journal);
+        assertEquals(Status.UP, health.health().getStatus());
+
+        // JSON 不允许 null 作为键，写线程序列化这条记录时出错
+        PlayerSnapshot unwritable = snapshot("p1", 1);
+        unwritable.getItems().put(null, 1);
+        journal.append("p1", JournalRecord.Operation.CREATE_PET, () -> unwritable);
+
+        await(() -> journal.getFailure() != null, "写线程没有停止");
+        IllegalStateException rejected = assertThrows(IllegalStateException.class,
+            () -> journal.append("p2", JournalRecord.Operation.CREATE_PET, () -> snapshot("p2", 2)));
+        assertEquals(journal.getFailure(), rejected.getCause());
+        assertEquals(Status.DOWN, health.health().getStatus());
+    }
+
+    @Test
+    void disabledJournalIgnoresAppends() {
+        PetJournal journal = new PetJournal(false, dir.toString(), 1, 16, 64, 300, Long.MAX_VALUE);
+        journal.start(List::of);
+        journal.append("p1", JournalRecord.Operation.CREATE_PET, () -> snapshot("p1", 1));
+        assertEquals(Status.UP, new PetJournalHealthIndicator(journal).health().getStatus());
+    }
+
+    private PetJournal start(Path directory, long snapshotEveryRecords) {
+        PetJournal journal = journal(directory, snapshotEveryRecords);
+        journal.recover();
+        journal.start(() -> new ArrayList<>(state.values()));
+        return journal;
+    }
+
+    private PetJournal journal(Path directory, long snapshotEveryRecords) {
+        PetJournal journal = new PetJournal(true, directory.toString(), 1, 16, 64, 300, snapshotEveryRecords);
+        journals.add(journal);
+        return journal;
+    }
+
+    private void put(PetJournal journal, String playerId, int coins) {
+        PlayerSnapshot after = snapshot(playerId, coins);
+        state.put(playerId, after);
+        journal.append(playerId, JournalRecord.Operation.CREATE_PET, () -> after);
+    }
+
+    private void delete(PetJournal journal, String playerId) {
+        state.remove(playerId);
+        journal.append(playerId, JournalRecord.Operation.DELETE_PET, () -> null);
+    }
+
+    private static PlayerSnapshot snapshot(String playerId, int coins) {
+        PlayerAggregate player = new PlayerAggregate(playerId, new Pet("宠物" + playerId, PetType.CAT), coins);
+        player.addItem("apple");
+        return player.toSnapshot();
+    }
+
+    /**
+     * 等到拷贝出来的目录能恢复出当前的全部玩家，即已经写出的记录都在磁盘上了
+     */
+    private void awaitDurable(int players) throws Exception {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            copy(dir, crashImage);
+            PetJournal probe = new PetJournal(true, crashImage.toString(), 1, 16, 64, 300, Long.MAX_VALUE);
+            Map<String, PlayerSnapshot> recovered = probe.recover();
+            if (recovered.size() == players && recovered.keySet().equals(state.keySet())) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("记录没有在 " + WAIT_MILLIS + " 毫秒内写盘");
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void copy(Path from, Path to) throws IOException {
+        try (Stream<Path> old = Files.list(to)) {
+            for (Path file : old.toList()) {
+                Files.delete(file);
+            }
+        }
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.toList()) {
+                if (!file.getFileName().toString().endsWith(".tmp")) {
+                    Files.write(to.resolve(file.getFileName()), Files.readAllBytes(file));
+                }
+            }
+        }
+    }
+
+    private static Path onlySegment(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files.filter(file -> file.getFileName().toString().startsWith("wal-")).toList();
+            assertEquals(1, segments.size(), segments.toString());
+            return segments.get(0);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Achievement;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 成就进度簿与原来逐个成就线性扫描的做法对照
+ * 原做法：每个玩家一份成就列表，每个事件遍历同类型的全部未解锁成就，累加型调用 updateProgress，绝对值型调用 setProgress。
+ * 同一事件序列下，两者解锁的成就、每个成就的进度都必须相同。
+ */
+class AchievementBookTest {
+
+    // 服务中按绝对值上报的类型，其余类型按次数累加
+    private static final Set<Achievement.AchievementType> ABSOLUTE = EnumSet.of(
+        Achievement.AchievementType.LEVEL_REACHED, Achievement.AchievementType.PET_HAPPINESS,
+        Achievement.AchievementType.DAYS_OWNED);
+
+    // 目标值有重复且不按顺序排列的目录
+    private static final List<Achievement> TIED = List.of(
+        template("feed_5a", Achievement.AchievementType.FEED_COUNT, 5),
+        template("feed_3", Achievement.AchievementType.FEED_COUNT, 3),
+        template("feed_5b", Achievement.AchievementType.FEED_COUNT, 5),
+        template("feed_1", Achievement.AchievementType.FEED_COUNT, 1),
+        template("level_10a", Achievement.AchievementType.LEVEL_REACHED, 10),
+        template("level_2", Achievement.AchievementType.LEVEL_REACHED, 2),
+        template("level_10b", Achievement.AchievementType.LEVEL_REACHED, 10),
+        template("play_7", Achievement.AchievementType.PLAY_COUNT, 7),
+        template("play_7b", Achievement.AchievementType.PLAY_COUNT, 7));
+
+    @Test
+    void directEventsMatchLinearScan() {
+        Random random = new Random(11);
+        for (List<Achievement> catalog : List.of(Achievement.catalog(), TIED)) {
+            for (int run = 0; run < 200; run++) {
+                AchievementBook book = new AchievementBook(catalog);
+                LinearScan baseline = new LinearScan(catalog);
+                for (int step = 0; step < 300; step++) {
+                    Event event = Event.random(random, catalog);
+                    assertEquals(baseline.apply(event), apply(book, event), event.toString());
+                    assertSameProgress(baseline, book);
+                }
+            }
+        }
+    }
+
+    @Test
+    void batchedEventsUnlockTheSameAchievements() {
+        Random random = new Random(13);
+        for (List<Achievement> catalog : List.of(Achievement.catalog(), TIED)) {
+            for (int run = 0; run < 200; run++) {
+                AchievementBook book = new AchievementBook(catalog);
+                LinearScan baseline = new LinearScan(catalog);
+                for (int step = 0; step < 300; step++) {
+                    Event event = Event.random(random, catalog);
+                    baseline.apply(event);
+                    queue(book, event);
+                    if (random.nextInt(8) == 0) {
+                        book.flush(index -> { });
+                        assertEquals(baseline.unlockedMask(), book.getUnlockedMask());
+                    }
+                }
+                book.flush(index -> { });
+                assertEquals(baseline.unlockedMask(), book.getUnlockedMask());
+            }
+        }
+    }
+
+    @Test
+    void absoluteEventsKeepTheBatchMaximum() {
+        AchievementBook book = new AchievementBook(TIED);
+        LinearScan baseline = new LinearScan(TIED);
+        // 批次中途达到过目标，之后的较小值不会把它抹掉
+        for (int level : new int[]{3, 11, 4}) {
+            Event event = new Event(Achievement.AchievementType.LEVEL_REACHED, level, true);
+            baseline.apply(event);
+            queue(book, event);
+        }
+        assertEquals(11, book.pendingSetOf(Achievement.AchievementType.LEVEL_REACHED));
+        List<Integer> unlocked = new ArrayList<>();
+        book.flush(unlocked::add);
+        assertEquals(List.of(5, 4, 6), unlocked);
+        assertEquals(baseline.unlockedMask(), book.getUnlockedMask());
+        assertTrue(book.isFinished(Achievement.AchievementType.LEVEL_REACHED));
+    }
+
+    @Test
+    void tiedTargetsUnlockTogether() {
+        AchievementBook book = new AchievementBook(TIED);
+        List<Integer> unlocked = new ArrayList<>();
+        book.add(Achievement.AchievementType.FEED_COUNT, 4, unlocked::add);
+        assertEquals(List.of(3, 1), unlocked);
+        assertEquals(5, book.nextTarget(Achievement.AchievementType.FEED_COUNT));
+        unlocked.clear();
+        book.add(Achievement.AchievementType.FEED_COUNT, 1, unlocked::add);
+        assertEquals(List.of(0, 2), unlocked);
+        assertTrue(book.isFinished(Achievement.AchievementType.FEED_COUNT));
+    }
+
+    @Test
+    void restoreRebuildsCursorsAndPending() {
+        Random random = new Random(17);
+        for (List<Achievement> catalog : List.of(Achievement.catalog(), TIED)) {
+            for (int run = 0; run < 200; run++) {
+                AchievementBook book = new AchievementBook(catalog);
+                LinearScan baseline = new LinearScan(catalog);
+                int steps = random.nextInt(60);
+                for (int step = 0; step < steps; step++) {
+                    Event event = Event.random(random, catalog);
+                    baseline.apply(event);
+                    apply(book, event);
+                }
+                // 快照中还有待处理的事件
+                List<Event> pending = new ArrayList<>();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    Event event = Event.random(random, catalog);
+                    pending.add(event);
+                    queue(book, event);
+                }
+
+                // 按快照逐个成就恢复，恢复顺序不影响游标
+                AchievementBook restored = new AchievementBook(catalog);
+                List<Integer> order = new ArrayList<>();
+                for (int i = 0; i < catalog.size(); i++) {
+                    order.add(i);
+                }
+                Collections.shuffle(order, random);
+                for (int i : order) {
+                    restored.restore(i, book.progressOf(i), book.isUnlocked(i), book.unlockedAtOf(i), false);
+                }
+                for (Achievement.AchievementType type : Achievement.AchievementType.values()) {
+                    restored.restorePending(type, book.pendingAddOf(type), book.pendingSetOf(type));
+                    assertEquals(book.nextTarget(type), restored.nextTarget(type), type.name());
+                    assertEquals(book.isFinished(type), restored.isFinished(type), type.name());
+                }
+                assertSameProgress(baseline, restored);
+
+                for (Event event : pending) {
+                    baseline.apply(event);
+                }
+                restored.flush(index -> { });
+                assertEquals(baseline.unlockedMask(), restored.getUnlockedMask());
+                for (int step = 0; step < 100; step++) {
+                    Event event = Event.random(random, catalog);
+                    assertEquals(baseline.apply(event), apply(restored, event), event.toString());
+                }
+            }
+        }
+    }
+
+    private static List<Integer> apply(AchievementBook book, Event event) {
+        List<Integer> unlocked = new ArrayList<>();
+        if (event.absolute) {
+            book.set(event.type, event.value, unlocked::add);
+        } else {
+            book.add(event.type, event.value, unlocked::add);
+        }
+        unlocked.sort(null);
+        return unlocked;
+    }
+
+    private static void queue(AchievementBook book, Event event) {
+        if (event.absolute) {
+            book.queueSet(event.type, event.value);
+        } else {
+            book.queueAdd(event.type, event.value);
+        }
+    }
+
+    private static void assertSameProgress(LinearScan baseline, AchievementBook book) {
+        for (int i = 0; i < baseline.achievements.size(); i++) {
+            Achievement expected = baseline.achievements.get(i);
+            assertEquals(expected.isUnlocked(), book.isUnlocked(i), expected.getId());
+            assertEquals(expected.getCurrentProgress(), book.progressOf(i), expected.getId());
+        }
+    }
+
+    private static Achievement template(String id, Achievement.AchievementType type, int target) {
+        return new Achievement(id, id, id, "", type, target, new Achievement.Reward(1, 1));
+    }
+
+    /**
+     * 原来的做法：每个玩家一份成就列表，逐个扫描
+     */
+    private static final class LinearScan {
+        private final List<Achievement> achievements = new ArrayList<>();
+
+        LinearScan(List<Achievement> catalog) {
+            for (Achievement template : catalog) {
+                achievements.add(Achievement.withProgress(template, 0, false, null));
+            }
+        }
+
+        List<Integer> apply(Event event) {
+            List<Integer> unlocked = new ArrayList<>();
+            for (int i = 0; i < achievements.size(); i++) {
+                Achievement achievement = achievements.get(i);
+                if (achievement.getType() == event.type && !achievement.isUnlocked()) {
+                    boolean newlyUnlocked = event.absolute
+                        ? achievement.setProgress(event.value)
+                        : achievement.updateProgress(event.value);
+                    if (newlyUnlocked) {
+                        unlocked.add(i);
+                    }
+                }
+            }
+            return unlocked;
+        }
+
+        long unlockedMask() {
+            long mask = 0;
+            for (int i = 0; i < achievements.size(); i++) {
+                if (achievements.get(i).isUnlocked()) {
+                    mask |= 1L << i;
+                }
+            }
+            return mask;
+        }
+    }
+
+    private record Event(Achievement.AchievementType type, int value, boolean absolute) {
+
+        static Event random(Random random, List<Achievement> catalog) {
+            Achievement.AchievementType type = catalog.get(random.nextInt(catalog.size())).getType();
+            boolean absolute = ABSOLUTE.contains(type);
+            int limit = Math.max(2, catalog.stream()
+                .filter(achievement -> achievement.getType() == type)
+                .mapToInt(Achievement::getTargetValue).max().orElse(1));
+            // 累加型多数是小步增长，偶尔一次跨过多个目标；绝对值型可以上下波动
+            int value = absolute ? random.nextInt(limit + 2)
+                : random.nextInt(10) == 0 ? random.nextInt(limit + 1) : random.nextInt(3);
+            return new Event(type, value, absolute);
+        }
+    }
+}
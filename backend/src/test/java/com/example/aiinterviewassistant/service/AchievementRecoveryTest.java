@@ -0,0 +1,203 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Achievement;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.model.PetType;
+import com.example.aiinterviewassistant.persistence.PetJournal;
+import com.example.aiinterviewassistant.persistence.PlayerSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 成就奖励恰好发放一次：结算前后崩溃、恢复后都不会重复发放，通知过的成就也不会重复通知
+ * 崩溃用"复制数据目录"模拟，见 PetJournalTest
+ */
+class AchievementRecoveryTest {
+
+    private static final String PLAYER = "p1";
+    private static final long WAIT_MILLIS = 5_000;
+    // 成就处理器的窗口长到测试期间不会结算
+    private static final long NEVER = 600_000;
+
+    @TempDir
+    Path first;
+
+    @TempDir
+    Path second;
+
+    @TempDir
+    Path third;
+
+    private final List<Runnable> stops = new ArrayList<>();
+
+    @AfterEach
+    void stopServices() {
+        stops.forEach(Runnable::run);
+    }
+
+    @Test
+    void rewardIsNotGrantedAgainAfterCrashFollowingFlush() throws Exception {
+        PetService service = start(first, 10);
+        service.createPet(PLAYER, "小猫", PetType.CAT).join();
+        service.executeAction(PLAYER, PetAction.FEED).join();
+        long unlocked = awaitUnlocked(service);
+        int coins = coinsOf(service);
+
+        crash(first, second, snapshot -> anyUnlocked(snapshot));
+        PetService recovered = start(second, 10);
+        idleForSeveralWindows();
+        assertEquals(coins, coinsOf(recovered));
+        assertEquals(unlocked, maskOf(recovered));
+
+        // 崩溃前没有通知过，恢复后通知一次；通知本身也写进日志，再次崩溃后不会重复通知
+        List<Achievement> announced = recovered.readPlayer(PLAYER, recovered::takeUnlockedAchievements).join();
+        assertEquals(Long.bitCount(unlocked), announced.size());
+        crash(second, third, snapshot -> snapshot.getAchievements().stream()
+            .noneMatch(PlayerSnapshot.AchievementProgress::isUnannounced));
+        PetService again = start(third, 10);
+        assertTrue(again.readPlayer(PLAYER, again::takeUnlockedAchievements).join().isEmpty());
+        assertEquals(coins, coinsOf(again));
+    }
+
+    @Test
+    void pendingEventsAreAwardedOnceAfterCrashBeforeFlush() throws Exception {
+        PetService service = start(first, NEVER);
+        service.createPet(PLAYER, "小狗", PetType.DOG).join();
+        service.executeAction(PLAYER, PetAction.FEED).join();
+        int coinsBeforeAward = coinsOf(service);
+        assertEquals(0, maskOf(service));
+
+        // 动作的日志记录带着待处理的事件，崩溃时还没结算
+        crash(first, second, snapshot -> !snapshot.getPendingAchievementAdds().isEmpty());
+        PetService recovered = start(second, 10);
+        long unlocked = awaitUnlocked(recovered);
+        idleForSeveralWindows();
+        int coins = coinsOf(recovered);
+        assertEquals(coinsBeforeAward + rewardCoins(unlocked), coins);
+
+        crash(second, third, snapshot -> snapshot.getPendingAchievementAdds().isEmpty() && anyUnlocked(snapshot));
+        PetService again = start(third, 10);
+        idleForSeveralWindows();
+        assertEquals(coins, coinsOf(again));
+        assertEquals(unlocked, maskOf(again));
+    }
+
+    @Test
+    void announcementBumpsTheStateVersion() throws Exception {
+        PetService service = start(first, 10);
+        service.createPet(PLAYER, "小兔", PetType.RABBIT).join();
+        service.executeAction(PLAYER, PetAction.PLAY).join();
+        awaitUnlocked(service);
+        long before = service.readPlayer(PLAYER, PlayerAggregate::getVersion).join();
+        assertFalse(service.readPlayer(PLAYER, service::takeUnlockedAchievements).join().isEmpty());
+        assertNotEquals(before, (long) service.readPlayer(PLAYER, PlayerAggregate::getVersion).join());
+    }
+
+    /**
+     * 用 dir 中的数据启动一套服务，与 Spring 容器中的装配相同
+     */
+    private PetService start(Path dir, long achievementBatchMillis) {
+        PetJournal journal = new PetJournal(true, dir.toString(), 1, 64, 1024, 300, 100_000);
+        CareAlertScheduler careAlerts = new CareAlertScheduler(1000);
+        AchievementProcessor achievements = new AchievementProcessor(achievementBatchMillis);
+        MilestoneScheduler milestones = new MilestoneScheduler(1000, achievements);
+        StatePushHub push = new StatePushHub(1000, 30);
+        PetService service = new PetService(journal, new StripedLockExecutor(16), careAlerts, achievements,
+            milestones, push);
+        service.recoverState();
+        stops.add(() -> {
+            achievements.stop();
+            milestones.stop();
+            careAlerts.stop();
+            push.stop();
+            journal.stop();
+        });
+        return service;
+    }
+
+    /**
+     * 等到 from 中已经写盘的状态满足 durable，再把数据目录复制到 to，相当于进程在这一刻被杀掉
+     */
+    private static void crash(Path from, Path to, Predicate<PlayerSnapshot> durable) throws Exception {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            copy(from, to);
+            PlayerSnapshot snapshot = new PetJournal(true, to.toString(), 1, 64, 1024, 300, 100_000)
+                .recover().get(PLAYER);
+            if (snapshot != null && durable.test(snapshot)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("状态没有在 " + WAIT_MILLIS + " 毫秒内写盘");
+    }
+
+    private static long awaitUnlocked(PetService service) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            long mask = service.readPlayer(PLAYER, player -> player.getAchievementBook().hasPending()
+                ? 0L : player.getAchievementBook().getUnlockedMask()).join();
+            if (mask != 0) {
+                return mask;
+            }
+            Thread.sleep(10);
+        }
+        return fail("成就没有在 " + WAIT_MILLIS + " 毫秒内结算");
+    }
+
+    private static void idleForSeveralWindows() throws InterruptedException {
+        Thread.sleep(200);
+    }
+
+    private static int coinsOf(PetService service) {
+        return service.readPlayer(PLAYER, PlayerAggregate::getCoins).join();
+    }
+
+    private static long maskOf(PetService service) {
+        return service.readPlayer(PLAYER, player -> player.getAchievementBook().getUnlockedMask()).join();
+    }
+
+    private static boolean anyUnlocked(PlayerSnapshot snapshot) {
+        return snapshot.getAchievements().stream().anyMatch(PlayerSnapshot.AchievementProgress::isUnlocked);
+    }
+
+    private static int rewardCoins(long mask) {
+        int coins = 0;
+        for (int i = 0; i < Achievement.catalog().size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                coins += Achievement.catalog().get(i).getReward().getCoins();
+            }
+        }
+        return coins;
+    }
+
+    private static void copy(Path from, Path to) throws IOException {
+        try (Stream<Path> old = Files.list(to)) {
+            for (Path file : old.toList()) {
+                Files.delete(file);
+            }
+        }
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.toList()) {
+                if (!file.getFileName().toString().endsWith(".tmp")) {
+                    Files.write(to.resolve(file.getFileName()), Files.readAllBytes(file));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetStats;
+import com.example.aiinterviewassistant.model.StatDecay;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 列式批量推进与逐只计算（PetStats + Pet，都调用 StatDecay）的对照测试
+ */
+class BulkDecaySimulatorTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long HOUR = StatDecay.MILLIS_PER_HOUR;
+    private static final BulkDecaySimulator SIMULATOR = new BulkDecaySimulator(new ForkJoinPool(4));
+
+    @Test
+    void sequentialAdvanceMatchesScalarPath() {
+        for (long offset : new long[]{0, 1, HOUR / 2, HOUR - 1, HOUR, 6 * HOUR, 48 * HOUR}) {
+            assertMatches(PetPopulation.random(5_000, NOW, offset), NOW + offset, false);
+        }
+    }
+
+    @Test
+    void parallelAdvanceMatchesScalarPath() {
+        // 超过切块大小，才会真正拆成多个 fork-join 任务
+        assertMatches(PetPopulation.random(100_000, NOW, 42), NOW + 6 * HOUR, true);
+    }
+
+    @Test
+    void advancingInStepsMatchesOneScalarSettle() {
+        PetColumns columns = PetPopulation.random(5_000, NOW, 7);
+        Pet[] expected = scalarCopies(columns);
+        long target = NOW;
+        for (int step = 0; step < 24; step++) {
+            target += HOUR / 3 + step;
+            SIMULATOR.advance(columns, target, false);
+        }
+        assertSame(expected, columns, target);
+    }
+
+    @Test
+    void wakingThresholdAndBoundsMatchScalarPath() {
+        PetColumns columns = new PetColumns(4);
+        // 快醒的睡眠宠物、已经醒来的睡眠宠物、全部为 0、全部为 100
+        int[][] rows = {{40, 40, 40, StatDecay.WAKE_ENERGY - 1, 40}, {40, 40, 40, StatDecay.WAKE_ENERGY, 40},
+            {0, 0, 0, 0, 0}, {100, 100, 100, 100, 100}};
+        for (int i = 0; i < rows.length; i++) {
+            columns.hunger[i] = rows[i][0];
+            columns.cleanliness[i] = rows[i][1];
+            columns.happiness[i] = rows[i][2];
+            columns.energy[i] = rows[i][3];
+            columns.health[i] = rows[i][4];
+            columns.decayOrigin[i] = NOW - 2 * HOUR;
+            columns.settledAt[i] = NOW;
+            columns.sleeping[i] = i < 3;
+        }
+        for (long offset : new long[]{0, HOUR / 10, HOUR, 100 * HOUR}) {
+            assertMatches(copyOf(columns), NOW + offset, false);
+        }
+    }
+
+    private static void assertMatches(PetColumns columns, long target, boolean parallel) {
+        Pet[] expected = scalarCopies(columns);
+        SIMULATOR.advance(columns, target, parallel);
+        assertSame(expected, columns, target);
+    }
+
+    private static Pet[] scalarCopies(PetColumns columns) {
+        Pet[] pets = new Pet[columns.size()];
+        for (int i = 0; i < pets.length; i++) {
+            Pet pet = new Pet();
+            pet.setStats(columns.toPetStats(i));
+            pet.setMood(columns.moodOf(i));
+            pets[i] = pet;
+        }
+        return pets;
+    }
+
+    private static void assertSame(Pet[] expected, PetColumns columns, long target) {
+        for (int i = 0; i < expected.length; i++) {
+            PetStats stats = expected[i].getStats();
+            String row = "第 " + i + " 行";
+            assertEquals(stats.hungerAt(target), columns.hunger[i], row);
+            assertEquals(stats.cleanlinessAt(target), columns.cleanliness[i], row);
+            assertEquals(stats.happinessAt(target), columns.happiness[i], row);
+            assertEquals(stats.energyAt(target), columns.energy[i], row);
+            assertEquals(stats.healthAt(target), columns.health[i], row);
+            assertEquals(stats.isSleepingAt(target), columns.sleeping[i], row);
+            assertEquals(expected[i].getMood(target), columns.moodOf(i), row);
+        }
+    }
+
+    private static PetColumns copyOf(PetColumns source) {
+        PetColumns copy = new PetColumns(source.size());
+        for (int i = 0; i < source.size(); i++) {
+            copy.hunger[i] = source.hunger[i];
+            copy.cleanliness[i] = source.cleanliness[i];
+            copy.happiness[i] = source.happiness[i];
+            copy.energy[i] = source.energy[i];
+            copy.health[i] = source.health[i];
+            copy.decayOrigin[i] = source.decayOrigin[i];
+            copy.settledAt[i] = source.settledAt[i];
+            copy.sleeping[i] = source.sleeping[i];
+            copy.mood[i] = source.mood[i];
+        }
+        return copy;
+    }
+}
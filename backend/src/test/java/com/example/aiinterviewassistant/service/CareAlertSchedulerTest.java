@@ -0,0 +1,107 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 照顾提醒的发送：玩家线程只入队，订阅者只收到自己玩家的提醒
+ */
+class CareAlertSchedulerTest {
+
+    private final CareAlertScheduler scheduler = new CareAlertScheduler(1000);
+    private final List<Disposable> subscriptions = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        subscriptions.forEach(Disposable::dispose);
+        scheduler.stop();
+    }
+
+    @Test
+    void subscribersOnlyReceiveTheirOwnPlayersAlerts() throws Exception {
+        scheduler.start(playerId -> { });
+        Queue<CareAlert> mine = subscribe("p1");
+        Queue<CareAlert> other = subscribe("p2");
+
+        scheduler.evaluate(hungryPlayer("p1"));
+        awaitSize(mine, 1);
+        assertEquals(CareAlert.Reason.HUNGRY, mine.peek().getReason());
+        assertEquals("p1", mine.peek().getPlayerId());
+
+        // 已经提醒过的原因不再重复
+        scheduler.evaluate(hungryPlayer("p1"));
+        Thread.sleep(50);
+        assertEquals(1, mine.size());
+        assertTrue(other.isEmpty());
+    }
+
+    @Test
+    void concurrentPlayersPublishWithoutLosingAlerts() throws Exception {
+        scheduler.start(playerId -> { });
+        int threads = 8;
+        int alertsPerThread = 200;
+        List<Queue<CareAlert>> received = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            received.add(subscribe("t" + t));
+        }
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String playerId = "t" + t;
+            Thread worker = new Thread(() -> {
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < alertsPerThread; i++) {
+                    scheduler.evaluate(hungryPlayer(playerId));
+                    scheduler.cancel(playerId);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        ready.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (Queue<CareAlert> queue : received) {
+            awaitSize(queue, alertsPerThread);
+        }
+        assertEquals(0, scheduler.droppedCount());
+    }
+
+    private Queue<CareAlert> subscribe(String playerId) {
+        Queue<CareAlert> received = new ConcurrentLinkedQueue<>();
+        subscriptions.add(scheduler.alerts(playerId).subscribe(received::add));
+        return received;
+    }
+
+    private static PlayerAggregate hungryPlayer(String playerId) {
+        Pet pet = new Pet("饿了", PetType.CAT);
+        pet.getStats().setHunger(5);
+        return new PlayerAggregate(playerId, pet, 100);
+    }
+
+    private static void awaitSize(Queue<CareAlert> queue, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (queue.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(size, queue.size());
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.StatDecay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量状态推进基准测试
+ * 在列式存储上把一批随机宠物推进一分钟，对比单线程和 fork-join 并行；每次调用目标时刻后移，保证每次都真正结算。
+ * 与逐只计算结果一致性的检查见 BulkDecaySimulatorTest。
+ * 运行：mvn test-compile 后执行 main 方法，或 java -cp target/test-classes:target/classes:... org.openjdk.jmh.Main DecayBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecayBenchmark {
+
+    @Param({"1000000"})
+    private int pets;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private final BulkDecaySimulator simulator = new BulkDecaySimulator();
+    private PetColumns columns;
+    private long target;
+
+    @Setup
+    public void setUp() {
+        target = System.currentTimeMillis();
+        columns = PetPopulation.random(pets, target, 1);
+    }
+
+    @Benchmark
+    public PetColumns advance() {
+        target += StatDecay.MILLIS_PER_HOUR / 60;
+        simulator.advance(columns, target, parallel);
+        return columns;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DecayBenchmark.class.getSimpleName()).build()).run();
+    }
+}
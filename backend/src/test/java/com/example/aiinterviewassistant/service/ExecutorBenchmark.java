@@ -0,0 +1,101 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetAction;
+import com.example.aiinterviewassistant.model.PetType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 执行引擎基准测试
+ * 同样的线程数和命令分别交给全局锁、分段锁和不同分片数的事件循环执行，不经过 HTTP，只比较执行方式本身。
+ * 每条命令对随机玩家做一次喂食结算并加 1 金币；金币的读改写不是原子的，
+ * 结束时金币总数与命令数不符说明有更新丢失，基准测试直接失败。
+ * 运行：mvn test-compile 后执行 main 方法，或 java -cp target/test-classes:target/classes:... org.openjdk.jmh.Main ExecutorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class ExecutorBenchmark {
+
+    @Param({"global", "striped", "sharded:1", "sharded:2", "sharded:4"})
+    private String engine;
+
+    @Param({"10000"})
+    private int players;
+
+    private PlayerCommandExecutor executor;
+    private String[] ids;
+    private PlayerAggregate[] aggregates;
+    private final LongAdder commands = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (engine.equals("global")) {
+            executor = new GlobalLockExecutor();
+        } else if (engine.equals("striped")) {
+            executor = new StripedLockExecutor(1024);
+        } else {
+            executor = new ShardedEventLoopExecutor(Integer.parseInt(engine.substring("sharded:".length())), 8192, 256);
+        }
+        ids = new String[players];
+        aggregates = new PlayerAggregate[players];
+        for (int i = 0; i < players; i++) {
+            ids[i] = "bench-" + i;
+            aggregates[i] = new PlayerAggregate(ids[i], new Pet("Bench", PetType.CAT), 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor instanceof ShardedEventLoopExecutor sharded) {
+            sharded.shutdown();
+        }
+        long coins = 0;
+        for (PlayerAggregate player : aggregates) {
+            coins += player.getCoins();
+        }
+        if (coins != commands.sum()) {
+            throw new IllegalStateException(engine + " 丢失了 " + (commands.sum() - coins) + " 次更新");
+        }
+    }
+
+    @Benchmark
+    public void feed() {
+        int index = ThreadLocalRandom.current().nextInt(players);
+        PlayerAggregate player = aggregates[index];
+        executor.execute(ids[index], () -> {
+            PetAction.FEED.getEffect().applyTo(player.getPet().getStats(), System.currentTimeMillis());
+            player.addCoins(1);
+            return null;
+        });
+        commands.increment();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExecutorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
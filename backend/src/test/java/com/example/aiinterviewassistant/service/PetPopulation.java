@@ -0,0 +1,48 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Mood;
+import com.example.aiinterviewassistant.model.StatDecay;
+
+import java.util.Random;
+
+/**
+ * 测试和基准测试共用的随机宠物群
+ */
+final class PetPopulation {
+
+    private PetPopulation() {}
+
+    /**
+     * 离开时长 0-48 小时，基线结算点位于离开期间，约一成在睡觉；
+     * 数值有一部分直接取 0 和 100，覆盖上下边界
+     */
+    static PetColumns random(int pets, long now, long seed) {
+        Random random = new Random(seed);
+        PetColumns columns = new PetColumns(pets);
+        for (int i = 0; i < pets; i++) {
+            long origin = now - (long) (random.nextDouble() * 48 * StatDecay.MILLIS_PER_HOUR);
+            columns.hunger[i] = stat(random);
+            columns.cleanliness[i] = stat(random);
+            columns.happiness[i] = stat(random);
+            columns.energy[i] = stat(random);
+            columns.health[i] = stat(random);
+            columns.hungerCarry[i] = random.nextInt((int) StatDecay.MILLIS_PER_HOUR);
+            columns.cleanlinessCarry[i] = random.nextInt((int) StatDecay.MILLIS_PER_HOUR);
+            columns.happinessCarry[i] = random.nextInt((int) StatDecay.MILLIS_PER_HOUR);
+            columns.energyCarry[i] = random.nextInt((int) StatDecay.MILLIS_PER_HOUR);
+            columns.decayOrigin[i] = origin;
+            columns.settledAt[i] = origin + (long) (random.nextDouble() * (now - origin + 1));
+            columns.sleeping[i] = random.nextInt(10) == 0;
+            columns.mood[i] = (byte) random.nextInt(Mood.values().length);
+        }
+        return columns;
+    }
+
+    private static int stat(Random random) {
+        return switch (random.nextInt(10)) {
+            case 0 -> 0;
+            case 1 -> 100;
+            default -> random.nextInt(101);
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.aiinterviewassistant.service;
+
+import com.example.aiinterviewassistant.model.Pet;
+import com.example.aiinterviewassistant.model.PetType;
+import com.example.aiinterviewassistant.persistence.PlayerSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 状态版本号和实体标签跨重启的唯一性和单调性
+ */
+class PlayerAggregateTest {
+
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+    @Test
+    void restoredVersionIsNewerThanAnyIssuedBeforeRestart() {
+        PlayerAggregate player = new PlayerAggregate("p1", new Pet("Bench", PetType.CAT), 100);
+        player.touch();
+        PlayerSnapshot snapshot = player.toSnapshot();
+        assertEquals(player.getVersion(), snapshot.getVersion());
+        // 快照之后的变更发出了版本号，但没来得及落盘
+        for (int i = 0; i < 5; i++) {
+            player.touch();
+        }
+
+        PlayerAggregate restored = PlayerAggregate.fromSnapshot(snapshot);
+        assertTrue(restored.getVersion() > player.getVersion());
+        restored.touch();
+        PlayerAggregate restoredAgain = PlayerAggregate.fromSnapshot(restored.toSnapshot());
+        assertTrue(restoredAgain.getVersion() > restored.getVersion());
+        assertTrue(restoredAgain.getVersion() <= MAX_SAFE_INTEGER);
+    }
+
+    @Test
+    void stateTagsDoNotRepeatAfterRestart() {
+        PlayerAggregate player = new PlayerAggregate("p4", new Pet("Bench", PetType.RABBIT), 100);
+        PlayerSnapshot snapshot = player.toSnapshot();
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            issued.add(player.stateTag());
+            issued.add(player.statsTag());
+            player.touch();
+        }
+        PlayerAggregate restored = PlayerAggregate.fromSnapshot(snapshot);
+        for (int i = 0; i < 5; i++) {
+            assertFalse(issued.contains(restored.stateTag()));
+            assertFalse(issued.contains(restored.statsTag()));
+            restored.touch();
+        }
+    }
+
+    @Test
+    void snapshotWithoutVersionStartsAtThisBoot() {
+        PlayerSnapshot legacy = new PlayerAggregate("p2", new Pet("Bench", PetType.DOG), 100).toSnapshot();
+        legacy.setVersion(0);
+        PlayerAggregate restored = PlayerAggregate.fromSnapshot(legacy);
+        assertTrue(PlayerAggregate.generationOf(restored.getVersion()) >= PlayerAggregate.BOOT_GENERATION);
+    }
+
+    @Test
+    void recreatedPlayerIsNewerThanRestoredOne() {
+        PlayerSnapshot snapshot = new PlayerAggregate("p3", new Pet("Bench", PetType.PANDA), 100).toSnapshot();
+        // 上次进程的代号跑到了本次启动时刻之前
+        snapshot.setVersion((PlayerAggregate.BOOT_GENERATION + 1_000) << 24);
+        PlayerAggregate restored = PlayerAggregate.fromSnapshot(snapshot);
+        assertTrue(restored.getVersion() > snapshot.getVersion());
+
+        PlayerAggregate recreated = new PlayerAggregate("p3", new Pet("Again", PetType.PANDA), 100);
+        assertTrue(recreated.getVersion() > restored.getVersion());
+    }
+}